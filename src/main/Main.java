@@ -1,5 +1,11 @@
 package main;
 
+import java.io.IOException;
+
+import main.api.ServeurBinaire;
+import main.api.ServeurHttp;
+import main.monitoring.EnregistrementJfr;
+import main.service.ServiceUtilisateur;
 import main.ui.MainFrame;
 
 /**
@@ -8,11 +14,44 @@ import main.ui.MainFrame;
  */
 public class Main {
     /**
-     * Méthode principale qui lance l'application Swing.
+     * Méthode principale qui lance l'application Swing, ou les serveurs sans
+     * interface graphique avec les options {@code --serveur [port]} (HTTP)
+     * et {@code --binaire [port]} (protocole binaire).
      * 
-     * @param args arguments de la ligne de commande (non utilisés)
+     * @param args arguments de la ligne de commande
+     * @throws IOException si le port d'un serveur ne peut pas être ouvert
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Enregistrement JFR optionnel (-Dusermanager.jfr=fichier.jfr)
+        EnregistrementJfr.demarrerSiConfigure();
+        // Modes serveur sans interface graphique, partageant le même service
+        ServiceUtilisateur serviceUtilisateur = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--serveur".equals(args[i]) || "--binaire".equals(args[i])) {
+                if (serviceUtilisateur == null) {
+                    serviceUtilisateur = new ServiceUtilisateur();
+                }
+                boolean http = "--serveur".equals(args[i]);
+                int port = http ? 8080 : 9090;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    port = Integer.parseInt(args[++i]);
+                }
+                if (http) {
+                    ServeurHttp serveur = new ServeurHttp(serviceUtilisateur, port);
+                    serveur.demarrer();
+                    System.out.println("Serveur HTTP démarré sur http://localhost:" + serveur.getPort()
+                            + ServeurHttp.CHEMIN_API);
+                } else {
+                    ServeurBinaire serveur = new ServeurBinaire(serviceUtilisateur, port);
+                    serveur.demarrer();
+                    System.out.println("Serveur binaire démarré sur le port " + serveur.getPort());
+                }
+            }
+        }
+        if (serviceUtilisateur != null) {
+            return;
+        }
+        
         // Démarrer l'application Swing
         MainFrame.main(args);
     }
@@ -0,0 +1,194 @@
+package main.api;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import main.model.UtilisateurImmuable;
+
+/**
+ * Client bloquant du protocole binaire ({@link ProtocoleBinaire}).
+ * Une instance correspond à une connexion et ne doit pas être partagée entre threads.
+ */
+public class ClientBinaire implements AutoCloseable {
+    private final SocketChannel canal;
+    private final ByteBuffer envoi = ByteBuffer.allocate(ProtocoleBinaire.TAILLE_TRAME_MAX + 4);
+    private ByteBuffer reception = ByteBuffer.allocate(64 * 1024);
+    private int prochaineCorrelation;
+    
+    /**
+     * Ouvre une connexion vers un serveur binaire.
+     * 
+     * @param hote l'hôte du serveur
+     * @param port le port du serveur
+     * @throws IOException si la connexion échoue
+     */
+    public ClientBinaire(String hote, int port) throws IOException {
+        this.canal = SocketChannel.open(new InetSocketAddress(hote, port));
+        this.canal.socket().setTcpNoDelay(true);
+    }
+    
+    /**
+     * Vérifie que le serveur répond.
+     * 
+     * @return true si le serveur a répondu OK
+     * @throws IOException en cas d'erreur réseau
+     */
+    public boolean ping() throws IOException {
+        envoi.clear();
+        int correlation = ecrireEntete(ProtocoleBinaire.OP_PING, 0);
+        envoyer();
+        return recevoir(correlation) == ProtocoleBinaire.STATUT_OK;
+    }
+    
+    /**
+     * Lit un utilisateur par son ID.
+     * 
+     * @param id l'ID de l'utilisateur
+     * @return un Optional contenant l'utilisateur s'il existe
+     * @throws IOException en cas d'erreur réseau ou de réponse invalide
+     */
+    public Optional<UtilisateurImmuable> lire(int id) throws IOException {
+        envoi.clear();
+        int correlation = ecrireEntete(ProtocoleBinaire.OP_LIRE, 4);
+        envoi.putInt(id);
+        envoyer();
+        return lireReponseLecture(correlation);
+    }
+    
+    /**
+     * Lit plusieurs utilisateurs en une seule requête.
+     * 
+     * @param ids les IDs des utilisateurs
+     * @return pour chaque ID, dans l'ordre, l'utilisateur trouvé ou un Optional vide
+     * @throws IOException en cas d'erreur réseau ou de réponse invalide
+     */
+    public List<Optional<UtilisateurImmuable>> lireLot(int... ids) throws IOException {
+        if (ids.length > ProtocoleBinaire.TAILLE_LOT_MAX) {
+            throw new IllegalArgumentException("Lot limité à " + ProtocoleBinaire.TAILLE_LOT_MAX + " IDs");
+        }
+        envoi.clear();
+        int correlation = ecrireEntete(ProtocoleBinaire.OP_LIRE_LOT, 4 + 4 * ids.length);
+        envoi.putInt(ids.length);
+        for (int id : ids) {
+            envoi.putInt(id);
+        }
+        envoyer();
+        
+        verifierStatut(recevoir(correlation), ProtocoleBinaire.STATUT_OK);
+        int nombre = reception.getInt();
+        List<Optional<UtilisateurImmuable>> resultats = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            resultats.add(reception.get() == 1
+                    ? Optional.of(ProtocoleBinaire.lireUtilisateur(reception))
+                    : Optional.empty());
+        }
+        return resultats;
+    }
+    
+    /**
+     * Lit plusieurs utilisateurs avec une requête par ID, toutes envoyées avant de lire
+     * la première réponse (requêtes enchaînées).
+     * 
+     * @param ids les IDs des utilisateurs
+     * @return pour chaque ID, dans l'ordre, l'utilisateur trouvé ou un Optional vide
+     * @throws IOException en cas d'erreur réseau ou de réponse invalide
+     */
+    public List<Optional<UtilisateurImmuable>> lireEnChaine(int... ids) throws IOException {
+        List<Optional<UtilisateurImmuable>> resultats = new ArrayList<>(ids.length);
+        int premiere = prochaineCorrelation;
+        envoi.clear();
+        for (int id : ids) {
+            if (envoi.remaining() < ProtocoleBinaire.TAILLE_ENTETE + 4) {
+                envoyer();
+                envoi.clear();
+            }
+            ecrireEntete(ProtocoleBinaire.OP_LIRE, 4);
+            envoi.putInt(id);
+        }
+        envoyer();
+        for (int i = 0; i < ids.length; i++) {
+            resultats.add(lireReponseLecture(premiere + i));
+        }
+        return resultats;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+    
+    private int ecrireEntete(byte operation, int tailleParametres) {
+        int correlation = prochaineCorrelation++;
+        envoi.putInt(1 + 4 + tailleParametres);
+        envoi.put(operation);
+        envoi.putInt(correlation);
+        return correlation;
+    }
+    
+    private void envoyer() throws IOException {
+        envoi.flip();
+        while (envoi.hasRemaining()) {
+            canal.write(envoi);
+        }
+    }
+    
+    private Optional<UtilisateurImmuable> lireReponseLecture(int correlation) throws IOException {
+        byte statut = recevoir(correlation);
+        if (statut == ProtocoleBinaire.STATUT_INTROUVABLE) {
+            return Optional.empty();
+        }
+        verifierStatut(statut, ProtocoleBinaire.STATUT_OK);
+        return Optional.of(ProtocoleBinaire.lireUtilisateur(reception));
+    }
+    
+    /**
+     * Reçoit une trame de réponse complète et positionne le tampon sur son contenu.
+     * 
+     * @return le statut de la réponse
+     */
+    private byte recevoir(int correlationAttendue) throws IOException {
+        reception.clear();
+        reception.limit(4);
+        lireComplet();
+        int longueur = reception.getInt(0);
+        if (longueur < 5) {
+            throw new IOException("Trame de réponse invalide");
+        }
+        if (reception.capacity() < 4 + longueur) {
+            reception = ByteBuffer.allocate(4 + longueur);
+        }
+        reception.clear();
+        reception.position(4);
+        reception.limit(4 + longueur);
+        lireComplet();
+        reception.position(4);
+        
+        byte statut = reception.get();
+        int correlation = reception.getInt();
+        if (correlation != correlationAttendue) {
+            throw new IOException("Réponse inattendue : corrélation " + correlation
+                    + " au lieu de " + correlationAttendue);
+        }
+        return statut;
+    }
+    
+    private void lireComplet() throws IOException {
+        while (reception.hasRemaining()) {
+            if (canal.read(reception) < 0) {
+                throw new EOFException("Connexion fermée par le serveur");
+            }
+        }
+    }
+    
+    private static void verifierStatut(byte statut, byte attendu) throws IOException {
+        if (statut != attendu) {
+            throw new IOException("Statut de réponse inattendu : " + statut);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,273 @@
+package main.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import main.model.DonneesUtilisateur;
+
+/**
+ * Encodage et décodage JSON minimal pour l'API HTTP.
+ * Gère les objets, tableaux, chaînes, nombres, booléens et null, sans dépendance externe.
+ */
+public final class Json {
+    private Json() {
+    }
+    
+    /**
+     * Écrit un utilisateur sous forme d'objet JSON.
+     * 
+     * @param sb le tampon de destination
+     * @param utilisateur l'utilisateur à écrire
+     */
+    public static void ecrireUtilisateur(StringBuilder sb, DonneesUtilisateur utilisateur) {
+        sb.append("{\"id\":").append(utilisateur.getId());
+        sb.append(",\"nom\":");
+        ecrireChaine(sb, utilisateur.getNom());
+        sb.append(",\"prenom\":");
+        ecrireChaine(sb, utilisateur.getPrenom());
+        sb.append(",\"email\":");
+        ecrireChaine(sb, utilisateur.getEmail());
+        sb.append(",\"role\":");
+        ecrireChaine(sb, utilisateur.getRole());
+        sb.append(",\"version\":").append(utilisateur.getVersion());
+        sb.append('}');
+    }
+    
+    /**
+     * Écrit une liste d'utilisateurs sous forme de tableau JSON.
+     * 
+     * @param sb le tampon de destination
+     * @param utilisateurs les utilisateurs à écrire
+     */
+    public static void ecrireUtilisateurs(StringBuilder sb, List<? extends DonneesUtilisateur> utilisateurs) {
+        sb.append('[');
+        for (int i = 0; i < utilisateurs.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            ecrireUtilisateur(sb, utilisateurs.get(i));
+        }
+        sb.append(']');
+    }
+    
+    /**
+     * Écrit une chaîne JSON échappée (ou null).
+     * 
+     * @param sb le tampon de destination
+     * @param valeur la chaîne à écrire
+     */
+    public static void ecrireChaine(StringBuilder sb, String valeur) {
+        if (valeur == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\b': sb.append("\\b"); break;
+                case '\f': sb.append("\\f"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+    
+    /**
+     * Lit un document JSON.
+     * 
+     * @param texte le document JSON
+     * @return une Map pour un objet, une List pour un tableau, String, Long, Double, Boolean ou null
+     * @throws IllegalArgumentException si le document est mal formé
+     */
+    public static Object lire(String texte) {
+        Lecteur lecteur = new Lecteur(texte);
+        Object valeur = lecteur.lireValeur();
+        lecteur.ignorerEspaces();
+        if (lecteur.position < texte.length()) {
+            throw new IllegalArgumentException("Caractères inattendus en position " + lecteur.position);
+        }
+        return valeur;
+    }
+    
+    /**
+     * Lit un objet JSON.
+     * 
+     * @param texte le document JSON
+     * @return les champs de l'objet
+     * @throws IllegalArgumentException si le document n'est pas un objet JSON
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> lireObjet(String texte) {
+        Object valeur = lire(texte);
+        if (!(valeur instanceof Map)) {
+            throw new IllegalArgumentException("Un objet JSON est attendu");
+        }
+        return (Map<String, Object>) valeur;
+    }
+    
+    /**
+     * Analyseur récursif descendant.
+     */
+    private static final class Lecteur {
+        private final String texte;
+        private int position;
+        
+        Lecteur(String texte) {
+            this.texte = texte;
+        }
+        
+        Object lireValeur() {
+            ignorerEspaces();
+            if (position >= texte.length()) {
+                throw new IllegalArgumentException("Fin de document inattendue");
+            }
+            char c = texte.charAt(position);
+            switch (c) {
+                case '{': return lireObjet();
+                case '[': return lireTableau();
+                case '"': return lireChaine();
+                case 't': return lireMot("true", Boolean.TRUE);
+                case 'f': return lireMot("false", Boolean.FALSE);
+                case 'n': return lireMot("null", null);
+                default: return lireNombre();
+            }
+        }
+        
+        private Map<String, Object> lireObjet() {
+            Map<String, Object> objet = new LinkedHashMap<>();
+            position++;
+            ignorerEspaces();
+            if (consommer('}')) {
+                return objet;
+            }
+            do {
+                ignorerEspaces();
+                if (position >= texte.length() || texte.charAt(position) != '"') {
+                    throw new IllegalArgumentException("Nom de champ attendu en position " + position);
+                }
+                String nom = lireChaine();
+                ignorerEspaces();
+                attendre(':');
+                objet.put(nom, lireValeur());
+                ignorerEspaces();
+            } while (consommer(','));
+            attendre('}');
+            return objet;
+        }
+        
+        private List<Object> lireTableau() {
+            List<Object> tableau = new ArrayList<>();
+            position++;
+            ignorerEspaces();
+            if (consommer(']')) {
+                return tableau;
+            }
+            do {
+                tableau.add(lireValeur());
+                ignorerEspaces();
+            } while (consommer(','));
+            attendre(']');
+            return tableau;
+        }
+        
+        private String lireChaine() {
+            StringBuilder sb = new StringBuilder();
+            position++;
+            while (position < texte.length()) {
+                char c = texte.charAt(position++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (position >= texte.length()) {
+                    break;
+                }
+                char echappe = texte.charAt(position++);
+                switch (echappe) {
+                    case '"': sb.append('"'); break;
+                    case '\\': sb.append('\\'); break;
+                    case '/': sb.append('/'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > texte.length()) {
+                            throw new IllegalArgumentException("Séquence \\u incomplète");
+                        }
+                        sb.append((char) Integer.parseInt(texte.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Échappement invalide : \\" + echappe);
+                }
+            }
+            throw new IllegalArgumentException("Chaîne non terminée");
+        }
+        
+        private Object lireNombre() {
+            int debut = position;
+            boolean decimal = false;
+            while (position < texte.length()) {
+                char c = texte.charAt(position);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    decimal = true;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                position++;
+            }
+            String nombre = texte.substring(debut, position);
+            try {
+                return decimal ? (Object) Double.parseDouble(nombre) : (Object) Long.parseLong(nombre);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valeur invalide en position " + debut);
+            }
+        }
+        
+        private Object lireMot(String mot, Object valeur) {
+            if (!texte.startsWith(mot, position)) {
+                throw new IllegalArgumentException("Valeur invalide en position " + position);
+            }
+            position += mot.length();
+            return valeur;
+        }
+        
+        void ignorerEspaces() {
+            while (position < texte.length() && Character.isWhitespace(texte.charAt(position))) {
+                position++;
+            }
+        }
+        
+        private boolean consommer(char attendu) {
+            if (position < texte.length() && texte.charAt(position) == attendu) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+        
+        private void attendre(char attendu) {
+            if (!consommer(attendu)) {
+                throw new IllegalArgumentException("'" + attendu + "' attendu en position " + position);
+            }
+        }
+    }
+}
\ No newline at end of file
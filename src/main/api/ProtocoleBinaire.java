@@ -0,0 +1,151 @@
+package main.api;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import main.model.DonneesUtilisateur;
+import main.model.UtilisateurImmuable;
+import main.service.PoolChaines;
+
+/**
+ * Format du protocole binaire utilisé par {@link ServeurBinaire} et {@link ClientBinaire}.
+ * 
+ * Chaque trame commence par sa longueur (int, hors ce champ). Une requête contient
+ * ensuite l'opération (byte), un numéro de corrélation (int) renvoyé tel quel dans la
+ * réponse, puis ses paramètres. Une réponse contient le statut (byte), le numéro de
+ * corrélation (int) puis son contenu.
+ * 
+ * Un utilisateur est encodé par son ID (int) et sa version (long) suivis de nom,
+ * prénom, email et rôle, chacun sous forme de longueur (unsigned short) et d'octets UTF-8.
+ */
+public final class ProtocoleBinaire {
+    /** Opération sans paramètre, répond avec un statut OK vide. */
+    public static final byte OP_PING = 0;
+    /** Lecture d'un utilisateur : paramètre int id. */
+    public static final byte OP_LIRE = 1;
+    /** Lecture groupée : paramètres int n puis n int id. */
+    public static final byte OP_LIRE_LOT = 2;
+    
+    public static final byte STATUT_OK = 0;
+    public static final byte STATUT_INTROUVABLE = 1;
+    public static final byte STATUT_REQUETE_INVALIDE = 2;
+    
+    /** Taille de l'en-tête d'une trame : longueur, opération ou statut, corrélation. */
+    public static final int TAILLE_ENTETE = 4 + 1 + 4;
+    /** Taille maximale du contenu d'une trame de requête. */
+    public static final int TAILLE_TRAME_MAX = 64 * 1024;
+    /** Nombre maximal d'IDs dans une lecture groupée. */
+    public static final int TAILLE_LOT_MAX = (TAILLE_TRAME_MAX - 9) / 4;
+    
+    private static final int LONGUEUR_CHAINE_MAX = 0xFFFF;
+    
+    private ProtocoleBinaire() {
+    }
+    
+    /**
+     * Majorant de la taille encodée d'un utilisateur (3 octets UTF-8 au plus par caractère).
+     * 
+     * @param utilisateur l'utilisateur à encoder
+     * @return le nombre maximal d'octets nécessaires
+     */
+    public static int tailleMaximale(DonneesUtilisateur utilisateur) {
+        return 4 + 8 + 4 * 2 + 3 * (utilisateur.getNom().length() + utilisateur.getPrenom().length()
+                + utilisateur.getEmail().length() + utilisateur.getRole().length());
+    }
+    
+    /**
+     * Écrit un utilisateur dans le tampon, sans allocation intermédiaire.
+     * 
+     * @param tampon le tampon de destination, de capacité suffisante
+     * @param utilisateur l'utilisateur à écrire
+     * @throws BufferOverflowException si le tampon est trop petit
+     * @throws IllegalArgumentException si un champ dépasse 65535 octets en UTF-8
+     */
+    public static void ecrireUtilisateur(ByteBuffer tampon, DonneesUtilisateur utilisateur) {
+        tampon.putInt(utilisateur.getId());
+        tampon.putLong(utilisateur.getVersion());
+        ecrireChaine(tampon, utilisateur.getNom());
+        ecrireChaine(tampon, utilisateur.getPrenom());
+        ecrireChaine(tampon, utilisateur.getEmail());
+        ecrireChaine(tampon, utilisateur.getRole());
+    }
+    
+    /**
+     * Lit un utilisateur écrit par {@link #ecrireUtilisateur}.
+     * Le rôle, le nom et le prénom passent par le pool de chaînes commun, pour que
+     * les utilisateurs importés partagent leurs chaînes répétées.
+     * 
+     * @param tampon le tampon positionné sur l'utilisateur
+     * @return l'utilisateur lu
+     */
+    public static UtilisateurImmuable lireUtilisateur(ByteBuffer tampon) {
+        int id = tampon.getInt();
+        long version = tampon.getLong();
+        String nom = PoolChaines.COMMUN.canoniser(lireChaine(tampon));
+        String prenom = PoolChaines.COMMUN.canoniser(lireChaine(tampon));
+        String email = lireChaine(tampon);
+        String role = PoolChaines.COMMUN.canoniser(lireChaine(tampon));
+        return UtilisateurImmuable.builder()
+                .id(id)
+                .nom(nom)
+                .prenom(prenom)
+                .email(email)
+                .role(role)
+                .version(version)
+                .construire();
+    }
+    
+    /**
+     * Encode une chaîne en UTF-8 directement dans le tampon, précédée de sa longueur.
+     */
+    private static void ecrireChaine(ByteBuffer tampon, String valeur) {
+        int positionLongueur = tampon.position();
+        tampon.putShort((short) 0);
+        int debut = tampon.position();
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            if (c < 0x80) {
+                tampon.put((byte) c);
+            } else if (c < 0x800) {
+                tampon.put((byte) (0xC0 | (c >> 6)));
+                tampon.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < valeur.length()
+                    && Character.isLowSurrogate(valeur.charAt(i + 1))) {
+                int point = Character.toCodePoint(c, valeur.charAt(++i));
+                tampon.put((byte) (0xF0 | (point >> 18)));
+                tampon.put((byte) (0x80 | ((point >> 12) & 0x3F)));
+                tampon.put((byte) (0x80 | ((point >> 6) & 0x3F)));
+                tampon.put((byte) (0x80 | (point & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Substitut isolé : remplacé par '?' comme le fait String.getBytes
+                tampon.put((byte) '?');
+            } else {
+                tampon.put((byte) (0xE0 | (c >> 12)));
+                tampon.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                tampon.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        int longueur = tampon.position() - debut;
+        if (longueur > LONGUEUR_CHAINE_MAX) {
+            tampon.position(positionLongueur);
+            throw new IllegalArgumentException("Champ trop long pour le protocole binaire : " + longueur + " octets");
+        }
+        tampon.putShort(positionLongueur, (short) longueur);
+    }
+    
+    private static String lireChaine(ByteBuffer tampon) {
+        int longueur = Short.toUnsignedInt(tampon.getShort());
+        String valeur;
+        if (tampon.hasArray()) {
+            valeur = new String(tampon.array(), tampon.arrayOffset() + tampon.position(), longueur,
+                    StandardCharsets.UTF_8);
+        } else {
+            byte[] octets = new byte[longueur];
+            tampon.get(tampon.position(), octets);
+            valeur = new String(octets, StandardCharsets.UTF_8);
+        }
+        tampon.position(tampon.position() + longueur);
+        return valeur;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,314 @@
+package main.api;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Optional;
+
+import main.model.UtilisateurImmuable;
+import main.service.ServiceUtilisateur;
+
+/**
+ * Serveur du protocole binaire ({@link ProtocoleBinaire}) pour les lectures d'utilisateurs
+ * entre services.
+ * 
+ * Un seul thread gère toutes les connexions avec un sélecteur NIO non bloquant. Les
+ * requêtes peuvent être enchaînées sans attendre les réponses : toutes les trames
+ * complètes reçues sont traitées dans l'ordre et leurs réponses regroupées dans une
+ * même écriture. Chaque connexion réutilise ses tampons de lecture et d'écriture,
+ * les réponses sont encodées directement dedans.
+ */
+public class ServeurBinaire {
+    private static final int TAILLE_TAMPON_LECTURE = ProtocoleBinaire.TAILLE_TRAME_MAX + 4;
+    private static final int TAILLE_TAMPON_ECRITURE = 64 * 1024;
+    /** Au-delà de ce volume de réponses en attente, la lecture est suspendue. */
+    private static final int SEUIL_ECRITURE_EN_ATTENTE = 1024 * 1024;
+    
+    private final ServiceUtilisateur serviceUtilisateur;
+    private final Selector selecteur;
+    private final ServerSocketChannel canalServeur;
+    private Thread thread;
+    private volatile boolean actif;
+    
+    /**
+     * Crée le serveur sans le démarrer.
+     * 
+     * @param serviceUtilisateur le service exposé
+     * @param port le port d'écoute (0 pour un port libre choisi par le système)
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public ServeurBinaire(ServiceUtilisateur serviceUtilisateur, int port) throws IOException {
+        this.serviceUtilisateur = serviceUtilisateur;
+        this.selecteur = Selector.open();
+        this.canalServeur = ServerSocketChannel.open();
+        this.canalServeur.bind(new InetSocketAddress(port));
+        this.canalServeur.configureBlocking(false);
+        this.canalServeur.register(selecteur, SelectionKey.OP_ACCEPT);
+    }
+    
+    /**
+     * Démarre le thread de traitement des connexions.
+     */
+    public void demarrer() {
+        actif = true;
+        thread = new Thread(this::boucler, "usermanager-binaire");
+        thread.start();
+    }
+    
+    /**
+     * Arrête le serveur et ferme toutes les connexions.
+     */
+    public void arreter() {
+        actif = false;
+        selecteur.wakeup();
+        try {
+            if (thread != null) {
+                thread.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * @return le port d'écoute effectif
+     */
+    public int getPort() {
+        return canalServeur.socket().getLocalPort();
+    }
+    
+    private void boucler() {
+        try {
+            while (actif) {
+                selecteur.select();
+                Iterator<SelectionKey> cles = selecteur.selectedKeys().iterator();
+                while (cles.hasNext()) {
+                    SelectionKey cle = cles.next();
+                    cles.remove();
+                    try {
+                        if (!cle.isValid()) {
+                            continue;
+                        }
+                        if (cle.isAcceptable()) {
+                            accepter();
+                            continue;
+                        }
+                        if (cle.isReadable()) {
+                            lire(cle);
+                        }
+                        if (cle.isValid() && cle.isWritable()) {
+                            ecrire(cle);
+                        }
+                    } catch (IOException e) {
+                        fermer(cle);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.err.println("Arrêt du serveur binaire : " + e.getMessage());
+        } finally {
+            for (SelectionKey cle : selecteur.keys()) {
+                fermer(cle);
+            }
+            try {
+                selecteur.close();
+            } catch (IOException e) {
+                // Déjà en cours d'arrêt
+            }
+        }
+    }
+    
+    private void accepter() throws IOException {
+        SocketChannel canal = canalServeur.accept();
+        if (canal == null) {
+            return;
+        }
+        canal.configureBlocking(false);
+        canal.socket().setTcpNoDelay(true);
+        canal.register(selecteur, SelectionKey.OP_READ, new Connexion());
+    }
+    
+    private void lire(SelectionKey cle) throws IOException {
+        SocketChannel canal = (SocketChannel) cle.channel();
+        Connexion connexion = (Connexion) cle.attachment();
+        
+        if (canal.read(connexion.lecture) < 0) {
+            fermer(cle);
+            return;
+        }
+        
+        // Traiter toutes les trames complètes reçues (requêtes enchaînées)
+        ByteBuffer lecture = connexion.lecture;
+        lecture.flip();
+        while (lecture.remaining() >= 4) {
+            int longueur = lecture.getInt(lecture.position());
+            if (longueur < 5 || longueur > ProtocoleBinaire.TAILLE_TRAME_MAX) {
+                fermer(cle);
+                return;
+            }
+            if (lecture.remaining() < 4 + longueur) {
+                break;
+            }
+            int finTrame = lecture.position() + 4 + longueur;
+            lecture.position(lecture.position() + 4);
+            traiterTrame(connexion, lecture, finTrame);
+            lecture.position(finTrame);
+        }
+        lecture.compact();
+        
+        ecrire(cle);
+    }
+    
+    private void ecrire(SelectionKey cle) throws IOException {
+        SocketChannel canal = (SocketChannel) cle.channel();
+        Connexion connexion = (Connexion) cle.attachment();
+        
+        ByteBuffer ecriture = connexion.ecriture;
+        ecriture.flip();
+        canal.write(ecriture);
+        ecriture.compact();
+        
+        // Écriture incomplète : attendre que le client lise, et suspendre la lecture s'il est trop lent
+        int interets = SelectionKey.OP_READ;
+        if (ecriture.position() > 0) {
+            interets = ecriture.position() > SEUIL_ECRITURE_EN_ATTENTE
+                    ? SelectionKey.OP_WRITE
+                    : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        }
+        cle.interestOps(interets);
+    }
+    
+    private void traiterTrame(Connexion connexion, ByteBuffer trame, int finTrame) {
+        byte operation = trame.get();
+        int correlation = trame.getInt();
+        
+        try {
+            switch (operation) {
+                case ProtocoleBinaire.OP_PING:
+                    int debutPing = debuterReponse(connexion, ProtocoleBinaire.STATUT_OK, correlation, 0);
+                    terminerReponse(connexion, debutPing);
+                    break;
+                case ProtocoleBinaire.OP_LIRE:
+                    if (finTrame - trame.position() != 4) {
+                        repondreInvalide(connexion, correlation);
+                        break;
+                    }
+                    repondreLecture(connexion, correlation, trame.getInt());
+                    break;
+                case ProtocoleBinaire.OP_LIRE_LOT:
+                    int nombre = finTrame - trame.position() >= 4 ? trame.getInt() : -1;
+                    if (nombre < 0 || nombre > ProtocoleBinaire.TAILLE_LOT_MAX
+                            || finTrame - trame.position() != nombre * 4) {
+                        repondreInvalide(connexion, correlation);
+                        break;
+                    }
+                    repondreLectureLot(connexion, correlation, trame, nombre);
+                    break;
+                default:
+                    repondreInvalide(connexion, correlation);
+            }
+        } catch (IllegalArgumentException e) {
+            repondreInvalide(connexion, correlation);
+        }
+    }
+    
+    private void repondreLecture(Connexion connexion, int correlation, int id) {
+        Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(id);
+        if (utilisateur.isEmpty()) {
+            int debut = debuterReponse(connexion, ProtocoleBinaire.STATUT_INTROUVABLE, correlation, 0);
+            terminerReponse(connexion, debut);
+            return;
+        }
+        int debut = debuterReponse(connexion, ProtocoleBinaire.STATUT_OK, correlation,
+                ProtocoleBinaire.tailleMaximale(utilisateur.get()));
+        ProtocoleBinaire.ecrireUtilisateur(connexion.ecriture, utilisateur.get());
+        terminerReponse(connexion, debut);
+    }
+    
+    private void repondreLectureLot(Connexion connexion, int correlation, ByteBuffer trame, int nombre) {
+        int debut = debuterReponse(connexion, ProtocoleBinaire.STATUT_OK, correlation, 4);
+        connexion.ecriture.putInt(nombre);
+        for (int i = 0; i < nombre; i++) {
+            Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(trame.getInt());
+            if (utilisateur.isPresent()) {
+                connexion.reserver(1 + ProtocoleBinaire.tailleMaximale(utilisateur.get()));
+                connexion.ecriture.put((byte) 1);
+                ProtocoleBinaire.ecrireUtilisateur(connexion.ecriture, utilisateur.get());
+            } else {
+                connexion.reserver(1);
+                connexion.ecriture.put((byte) 0);
+            }
+        }
+        terminerReponse(connexion, debut);
+    }
+    
+    private void repondreInvalide(Connexion connexion, int correlation) {
+        connexion.ecriture.position(connexion.debutReponseEnCours >= 0
+                ? connexion.debutReponseEnCours : connexion.ecriture.position());
+        int debut = debuterReponse(connexion, ProtocoleBinaire.STATUT_REQUETE_INVALIDE, correlation, 0);
+        terminerReponse(connexion, debut);
+    }
+    
+    /**
+     * Écrit l'en-tête d'une réponse et réserve la place de son contenu.
+     * 
+     * @return la position de début de la trame, pour y inscrire sa longueur à la fin
+     */
+    private int debuterReponse(Connexion connexion, byte statut, int correlation, int tailleContenu) {
+        connexion.reserver(ProtocoleBinaire.TAILLE_ENTETE + tailleContenu);
+        int debut = connexion.ecriture.position();
+        connexion.debutReponseEnCours = debut;
+        connexion.ecriture.putInt(0);
+        connexion.ecriture.put(statut);
+        connexion.ecriture.putInt(correlation);
+        return debut;
+    }
+    
+    private void terminerReponse(Connexion connexion, int debut) {
+        ByteBuffer ecriture = connexion.ecriture;
+        ecriture.putInt(debut, ecriture.position() - debut - 4);
+        connexion.debutReponseEnCours = -1;
+    }
+    
+    private void fermer(SelectionKey cle) {
+        cle.cancel();
+        try {
+            cle.channel().close();
+        } catch (IOException e) {
+            // Connexion déjà fermée
+        }
+    }
+    
+    /**
+     * État d'une connexion : tampons réutilisés d'une requête à l'autre.
+     */
+    private static final class Connexion {
+        private final ByteBuffer lecture = ByteBuffer.allocateDirect(TAILLE_TAMPON_LECTURE);
+        private ByteBuffer ecriture = ByteBuffer.allocateDirect(TAILLE_TAMPON_ECRITURE);
+        private int debutReponseEnCours = -1;
+        
+        /**
+         * Garantit la place libre dans le tampon d'écriture ; ne l'agrandit que s'il est plein,
+         * en doublant sa capacité.
+         */
+        void reserver(int octets) {
+            if (ecriture.remaining() >= octets) {
+                return;
+            }
+            int capacite = ecriture.capacity();
+            while (capacite - ecriture.position() < octets) {
+                capacite *= 2;
+            }
+            ByteBuffer agrandi = ByteBuffer.allocateDirect(capacite);
+            ecriture.flip();
+            agrandi.put(ecriture);
+            ecriture = agrandi;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,569 @@
+package main.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import main.dao.ResultatEcriture;
+import main.dao.UtilisateurDAO;
+import main.model.DonneesUtilisateur;
+import main.model.ErreurValidation;
+import main.model.RapportValidation;
+import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+import main.service.ServiceUtilisateur;
+
+/**
+ * Serveur HTTP/JSON sans interface graphique exposant les opérations de {@link ServiceUtilisateur}.
+ * 
+ * Routes disponibles (préfixe {@code /api/utilisateurs}) :
+ * <ul>
+ *   <li>{@code GET /?page=0&taille=50} : page d'utilisateurs triés par ID</li>
+ *   <li>{@code GET /{id}} : un utilisateur</li>
+ *   <li>{@code GET /recherche?nom=...} : recherche par nom</li>
+ *   <li>{@code POST /} : création d'un utilisateur</li>
+ *   <li>{@code PUT /{id}} : modification d'un utilisateur</li>
+ *   <li>{@code DELETE /{id}} : suppression d'un utilisateur</li>
+ *   <li>{@code POST /lot} : lecture groupée, corps {@code {"ids":[1,2,3]}}</li>
+ *   <li>{@code POST /lot/ajout} : création groupée, corps {@code {"utilisateurs":[{...}]}} ;
+ *       le lot est validé d'abord, chaque ligne refusée indique ses erreurs par champ</li>
+ * </ul>
+ * Les lectures renvoient un ETag et répondent 304 si l'en-tête If-None-Match correspond.
+ * PUT et DELETE acceptent un en-tête If-Match portant l'ETag d'un utilisateur : l'écriture
+ * n'est appliquée que si l'utilisateur n'a pas changé de version, sinon la réponse est 412.
+ * Chaque requête est traitée sur un thread virtuel lorsque la JVM le permet (JDK 21+).
+ */
+public class ServeurHttp {
+    /** Préfixe commun des routes de l'API. */
+    public static final String CHEMIN_API = "/api/utilisateurs";
+    
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+    private static final int TAILLE_PAGE_MAX = 1000;
+    private static final int TAILLE_LOT_MAX = 1000;
+    private static final String TYPE_JSON = "application/json; charset=utf-8";
+    
+    private final ServiceUtilisateur serviceUtilisateur;
+    private final HttpServer serveur;
+    private final ExecutorService executeur;
+    
+    /**
+     * Crée le serveur sans le démarrer.
+     * 
+     * @param serviceUtilisateur le service exposé
+     * @param port le port d'écoute (0 pour un port libre choisi par le système)
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public ServeurHttp(ServiceUtilisateur serviceUtilisateur, int port) throws IOException {
+        this.serviceUtilisateur = serviceUtilisateur;
+        this.serveur = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executeur = creerExecuteur();
+        this.serveur.setExecutor(executeur);
+        this.serveur.createContext(CHEMIN_API, this::traiter);
+    }
+    
+    /**
+     * Démarre l'écoute des requêtes.
+     */
+    public void demarrer() {
+        serveur.start();
+    }
+    
+    /**
+     * Arrête le serveur en laissant au plus une seconde aux requêtes en cours.
+     */
+    public void arreter() {
+        serveur.stop(1);
+        executeur.shutdown();
+        try {
+            executeur.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * @return le port d'écoute effectif
+     */
+    public int getPort() {
+        return serveur.getAddress().getPort();
+    }
+    
+    /**
+     * Crée un exécuteur à un thread virtuel par requête si la JVM le permet,
+     * sinon un pool borné de threads démons.
+     */
+    private static ExecutorService creerExecuteur() {
+        try {
+            Method fabrique = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrique.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+            return Executors.newFixedThreadPool(threads, tache -> {
+                Thread thread = new Thread(tache, "usermanager-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    private void traiter(HttpExchange echange) throws IOException {
+        try {
+            router(echange);
+        } catch (IllegalArgumentException e) {
+            envoyerErreur(echange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            envoyerErreur(echange, 500, "Erreur interne : " + e.getMessage());
+        } finally {
+            echange.close();
+        }
+    }
+    
+    private void router(HttpExchange echange) throws IOException {
+        String methode = echange.getRequestMethod();
+        String chemin = echange.getRequestURI().getPath().substring(CHEMIN_API.length());
+        if (chemin.endsWith("/")) {
+            chemin = chemin.substring(0, chemin.length() - 1);
+        }
+        
+        switch (chemin) {
+            case "":
+                if ("GET".equals(methode)) {
+                    listerPage(echange);
+                } else if ("POST".equals(methode)) {
+                    creer(echange);
+                } else {
+                    envoyerErreur(echange, 405, "Méthode non autorisée");
+                }
+                return;
+            case "/recherche":
+                if ("GET".equals(methode)) {
+                    rechercher(echange);
+                } else {
+                    envoyerErreur(echange, 405, "Méthode non autorisée");
+                }
+                return;
+            case "/lot":
+                if ("POST".equals(methode)) {
+                    lireLot(echange);
+                } else {
+                    envoyerErreur(echange, 405, "Méthode non autorisée");
+                }
+                return;
+            case "/lot/ajout":
+                if ("POST".equals(methode)) {
+                    creerLot(echange);
+                } else {
+                    envoyerErreur(echange, 405, "Méthode non autorisée");
+                }
+                return;
+            default:
+                break;
+        }
+        
+        int id = lireId(chemin.substring(1));
+        switch (methode) {
+            case "GET":
+                lireUtilisateur(echange, id);
+                break;
+            case "PUT":
+                modifier(echange, id);
+                break;
+            case "DELETE":
+                supprimer(echange, id);
+                break;
+            default:
+                envoyerErreur(echange, 405, "Méthode non autorisée");
+        }
+    }
+    
+    private void listerPage(HttpExchange echange) throws IOException {
+        Map<String, String> parametres = lireParametres(echange);
+        int page = lireEntier(parametres, "page", 0);
+        int taille = lireEntier(parametres, "taille", TAILLE_PAGE_DEFAUT);
+        if (page < 0 || taille < 1 || taille > TAILLE_PAGE_MAX) {
+            throw new IllegalArgumentException("Pagination invalide (taille entre 1 et " + TAILLE_PAGE_MAX + ")");
+        }
+        
+        // La version est lue avant les données : l'ETag ne peut pas être plus récent que le contenu
+        String etag = etagDonnees();
+        if (correspondEtag(echange, etag)) {
+            envoyerNonModifie(echange, etag);
+            return;
+        }
+        
+        long debut = (long) page * taille;
+        List<UtilisateurImmuable> utilisateurs = debut > Integer.MAX_VALUE
+                ? List.of()
+                : serviceUtilisateur.listerPageUtilisateurs((int) debut, taille);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"page\":").append(page)
+          .append(",\"taille\":").append(taille)
+          .append(",\"total\":").append(serviceUtilisateur.compterUtilisateurs())
+          .append(",\"utilisateurs\":");
+        Json.ecrireUtilisateurs(sb, utilisateurs);
+        sb.append('}');
+        echange.getResponseHeaders().set("ETag", etag);
+        envoyer(echange, 200, sb);
+    }
+    
+    private void rechercher(HttpExchange echange) throws IOException {
+        String nom = lireParametres(echange).get("nom");
+        if (nom == null || nom.trim().isEmpty()) {
+            throw new IllegalArgumentException("Paramètre 'nom' obligatoire");
+        }
+        
+        String etag = etagDonnees();
+        if (correspondEtag(echange, etag)) {
+            envoyerNonModifie(echange, etag);
+            return;
+        }
+        
+        StringBuilder sb = new StringBuilder("{\"utilisateurs\":");
+        Json.ecrireUtilisateurs(sb, serviceUtilisateur.rechercherUtilisateursParNom(nom));
+        sb.append('}');
+        echange.getResponseHeaders().set("ETag", etag);
+        envoyer(echange, 200, sb);
+    }
+    
+    private void lireUtilisateur(HttpExchange echange, int id) throws IOException {
+        Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(id);
+        if (utilisateur.isEmpty()) {
+            envoyerErreur(echange, 404, "Utilisateur introuvable : " + id);
+            return;
+        }
+        
+        String etag = etagUtilisateur(utilisateur.get());
+        if (correspondEtag(echange, etag)) {
+            envoyerNonModifie(echange, etag);
+            return;
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        Json.ecrireUtilisateur(sb, utilisateur.get());
+        echange.getResponseHeaders().set("ETag", etag);
+        envoyer(echange, 200, sb);
+    }
+    
+    private void creer(HttpExchange echange) throws IOException {
+        Map<String, Object> corps = Json.lireObjet(lireCorps(echange));
+        Optional<Utilisateur> cree = creerDepuis(corps);
+        if (cree.isEmpty()) {
+            envoyerErreur(echange, 400, "Utilisateur invalide ou email déjà utilisé");
+            return;
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        Json.ecrireUtilisateur(sb, cree.get());
+        echange.getResponseHeaders().set("Location", CHEMIN_API + "/" + cree.get().getId());
+        echange.getResponseHeaders().set("ETag", etagUtilisateur(cree.get()));
+        envoyer(echange, 201, sb);
+    }
+    
+    private void modifier(HttpExchange echange, int id) throws IOException {
+        Map<String, Object> corps = Json.lireObjet(lireCorps(echange));
+        Utilisateur utilisateur = new Utilisateur(id, lireTexte(corps, "nom"), lireTexte(corps, "prenom"),
+                lireTexte(corps, "email"), lireTexte(corps, "role"));
+        ResultatEcriture resultat = serviceUtilisateur.modifierUtilisateur(utilisateur, lireVersionAttendue(echange, id));
+        if (!resultat.estSucces()) {
+            envoyerEchec(echange, id, resultat);
+            return;
+        }
+        
+        // Réponse tirée de l'écriture elle-même : ni relecture (qui honorerait If-None-Match
+        // ou croiserait une suppression concurrente), ni état d'une écriture ultérieure
+        StringBuilder sb = new StringBuilder();
+        Json.ecrireUtilisateur(sb, utilisateur);
+        echange.getResponseHeaders().set("ETag", etagUtilisateur(utilisateur));
+        envoyer(echange, 200, sb);
+    }
+    
+    private void supprimer(HttpExchange echange, int id) throws IOException {
+        ResultatEcriture resultat = serviceUtilisateur.supprimerUtilisateur(id, lireVersionAttendue(echange, id));
+        if (resultat.estSucces()) {
+            envoyerSansCorps(echange, 204);
+        } else {
+            envoyerEchec(echange, id, resultat);
+        }
+    }
+    
+    private static void envoyerEchec(HttpExchange echange, int id, ResultatEcriture resultat) throws IOException {
+        switch (resultat) {
+            case INTROUVABLE:
+                envoyerErreur(echange, 404, "Utilisateur introuvable : " + id);
+                break;
+            case CONFLIT:
+                envoyerErreur(echange, 412, "L'utilisateur a été modifié entre-temps");
+                break;
+            case EMAIL_DEJA_UTILISE:
+                envoyerErreur(echange, 409, "Email déjà utilisé");
+                break;
+            default:
+                envoyerErreur(echange, 400, "Utilisateur invalide");
+        }
+    }
+    
+    private void lireLot(HttpExchange echange) throws IOException {
+        List<Object> ids = lireTableau(Json.lireObjet(lireCorps(echange)), "ids");
+        
+        List<UtilisateurImmuable> trouves = new ArrayList<>(ids.size());
+        StringBuilder introuvables = new StringBuilder("[");
+        for (Object valeur : ids) {
+            if (!(valeur instanceof Long)) {
+                throw new IllegalArgumentException("Les IDs doivent être des entiers");
+            }
+            int id;
+            try {
+                id = Math.toIntExact((Long) valeur);
+            } catch (ArithmeticException e) {
+                // Un ID hors des entiers ne doit pas désigner, tronqué, un autre utilisateur
+                throw new IllegalArgumentException("ID invalide : " + valeur);
+            }
+            Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(id);
+            if (utilisateur.isPresent()) {
+                trouves.add(utilisateur.get());
+            } else {
+                if (introuvables.length() > 1) {
+                    introuvables.append(',');
+                }
+                introuvables.append(id);
+            }
+        }
+        
+        StringBuilder sb = new StringBuilder("{\"utilisateurs\":");
+        Json.ecrireUtilisateurs(sb, trouves);
+        sb.append(",\"introuvables\":").append(introuvables).append("]}");
+        envoyer(echange, 200, sb);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void creerLot(HttpExchange echange) throws IOException {
+        List<Object> elements = lireTableau(Json.lireObjet(lireCorps(echange)), "utilisateurs");
+        
+        List<Utilisateur> lot = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            if (!(element instanceof Map)) {
+                throw new IllegalArgumentException("Les éléments du lot doivent être des objets");
+            }
+            Map<String, Object> corps = (Map<String, Object>) element;
+            lot.add(new Utilisateur(0, lireTexte(corps, "nom"), lireTexte(corps, "prenom"),
+                    lireTexte(corps, "email"), lireTexte(corps, "role")));
+        }
+        
+        RapportValidation rapport = serviceUtilisateur.validerUtilisateurs(lot);
+        List<ErreurValidation> erreurs = rapport.getErreurs();
+        int prochaineErreur = 0;
+        
+        StringBuilder sb = new StringBuilder("{\"resultats\":[");
+        for (int i = 0; i < lot.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"index\":").append(i);
+            if (!rapport.estLigneValide(i)) {
+                // Les erreurs sont triées par ligne : celles de la ligne i se suivent
+                sb.append(",\"succes\":false,\"erreurs\":[");
+                for (int debut = prochaineErreur; prochaineErreur < erreurs.size()
+                        && erreurs.get(prochaineErreur).getLigne() == i; prochaineErreur++) {
+                    if (prochaineErreur > debut) {
+                        sb.append(',');
+                    }
+                    ecrireErreur(sb, erreurs.get(prochaineErreur));
+                }
+                sb.append("]}");
+                continue;
+            }
+            Optional<Utilisateur> cree = creerDepuis(lot.get(i));
+            sb.append(",\"succes\":").append(cree.isPresent());
+            if (cree.isPresent()) {
+                sb.append(",\"utilisateur\":");
+                Json.ecrireUtilisateur(sb, cree.get());
+            }
+            sb.append('}');
+        }
+        sb.append("]}");
+        envoyer(echange, 200, sb);
+    }
+    
+    private Optional<Utilisateur> creerDepuis(Map<String, Object> corps) {
+        return serviceUtilisateur.creerUtilisateur(
+                lireTexte(corps, "nom"), lireTexte(corps, "prenom"),
+                lireTexte(corps, "email"), lireTexte(corps, "role"));
+    }
+    
+    private Optional<Utilisateur> creerDepuis(Utilisateur saisie) {
+        return serviceUtilisateur.creerUtilisateur(
+                saisie.getNom(), saisie.getPrenom(), saisie.getEmail(), saisie.getRole());
+    }
+    
+    private static void ecrireErreur(StringBuilder sb, ErreurValidation erreur) {
+        sb.append("{\"champ\":");
+        Json.ecrireChaine(sb, erreur.getChamp().name().toLowerCase(Locale.ROOT));
+        sb.append(",\"motif\":");
+        Json.ecrireChaine(sb, erreur.getMotif().name());
+        sb.append(",\"message\":");
+        Json.ecrireChaine(sb, erreur.getMessage());
+        sb.append('}');
+    }
+    
+    // ETag
+    
+    private String etagDonnees() {
+        return "\"d" + serviceUtilisateur.getVersionDonnees() + "\"";
+    }
+    
+    private static String etagUtilisateur(DonneesUtilisateur utilisateur) {
+        return "\"u" + utilisateur.getId() + "-v" + utilisateur.getVersion() + "\"";
+    }
+    
+    /**
+     * Lit la version attendue dans l'en-tête If-Match (ETag d'un utilisateur).
+     * 
+     * @return la version attendue, ou {@link UtilisateurDAO#VERSION_QUELCONQUE} sans en-tête
+     */
+    private static long lireVersionAttendue(HttpExchange echange, int id) {
+        String entete = echange.getRequestHeaders().getFirst("If-Match");
+        if (entete == null || entete.trim().equals("*")) {
+            return UtilisateurDAO.VERSION_QUELCONQUE;
+        }
+        String prefixe = "\"u" + id + "-v";
+        String valeur = entete.trim();
+        if (!valeur.startsWith(prefixe) || !valeur.endsWith("\"")) {
+            // ETag d'un autre utilisateur ou d'un autre format : ne peut pas correspondre
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(valeur.substring(prefixe.length(), valeur.length() - 1));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+    
+    private static boolean correspondEtag(HttpExchange echange, String etag) {
+        String entete = echange.getRequestHeaders().getFirst("If-None-Match");
+        if (entete == null) {
+            return false;
+        }
+        for (String candidat : entete.split(",")) {
+            String valeur = candidat.trim();
+            if (valeur.startsWith("W/")) {
+                valeur = valeur.substring(2);
+            }
+            if (valeur.equals("*") || valeur.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Lecture de la requête
+    
+    private static String lireCorps(HttpExchange echange) throws IOException {
+        try (InputStream entree = echange.getRequestBody()) {
+            return new String(entree.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static Map<String, String> lireParametres(HttpExchange echange) {
+        Map<String, String> parametres = new HashMap<>();
+        String requete = echange.getRequestURI().getRawQuery();
+        if (requete == null || requete.isEmpty()) {
+            return parametres;
+        }
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            String cle = egal < 0 ? paire : paire.substring(0, egal);
+            String valeur = egal < 0 ? "" : paire.substring(egal + 1);
+            parametres.put(URLDecoder.decode(cle, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valeur, StandardCharsets.UTF_8));
+        }
+        return parametres;
+    }
+    
+    private static int lireEntier(Map<String, String> parametres, String nom, int defaut) {
+        String valeur = parametres.get(nom);
+        if (valeur == null) {
+            return defaut;
+        }
+        try {
+            return Integer.parseInt(valeur);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Paramètre '" + nom + "' invalide : " + valeur);
+        }
+    }
+    
+    private static int lireId(String texte) {
+        try {
+            return Integer.parseInt(texte);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID invalide : " + texte);
+        }
+    }
+    
+    private static String lireTexte(Map<String, Object> corps, String champ) {
+        Object valeur = corps.get(champ);
+        return valeur instanceof String ? (String) valeur : null;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<Object> lireTableau(Map<String, Object> corps, String champ) {
+        Object valeur = corps.get(champ);
+        if (!(valeur instanceof List)) {
+            throw new IllegalArgumentException("Tableau '" + champ + "' obligatoire");
+        }
+        List<Object> tableau = (List<Object>) valeur;
+        if (tableau.size() > TAILLE_LOT_MAX) {
+            throw new IllegalArgumentException("Lot limité à " + TAILLE_LOT_MAX + " éléments");
+        }
+        return tableau;
+    }
+    
+    // Envoi de la réponse
+    
+    private static void envoyer(HttpExchange echange, int statut, CharSequence corps) throws IOException {
+        byte[] octets = corps.toString().getBytes(StandardCharsets.UTF_8);
+        Headers entetes = echange.getResponseHeaders();
+        entetes.set("Content-Type", TYPE_JSON);
+        echange.sendResponseHeaders(statut, octets.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(octets);
+        }
+    }
+    
+    private static void envoyerNonModifie(HttpExchange echange, String etag) throws IOException {
+        echange.getResponseHeaders().set("ETag", etag);
+        envoyerSansCorps(echange, 304);
+    }
+    
+    /**
+     * Envoie une réponse sans corps (204, 304). Le HttpServer du JDK 17 réinitialise la
+     * connexion après ces réponses : on l'annonce au client pour qu'il ne la réutilise pas.
+     */
+    private static void envoyerSansCorps(HttpExchange echange, int statut) throws IOException {
+        echange.getResponseHeaders().set("Connection", "close");
+        echange.sendResponseHeaders(statut, -1);
+    }
+    
+    private static void envoyerErreur(HttpExchange echange, int statut, String message) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"erreur\":");
+        Json.ecrireChaine(sb, message);
+        sb.append('}');
+        envoyer(echange, statut, sb);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package main.audit;
+
+import main.model.UtilisateurImmuable;
+
+/**
+ * Entrée du journal d'audit : qui a modifié quel utilisateur, quand, et ses images
+ * avant et après la modification.
+ */
+public final class EntreeAudit {
+    private final long horodatage;
+    private final String auteur;
+    private final OperationAudit operation;
+    private final int idUtilisateur;
+    private final UtilisateurImmuable avant;
+    private final UtilisateurImmuable apres;
+    
+    /**
+     * Crée une entrée d'audit.
+     * 
+     * @param horodatage l'instant de la modification (millisecondes depuis l'epoch)
+     * @param auteur l'auteur de la modification
+     * @param operation la nature de la modification
+     * @param idUtilisateur l'ID de l'utilisateur modifié
+     * @param avant l'utilisateur avant la modification, null pour un ajout
+     * @param apres l'utilisateur après la modification, null pour une suppression
+     */
+    public EntreeAudit(long horodatage, String auteur, OperationAudit operation, int idUtilisateur,
+                       UtilisateurImmuable avant, UtilisateurImmuable apres) {
+        this.horodatage = horodatage;
+        this.auteur = auteur;
+        this.operation = operation;
+        this.idUtilisateur = idUtilisateur;
+        this.avant = avant;
+        this.apres = apres;
+    }
+    
+    public long getHorodatage() {
+        return horodatage;
+    }
+    
+    public String getAuteur() {
+        return auteur;
+    }
+    
+    public OperationAudit getOperation() {
+        return operation;
+    }
+    
+    public int getIdUtilisateur() {
+        return idUtilisateur;
+    }
+    
+    public UtilisateurImmuable getAvant() {
+        return avant;
+    }
+    
+    public UtilisateurImmuable getApres() {
+        return apres;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("EntreeAudit{horodatage=%d, auteur='%s', operation=%s, id=%d, avant=%s, apres=%s}",
+                horodatage, auteur, operation, idUtilisateur, avant, apres);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,346 @@
+package main.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+
+import main.model.DonneesUtilisateur;
+import main.model.UtilisateurImmuable;
+
+/**
+ * Journal d'audit des modifications d'utilisateurs : ajout seul, compressé par blocs
+ * et découpé en segments de durée fixe.
+ * 
+ * {@link #enregistrer} publie l'entrée dans un tampon circulaire sans verrou et rend
+ * la main : un thread dédié la sérialise dans le bloc courant, compresse et ajoute
+ * le bloc au segment de sa période quand il est plein, quand une recherche le demande
+ * ou au plus tard après {@value #DELAI_BLOC_MS} ms. Le chemin des modifications
+ * n'attend donc jamais le disque, sauf si le tampon est plein.
+ * 
+ * Les segments sont nommés d'après le début de leur période ({@code audit-<ms>.log}).
+ * Une recherche par ID et par période ne lit que les segments de la période, et dans
+ * ceux-ci que les blocs dont les bornes conviennent. Un segment peut contenir quelques
+ * entrées de la fin de la période précédente, publiées juste avant la rotation mais
+ * consommées après : la recherche lit donc aussi le segment qui suit la période.
+ * 
+ * Exemple : {@code java -Dusermanager.audit=audit -cp bin main.Main}
+ */
+public class JournalAudit implements AutoCloseable {
+    /** Propriété système contenant le répertoire du journal. */
+    public static final String PROPRIETE_REPERTOIRE = "usermanager.audit";
+    /** Durée par défaut d'un segment : une heure. */
+    public static final long DUREE_SEGMENT_DEFAUT_MS = TimeUnit.HOURS.toMillis(1);
+    
+    static final int CAPACITE_TAMPON = 1 << 16;
+    /** Taille brute au-delà de laquelle un bloc est compressé et écrit. */
+    static final int TAILLE_BLOC = 64 * 1024;
+    /** Âge maximal d'un bloc non écrit, en millisecondes. */
+    static final long DELAI_BLOC_MS = 1000;
+    
+    private static final String PREFIXE = "audit-";
+    private static final String SUFFIXE = ".log";
+    
+    private final Path repertoire;
+    private final long dureeSegment;
+    private final TamponAudit tampon;
+    private final Thread ecrivain;
+    private final Object verrouVidage = new Object();
+    
+    /** Séquence jusqu'à laquelle une recherche attend l'écriture sur disque. */
+    private volatile long vidageDemande;
+    /** Nombre d'entrées écrites sur disque (ou abandonnées après une erreur d'écriture). */
+    private volatile long ecrites;
+    private volatile boolean actif = true;
+    private volatile IOException derniereErreur;
+    
+    // État du thread d'écriture
+    private final SegmentAudit.Bloc bloc = new SegmentAudit.Bloc();
+    private final Deflater compresseur = new Deflater(Deflater.BEST_SPEED);
+    private FileChannel segment;
+    private long debutSegment = Long.MIN_VALUE;
+    private long ageBloc;
+    
+    /**
+     * Ouvre un journal avec des segments d'une heure.
+     * 
+     * @param repertoire le répertoire des segments, créé si nécessaire
+     * @throws IOException si le répertoire ne peut pas être créé
+     */
+    public JournalAudit(Path repertoire) throws IOException {
+        this(repertoire, DUREE_SEGMENT_DEFAUT_MS);
+    }
+    
+    /**
+     * Ouvre un journal.
+     * 
+     * @param repertoire le répertoire des segments, créé si nécessaire
+     * @param dureeSegment la durée couverte par un segment, en millisecondes
+     * @throws IOException si le répertoire ne peut pas être créé
+     */
+    public JournalAudit(Path repertoire, long dureeSegment) throws IOException {
+        if (dureeSegment <= 0) {
+            throw new IllegalArgumentException("Durée de segment invalide : " + dureeSegment);
+        }
+        this.repertoire = Files.createDirectories(repertoire);
+        this.dureeSegment = dureeSegment;
+        this.tampon = new TamponAudit(CAPACITE_TAMPON);
+        this.ecrivain = new Thread(this::ecrire, "journal-audit");
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+    }
+    
+    /**
+     * Ouvre le journal si la propriété système {@value #PROPRIETE_REPERTOIRE} est
+     * renseignée ; il est fermé, et son dernier bloc écrit, à l'arrêt de la JVM.
+     * 
+     * @return le journal ouvert, ou null si l'audit n'est pas configuré
+     */
+    public static JournalAudit ouvrirSiConfigure() {
+        String repertoire = System.getProperty(PROPRIETE_REPERTOIRE);
+        if (repertoire == null || repertoire.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            JournalAudit journal = new JournalAudit(Paths.get(repertoire.trim()));
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "fermeture-journal-audit"));
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Impossible d'ouvrir le journal d'audit : " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Enregistre une modification. L'entrée est horodatée maintenant puis écrite en
+     * arrière-plan.
+     * 
+     * @param operation la nature de la modification
+     * @param idUtilisateur l'ID de l'utilisateur modifié
+     * @param avant l'utilisateur avant la modification, null pour un ajout
+     * @param apres l'utilisateur après la modification, null pour une suppression
+     * @param auteur l'auteur de la modification
+     * @throws IllegalStateException si le journal est fermé
+     */
+    public void enregistrer(OperationAudit operation, int idUtilisateur, DonneesUtilisateur avant, DonneesUtilisateur apres,
+                            String auteur) {
+        if (!actif) {
+            throw new IllegalStateException("Journal d'audit fermé");
+        }
+        EntreeAudit entree = new EntreeAudit(System.currentTimeMillis(), auteur, operation, idUtilisateur,
+                avant != null ? UtilisateurImmuable.de(avant) : null,
+                apres != null ? UtilisateurImmuable.de(apres) : null);
+        tampon.publier(entree, ecrivain);
+    }
+    
+    /**
+     * Recherche l'historique d'un utilisateur sur une période, bornes incluses.
+     * 
+     * @param idUtilisateur l'ID de l'utilisateur
+     * @param debut le début de la période (millisecondes depuis l'epoch)
+     * @param fin la fin de la période
+     * @return les entrées, de la plus ancienne à la plus récente
+     * @throws UncheckedIOException si le journal ne peut pas être lu
+     */
+    public List<EntreeAudit> rechercher(int idUtilisateur, long debut, long fin) {
+        return rechercher(debut, fin, idUtilisateur);
+    }
+    
+    /**
+     * Recherche toutes les modifications d'une période, bornes incluses.
+     * 
+     * @param debut le début de la période (millisecondes depuis l'epoch)
+     * @param fin la fin de la période
+     * @return les entrées, de la plus ancienne à la plus récente
+     * @throws UncheckedIOException si le journal ne peut pas être lu
+     */
+    public List<EntreeAudit> rechercherPeriode(long debut, long fin) {
+        return rechercher(debut, fin, -1);
+    }
+    
+    /**
+     * Attend que toutes les entrées déjà enregistrées soient écrites sur disque.
+     * 
+     * @throws UncheckedIOException si la dernière écriture a échoué
+     */
+    public void synchroniser() {
+        long cible = tampon.getProduction();
+        synchronized (verrouVidage) {
+            vidageDemande = Math.max(vidageDemande, cible);
+            LockSupport.unpark(ecrivain);
+            boolean interrompu = false;
+            while (ecrites < cible && ecrivain.isAlive()) {
+                try {
+                    verrouVidage.wait(10);
+                } catch (InterruptedException e) {
+                    interrompu = true;
+                }
+            }
+            if (interrompu) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        IOException erreur = derniereErreur;
+        if (erreur != null) {
+            throw new UncheckedIOException("Écriture du journal d'audit impossible", erreur);
+        }
+    }
+    
+    /**
+     * Écrit les entrées en attente puis arrête le thread d'écriture.
+     */
+    @Override
+    public void close() {
+        if (!actif) {
+            return;
+        }
+        actif = false;
+        LockSupport.unpark(ecrivain);
+        try {
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private List<EntreeAudit> rechercher(long debut, long fin, int id) {
+        if (actif) {
+            synchroniser();
+        }
+        List<EntreeAudit> resultats = new ArrayList<>();
+        try {
+            TreeMap<Long, Path> segments = listerSegments();
+            Long premier = segments.floorKey(debut);
+            Long apresFin = segments.higherKey(fin);
+            long borneHaute = apresFin != null ? apresFin : Long.MAX_VALUE;
+            for (Path fichier : segments.subMap(premier != null ? premier : Long.MIN_VALUE, true,
+                    borneHaute, true).values()) {
+                SegmentAudit.lire(fichier, debut, fin, id, entree -> entree.getHorodatage() >= debut
+                        && entree.getHorodatage() <= fin
+                        && (id < 0 || entree.getIdUtilisateur() == id), resultats);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture du journal d'audit impossible", e);
+        }
+        // Tri stable : à horodatage égal, l'ordre d'écriture est conservé
+        resultats.sort(Comparator.comparingLong(EntreeAudit::getHorodatage));
+        return resultats;
+    }
+    
+    private TreeMap<Long, Path> listerSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, PREFIXE + "*" + SUFFIXE)) {
+            for (Path fichier : fichiers) {
+                String nom = fichier.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(nom.substring(PREFIXE.length(), nom.length() - SUFFIXE.length())),
+                            fichier);
+                } catch (NumberFormatException e) {
+                    // Fichier étranger au journal
+                }
+            }
+        }
+        return segments;
+    }
+    
+    // Thread d'écriture
+    
+    private void ecrire() {
+        try {
+            while (true) {
+                EntreeAudit entree = tampon.prendre();
+                if (entree != null) {
+                    ajouter(entree);
+                    continue;
+                }
+                // Tampon vide : écrire le bloc si une recherche l'attend ou s'il est trop vieux
+                boolean arret = !actif && tampon.getConsommation() == tampon.getProduction();
+                if (!bloc.estVide() && (arret || vidageDemande > ecrites
+                        || System.currentTimeMillis() - ageBloc >= DELAI_BLOC_MS)) {
+                    ecrireBloc();
+                }
+                if (bloc.estVide()) {
+                    signalerEcrites(tampon.getConsommation());
+                }
+                if (arret) {
+                    break;
+                }
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(vidageDemande > ecrites ? 0 : 10));
+            }
+        } finally {
+            fermerSegment();
+            compresseur.end();
+            signalerEcrites(Long.MAX_VALUE);
+        }
+    }
+    
+    private void ajouter(EntreeAudit entree) {
+        long periode = Math.floorDiv(entree.getHorodatage(), dureeSegment) * dureeSegment;
+        if (periode > debutSegment) {
+            // Rotation : le bloc courant termine le segment précédent
+            if (!bloc.estVide()) {
+                ecrireBloc();
+            }
+            fermerSegment();
+            debutSegment = periode;
+        }
+        try {
+            if (bloc.estVide()) {
+                ageBloc = System.currentTimeMillis();
+            }
+            bloc.ajouter(entree);
+        } catch (IOException e) {
+            derniereErreur = e;
+        }
+        if (bloc.getTailleBrute() >= TAILLE_BLOC) {
+            ecrireBloc();
+        }
+    }
+    
+    private void ecrireBloc() {
+        try {
+            if (segment == null) {
+                segment = SegmentAudit.ouvrirEnAjout(repertoire.resolve(PREFIXE + debutSegment + SUFFIXE));
+            }
+            bloc.ecrire(segment, compresseur);
+            segment.force(false);
+            derniereErreur = null;
+        } catch (IOException e) {
+            // Le bloc est perdu ; l'erreur est remontée à la prochaine synchronisation
+            derniereErreur = e;
+            fermerSegment();
+            bloc.vider();
+        }
+    }
+    
+    private void fermerSegment() {
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                derniereErreur = e;
+            }
+            segment = null;
+        }
+    }
+    
+    private void signalerEcrites(long nombre) {
+        if (ecrites >= nombre) {
+            return;
+        }
+        synchronized (verrouVidage) {
+            ecrites = nombre;
+            verrouVidage.notifyAll();
+        }
+    }
+}
\ No newline at end of file
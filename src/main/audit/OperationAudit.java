@@ -0,0 +1,13 @@
+package main.audit;
+
+/**
+ * Nature d'une modification d'utilisateur enregistrée dans le journal d'audit.
+ */
+public enum OperationAudit {
+    /** Création : pas d'image avant. */
+    AJOUT,
+    /** Modification : images avant et après. */
+    MODIFICATION,
+    /** Suppression : pas d'image après. */
+    SUPPRESSION
+}
\ No newline at end of file
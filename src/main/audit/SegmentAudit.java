@@ -0,0 +1,307 @@
+package main.audit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import main.model.UtilisateurImmuable;
+
+/**
+ * Format d'un segment du journal d'audit : une suite de blocs compressés, ajoutés en
+ * fin de fichier et jamais réécrits.
+ * 
+ * Chaque bloc commence par un en-tête non compressé : marque, longueurs compressée et
+ * brute, nombre d'entrées, horodatages et IDs minimum et maximum, puis CRC32 des
+ * données. Une recherche lit les en-têtes et ne décompresse que les blocs dont les
+ * bornes recoupent les critères. Un bloc tronqué ou corrompu (arrêt brutal pendant
+ * une écriture) termine le segment : il est ignoré à la lecture et retiré avant
+ * toute nouvelle écriture.
+ */
+final class SegmentAudit {
+    private static final int MARQUE_BLOC = 0x41554449;
+    static final int TAILLE_ENTETE = 4 + 4 + 4 + 4 + 8 + 8 + 4 + 4 + 4;
+    
+    private SegmentAudit() {
+    }
+    
+    /**
+     * Bloc en cours de constitution, côté écriture : entrées sérialisées et bornes.
+     */
+    static final class Bloc {
+        private final ByteArrayOutputStream octets = new ByteArrayOutputStream(64 * 1024);
+        private final DataOutputStream sortie = new DataOutputStream(octets);
+        private int nombreEntrees;
+        private long horodatageMin = Long.MAX_VALUE;
+        private long horodatageMax = Long.MIN_VALUE;
+        private int idMin = Integer.MAX_VALUE;
+        private int idMax = Integer.MIN_VALUE;
+        
+        void ajouter(EntreeAudit entree) throws IOException {
+            sortie.writeLong(entree.getHorodatage());
+            sortie.writeByte(entree.getOperation().ordinal());
+            sortie.writeInt(entree.getIdUtilisateur());
+            ecrireChaine(sortie, entree.getAuteur());
+            ecrireUtilisateur(sortie, entree.getAvant());
+            ecrireUtilisateur(sortie, entree.getApres());
+            nombreEntrees++;
+            horodatageMin = Math.min(horodatageMin, entree.getHorodatage());
+            horodatageMax = Math.max(horodatageMax, entree.getHorodatage());
+            idMin = Math.min(idMin, entree.getIdUtilisateur());
+            idMax = Math.max(idMax, entree.getIdUtilisateur());
+        }
+        
+        boolean estVide() {
+            return nombreEntrees == 0;
+        }
+        
+        int getTailleBrute() {
+            return octets.size();
+        }
+        
+        int getNombreEntrees() {
+            return nombreEntrees;
+        }
+        
+        /**
+         * Compresse le bloc et l'ajoute à la fin du segment, puis le vide.
+         */
+        void ecrire(FileChannel canal, Deflater compresseur) throws IOException {
+            byte[] brut = octets.toByteArray();
+            compresseur.reset();
+            compresseur.setInput(brut);
+            compresseur.finish();
+            ByteArrayOutputStream compresse = new ByteArrayOutputStream(brut.length / 2 + 64);
+            byte[] morceau = new byte[8192];
+            while (!compresseur.finished()) {
+                int n = compresseur.deflate(morceau);
+                compresse.write(morceau, 0, n);
+            }
+            byte[] donnees = compresse.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(donnees);
+            
+            ByteBuffer tampon = ByteBuffer.allocate(TAILLE_ENTETE + donnees.length);
+            tampon.putInt(MARQUE_BLOC).putInt(donnees.length).putInt(brut.length).putInt(nombreEntrees)
+                    .putLong(horodatageMin).putLong(horodatageMax).putInt(idMin).putInt(idMax)
+                    .putInt((int) crc.getValue()).put(donnees).flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            vider();
+        }
+        
+        /**
+         * Abandonne les entrées du bloc.
+         */
+        void vider() {
+            octets.reset();
+            nombreEntrees = 0;
+            horodatageMin = Long.MAX_VALUE;
+            horodatageMax = Long.MIN_VALUE;
+            idMin = Integer.MAX_VALUE;
+            idMax = Integer.MIN_VALUE;
+        }
+    }
+    
+    /**
+     * Ouvre un segment en ajout, après avoir retiré un éventuel bloc final incomplet.
+     */
+    static FileChannel ouvrirEnAjout(Path fichier) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fin = finValide(canal);
+        if (fin < canal.size()) {
+            canal.truncate(fin);
+        }
+        canal.position(fin);
+        return canal;
+    }
+    
+    /**
+     * Lit les entrées d'un segment qui vérifient un filtre, en ne décompressant que les
+     * blocs dont les bornes recoupent la période et l'ID (ou tout ID si {@code id < 0}).
+     */
+    static void lire(Path fichier, long debut, long fin, int id, Predicate<EntreeAudit> filtre,
+                     List<EntreeAudit> resultats) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            Inflater decompresseur = new Inflater();
+            try {
+                ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+                long position = 0;
+                long taille = canal.size();
+                while (lireEntete(canal, position, taille, entete)) {
+                    int longueur = entete.getInt(4);
+                    long horodatageMin = entete.getLong(16);
+                    long horodatageMax = entete.getLong(24);
+                    int idMin = entete.getInt(32);
+                    int idMax = entete.getInt(36);
+                    long suivant = position + TAILLE_ENTETE + longueur;
+                    boolean retenu = horodatageMax >= debut && horodatageMin <= fin
+                            && (id < 0 || (id >= idMin && id <= idMax));
+                    if (retenu) {
+                        byte[] brut = lireDonnees(canal, position, entete, decompresseur);
+                        if (brut == null) {
+                            return;
+                        }
+                        lireEntrees(brut, entete.getInt(12), filtre, resultats);
+                    }
+                    position = suivant;
+                }
+            } finally {
+                decompresseur.end();
+            }
+        }
+    }
+    
+    /**
+     * Retourne la fin du dernier bloc complet et intact du segment.
+     */
+    private static long finValide(FileChannel canal) throws IOException {
+        ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+        Inflater decompresseur = new Inflater();
+        try {
+            long position = 0;
+            long taille = canal.size();
+            while (lireEntete(canal, position, taille, entete)
+                    && lireDonnees(canal, position, entete, decompresseur) != null) {
+                position += TAILLE_ENTETE + entete.getInt(4);
+            }
+            return position;
+        } finally {
+            decompresseur.end();
+        }
+    }
+    
+    private static boolean lireEntete(FileChannel canal, long position, long taille, ByteBuffer entete)
+            throws IOException {
+        if (position + TAILLE_ENTETE > taille) {
+            return false;
+        }
+        entete.clear();
+        while (entete.hasRemaining()) {
+            if (canal.read(entete, position + entete.position()) < 0) {
+                return false;
+            }
+        }
+        int longueur = entete.getInt(4);
+        return entete.getInt(0) == MARQUE_BLOC && longueur >= 0 && entete.getInt(8) >= 0
+                && position + TAILLE_ENTETE + longueur <= taille;
+    }
+    
+    /**
+     * Lit et décompresse les données d'un bloc ; null si elles sont corrompues.
+     */
+    private static byte[] lireDonnees(FileChannel canal, long position, ByteBuffer entete,
+                                      Inflater decompresseur) throws IOException {
+        ByteBuffer donnees = ByteBuffer.allocate(entete.getInt(4));
+        while (donnees.hasRemaining()) {
+            if (canal.read(donnees, position + TAILLE_ENTETE + donnees.position()) < 0) {
+                return null;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(donnees.array());
+        if ((int) crc.getValue() != entete.getInt(40)) {
+            return null;
+        }
+        
+        byte[] brut = new byte[entete.getInt(8)];
+        decompresseur.reset();
+        decompresseur.setInput(donnees.array());
+        try {
+            int lus = 0;
+            while (lus < brut.length && !decompresseur.finished()) {
+                int n = decompresseur.inflate(brut, lus, brut.length - lus);
+                if (n == 0 && (decompresseur.needsInput() || decompresseur.needsDictionary())) {
+                    return null;
+                }
+                lus += n;
+            }
+            return lus == brut.length ? brut : null;
+        } catch (DataFormatException e) {
+            return null;
+        }
+    }
+    
+    private static void lireEntrees(byte[] brut, int nombre, Predicate<EntreeAudit> filtre,
+                                    List<EntreeAudit> resultats) throws IOException {
+        DataInputStream entree = new DataInputStream(new ByteArrayInputStream(brut));
+        OperationAudit[] operations = OperationAudit.values();
+        for (int i = 0; i < nombre; i++) {
+            long horodatage = entree.readLong();
+            OperationAudit operation = operations[entree.readByte()];
+            int idUtilisateur = entree.readInt();
+            String auteur = lireChaine(entree);
+            UtilisateurImmuable avant = lireUtilisateur(entree);
+            UtilisateurImmuable apres = lireUtilisateur(entree);
+            EntreeAudit lue = new EntreeAudit(horodatage, auteur, operation, idUtilisateur, avant, apres);
+            if (filtre.test(lue)) {
+                resultats.add(lue);
+            }
+        }
+    }
+    
+    private static void ecrireUtilisateur(DataOutputStream sortie, UtilisateurImmuable utilisateur)
+            throws IOException {
+        sortie.writeBoolean(utilisateur != null);
+        if (utilisateur != null) {
+            sortie.writeInt(utilisateur.getId());
+            sortie.writeLong(utilisateur.getVersion());
+            ecrireChaine(sortie, utilisateur.getNom());
+            ecrireChaine(sortie, utilisateur.getPrenom());
+            ecrireChaine(sortie, utilisateur.getEmail());
+            ecrireChaine(sortie, utilisateur.getRole());
+        }
+    }
+    
+    private static UtilisateurImmuable lireUtilisateur(DataInputStream entree) throws IOException {
+        if (!entree.readBoolean()) {
+            return null;
+        }
+        return UtilisateurImmuable.builder()
+                .id(entree.readInt())
+                .version(entree.readLong())
+                .nom(lireChaine(entree))
+                .prenom(lireChaine(entree))
+                .email(lireChaine(entree))
+                .role(lireChaine(entree))
+                .construire();
+    }
+    
+    private static void ecrireChaine(DataOutputStream sortie, String chaine) throws IOException {
+        if (chaine == null) {
+            sortie.writeInt(-1);
+            return;
+        }
+        byte[] octets = chaine.getBytes(StandardCharsets.UTF_8);
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+    
+    private static String lireChaine(DataInputStream entree) throws IOException {
+        int longueur = entree.readInt();
+        if (longueur < 0) {
+            return null;
+        }
+        if (longueur > entree.available()) {
+            throw new EOFException("Chaîne tronquée dans le journal d'audit");
+        }
+        byte[] octets = new byte[longueur];
+        entree.readFully(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
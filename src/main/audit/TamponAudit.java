@@ -0,0 +1,81 @@
+package main.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tampon circulaire sans verrou entre les écrivains (threads qui modifient des
+ * utilisateurs) et l'unique thread qui écrit le journal sur disque.
+ * 
+ * Un écrivain réserve une case par compare-and-set sur la séquence de production,
+ * puis y publie son entrée. Le consommateur lit les cases dans l'ordre des séquences
+ * et vide chaque case avant d'avancer : une case n'est réservée que si le consommateur
+ * l'a libérée. Un écrivain n'attend que si le tampon est plein, c'est-à-dire si le
+ * disque ne suit durablement pas le rythme des modifications.
+ */
+final class TamponAudit {
+    private final AtomicReferenceArray<EntreeAudit> cases;
+    private final int masque;
+    private final AtomicLong production = new AtomicLong();
+    /** Prochaine séquence à consommer ; écrite par le seul consommateur. */
+    private volatile long consommation;
+    
+    TamponAudit(int capacite) {
+        int taille = Integer.highestOneBit(Math.max(2, capacite - 1) << 1);
+        this.cases = new AtomicReferenceArray<>(taille);
+        this.masque = taille - 1;
+    }
+    
+    /**
+     * Publie une entrée, en attendant qu'une case se libère si le tampon est plein.
+     * 
+     * @param entree l'entrée à publier
+     * @param consommateur le thread à réveiller si le tampon est plein
+     */
+    void publier(EntreeAudit entree, Thread consommateur) {
+        long sequence;
+        while (true) {
+            sequence = production.get();
+            if (sequence - consommation >= cases.length()) {
+                LockSupport.unpark(consommateur);
+                Thread.onSpinWait();
+                continue;
+            }
+            if (production.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        cases.set((int) sequence & masque, entree);
+    }
+    
+    /**
+     * Prend l'entrée suivante ; réservé au consommateur.
+     * 
+     * @return l'entrée, ou null si la suivante n'est pas encore publiée
+     */
+    EntreeAudit prendre() {
+        long sequence = consommation;
+        int index = (int) sequence & masque;
+        EntreeAudit entree = cases.get(index);
+        if (entree != null) {
+            cases.lazySet(index, null);
+            consommation = sequence + 1;
+        }
+        return entree;
+    }
+    
+    /**
+     * Retourne le nombre d'entrées réservées depuis la création du tampon.
+     */
+    long getProduction() {
+        return production.get();
+    }
+    
+    /**
+     * Retourne le nombre d'entrées prises par le consommateur.
+     */
+    long getConsommation() {
+        return consommation;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,320 @@
+package main.charge;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import main.dao.ResultatEcriture;
+import main.dao.UtilisateurDAO;
+import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+import main.monitoring.EnregistrementJfr;
+import main.service.ServiceUtilisateur;
+
+/**
+ * Générateur de charge : remplit le service d'un jeu d'utilisateurs synthétiques, puis
+ * rejoue sur plusieurs fils un mélange de lectures, recherches et écritures, à débit
+ * visé ou maximal, pendant une durée donnée.
+ * 
+ * Un rapport est affiché à chaque intervalle (débit, latences par opération, tas et
+ * ramasse-miettes de l'intervalle), ce qui permet de suivre une dérive sur une longue
+ * exécution : fuite mémoire, latences qui s'allongent avec la taille des index...
+ * 
+ * Ligne de commande : {@code java -cp bin main.charge.GenerateurCharge [options]}, voir
+ * {@link ParametresCharge}.
+ */
+public final class GenerateurCharge {
+    private static final int TAILLE_PAGE = 50;
+    private static final int LIMITE_RECHERCHE = 20;
+    private static final OperationCharge[] OPERATIONS = OperationCharge.values();
+    
+    private final ServiceUtilisateur service;
+    private final ParametresCharge parametres;
+    private final PrintStream sortie;
+    private final GenerateurUtilisateurs generateur;
+    /** Poids cumulés des opérations, dans l'ordre de {@link OperationCharge}. */
+    private final int[] repartition = new int[OPERATIONS.length];
+    /** Numéro du prochain utilisateur synthétique ajouté pendant la mesure. */
+    private final AtomicInteger prochainNumero;
+    /** Plus grand ID attribué : les IDs lus, modifiés ou supprimés sont tirés en dessous. */
+    private final AtomicInteger idMax = new AtomicInteger(1);
+    private volatile boolean arret;
+    
+    /**
+     * Crée un générateur de charge.
+     * 
+     * @param service le service à solliciter
+     * @param parametres les paramètres de l'exécution
+     * @param sortie le flux des rapports intermédiaires
+     * @throws IllegalArgumentException si le mélange ne contient aucune opération
+     */
+    public GenerateurCharge(ServiceUtilisateur service, ParametresCharge parametres, PrintStream sortie) {
+        this.service = service;
+        this.parametres = parametres;
+        this.sortie = sortie;
+        this.generateur = new GenerateurUtilisateurs(parametres.getGraine());
+        this.prochainNumero = new AtomicInteger(parametres.getUtilisateurs());
+        int total = 0;
+        for (OperationCharge operation : OPERATIONS) {
+            total += parametres.getPoids(operation);
+            repartition[operation.ordinal()] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Le mélange ne contient aucune opération");
+        }
+    }
+    
+    /**
+     * Lance une exécution depuis la ligne de commande, sur un service neuf.
+     * 
+     * @param args les options, voir {@link ParametresCharge#lire(String[])}
+     */
+    public static void main(String[] args) {
+        // Enregistrement JFR optionnel (-Dusermanager.jfr=fichier.jfr)
+        EnregistrementJfr.demarrerSiConfigure();
+        ParametresCharge parametres = ParametresCharge.lire(args);
+        RapportCharge bilan = new GenerateurCharge(new ServiceUtilisateur(), parametres, System.out).executer();
+        System.out.print("Bilan : " + bilan);
+    }
+    
+    /**
+     * Charge le jeu d'utilisateurs, rejoue la charge pendant la durée prévue et attend
+     * la fin des fils.
+     * 
+     * @return le bilan de la mesure (chargement exclu)
+     */
+    public RapportCharge executer() {
+        charger();
+        
+        SplittableRandom aleatoire = new SplittableRandom(parametres.getGraine());
+        int nombreFils = parametres.getFils();
+        // Débit visé réparti entre les fils, départs décalés pour lisser les arrivées
+        long periode = parametres.getDebit() == 0 ? 0 : nombreFils * 1_000_000_000L / parametres.getDebit();
+        Fil[] fils = new Fil[nombreFils];
+        Thread[] threads = new Thread[nombreFils];
+        for (int i = 0; i < nombreFils; i++) {
+            fils[i] = new Fil(aleatoire.split(), periode, periode * i / nombreFils);
+            threads[i] = new Thread(fils[i], "charge-" + i);
+            threads[i].setDaemon(true);
+        }
+        
+        long debut = System.nanoTime();
+        Releve initial = relever(fils);
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        
+        long fin = debut + parametres.getDureeSecondes() * 1_000_000_000L;
+        long intervalle = parametres.getIntervalleSecondes() * 1_000_000_000L;
+        long prochainRapport = debut + intervalle;
+        Releve precedent = initial;
+        while (true) {
+            long maintenant = System.nanoTime();
+            long echeance = Math.min(prochainRapport, fin);
+            if (maintenant < echeance) {
+                LockSupport.parkNanos(echeance - maintenant);
+                continue;
+            }
+            if (maintenant >= fin) {
+                break;
+            }
+            Releve releve = relever(fils);
+            sortie.printf("À %d s : %s", (maintenant - debut) / 1_000_000_000L, releve.moins(precedent));
+            precedent = releve;
+            prochainRapport += intervalle;
+        }
+        
+        arret = true;
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return relever(fils).moins(initial);
+    }
+    
+    /**
+     * Ajoute le jeu d'utilisateurs synthétiques en parallèle.
+     */
+    private void charger() {
+        long debut = System.nanoTime();
+        IntStream.range(0, parametres.getUtilisateurs()).parallel().forEach(this::ajouter);
+        sortie.printf("Jeu chargé : %d utilisateurs en %d ms%n", service.compterUtilisateurs(),
+                (System.nanoTime() - debut) / 1_000_000);
+    }
+    
+    private boolean ajouter(int numero) {
+        Utilisateur utilisateur = generateur.generer(numero);
+        Optional<Utilisateur> cree = service.creerUtilisateur(utilisateur.getNom(), utilisateur.getPrenom(),
+                utilisateur.getEmail(), utilisateur.getRole());
+        cree.ifPresent(u -> idMax.accumulateAndGet(u.getId(), Math::max));
+        return cree.isPresent();
+    }
+    
+    /**
+     * Exécute une opération tirée au hasard.
+     * 
+     * @return false si le service l'a refusée ; une lecture ou une écriture sur un ID
+     *         supprimé entre-temps n'est pas un échec
+     */
+    private boolean executer(OperationCharge operation, SplittableRandom aleatoire) {
+        int id = 1 + aleatoire.nextInt(idMax.get());
+        switch (operation) {
+            case LECTURE:
+                service.trouverUtilisateurParId(id);
+                return true;
+            case PAGE:
+                service.listerUtilisateursApres(id - 1, TAILLE_PAGE);
+                return true;
+            case RECHERCHE:
+                service.rechercherUtilisateursParNom(generateur.nom(aleatoire), LIMITE_RECHERCHE);
+                return true;
+            case AJOUT:
+                return ajouter(prochainNumero.getAndIncrement());
+            case MODIFICATION:
+                Optional<UtilisateurImmuable> lu = service.trouverUtilisateurParId(id);
+                if (lu.isEmpty()) {
+                    return true;
+                }
+                // Nouveaux prénom et rôle, écrits à la version lue : un conflit est un échec
+                Utilisateur autre = generateur.generer(aleatoire.nextInt(Integer.MAX_VALUE));
+                ResultatEcriture modification = service.modifierUtilisateur(id, lu.get().getVersion(),
+                        lu.get().getNom(), autre.getPrenom(), lu.get().getEmail(), autre.getRole());
+                return modification.estSucces() || modification == ResultatEcriture.INTROUVABLE;
+            case SUPPRESSION:
+                ResultatEcriture suppression = service.supprimerUtilisateur(id, UtilisateurDAO.VERSION_QUELCONQUE);
+                return suppression.estSucces() || suppression == ResultatEcriture.INTROUVABLE;
+            default:
+                throw new IllegalStateException("Opération non gérée : " + operation);
+        }
+    }
+    
+    private OperationCharge tirer(SplittableRandom aleatoire) {
+        int tirage = aleatoire.nextInt(repartition[repartition.length - 1]);
+        int i = 0;
+        while (repartition[i] <= tirage) {
+            i++;
+        }
+        return OPERATIONS[i];
+    }
+    
+    /**
+     * Additionne les compteurs des fils et relève le tas et le ramasse-miettes.
+     */
+    private static Releve relever(Fil[] fils) {
+        Releve releve = new Releve(System.nanoTime());
+        for (Fil fil : fils) {
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                fil.latences[i].ajouterA(releve.latences[i]);
+                releve.echecs[i] += fil.echecs.get(i);
+            }
+        }
+        MemoryUsage tas = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        releve.tasUtilise = tas.getUsed();
+        releve.tasReserve = tas.getCommitted();
+        for (GarbageCollectorMXBean collecteur : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // -1 si le collecteur ne fournit pas la mesure
+            releve.collectes += Math.max(0, collecteur.getCollectionCount());
+            releve.tempsCollectesMillis += Math.max(0, collecteur.getCollectionTime());
+        }
+        return releve;
+    }
+    
+    /**
+     * Fil de charge : tire et exécute des opérations jusqu'à l'arrêt, à intervalles
+     * réguliers si un débit est visé, sans pause sinon.
+     */
+    private final class Fil implements Runnable {
+        final HistogrammeLatences[] latences = new HistogrammeLatences[OPERATIONS.length];
+        /** Échecs par opération ; un seul écrivain, comme les histogrammes. */
+        final AtomicLongArray echecs = new AtomicLongArray(OPERATIONS.length);
+        private final SplittableRandom aleatoire;
+        private final long periode;
+        private final long decalage;
+        
+        Fil(SplittableRandom aleatoire, long periode, long decalage) {
+            this.aleatoire = aleatoire;
+            this.periode = periode;
+            this.decalage = decalage;
+            for (int i = 0; i < latences.length; i++) {
+                latences[i] = new HistogrammeLatences();
+            }
+        }
+        
+        @Override
+        public void run() {
+            long prevu = System.nanoTime() + decalage;
+            while (!arret) {
+                if (periode == 0) {
+                    prevu = System.nanoTime();
+                } else {
+                    long attente = prevu - System.nanoTime();
+                    if (attente > 0) {
+                        LockSupport.parkNanos(attente);
+                        continue;
+                    }
+                }
+                OperationCharge operation = tirer(aleatoire);
+                boolean reussie;
+                try {
+                    reussie = executer(operation, aleatoire);
+                } catch (RuntimeException e) {
+                    reussie = false;
+                }
+                // Latence depuis le départ prévu : le retard pris sur le débit visé est compté
+                latences[operation.ordinal()].enregistrer(System.nanoTime() - prevu);
+                if (!reussie) {
+                    echecs.lazySet(operation.ordinal(), echecs.get(operation.ordinal()) + 1);
+                }
+                prevu += periode;
+            }
+        }
+    }
+    
+    /**
+     * Compteurs cumulés à un instant ; la différence de deux relevés donne le rapport
+     * de la période qui les sépare.
+     */
+    private static final class Releve {
+        final long instant;
+        final long[][] latences = new long[OPERATIONS.length][HistogrammeLatences.CLASSES];
+        final long[] echecs = new long[OPERATIONS.length];
+        long tasUtilise;
+        long tasReserve;
+        long collectes;
+        long tempsCollectesMillis;
+        
+        Releve(long instant) {
+            this.instant = instant;
+        }
+        
+        RapportCharge moins(Releve precedent) {
+            Map<OperationCharge, long[]> latencesPeriode = new EnumMap<>(OperationCharge.class);
+            Map<OperationCharge, Long> echecsPeriode = new EnumMap<>(OperationCharge.class);
+            for (OperationCharge operation : OPERATIONS) {
+                int i = operation.ordinal();
+                long[] comptes = new long[HistogrammeLatences.CLASSES];
+                for (int classe = 0; classe < comptes.length; classe++) {
+                    comptes[classe] = latences[i][classe] - precedent.latences[i][classe];
+                }
+                latencesPeriode.put(operation, comptes);
+                echecsPeriode.put(operation, echecs[i] - precedent.echecs[i]);
+            }
+            return new RapportCharge(instant - precedent.instant, latencesPeriode, echecsPeriode,
+                    tasUtilise, tasReserve, collectes - precedent.collectes,
+                    tempsCollectesMillis - precedent.tempsCollectesMillis);
+        }
+    }
+}
\ No newline at end of file
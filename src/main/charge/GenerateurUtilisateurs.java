@@ -0,0 +1,143 @@
+package main.charge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import main.model.CleRecherche;
+import main.model.Utilisateur;
+
+/**
+ * Génère des jeux d'utilisateurs synthétiques aux noms et prénoms français, de taille
+ * quelconque et reproductibles à partir d'une graine.
+ * 
+ * Les noms suivent une loi de Zipf, comme les patronymes réels : quelques noms très
+ * fréquents (Martin, Bernard...) et une longue traîne. Les recherches et les index de
+ * noms rencontrent ainsi les mêmes déséquilibres qu'en production. Chaque utilisateur est
+ * déterminé par son numéro : son email est unique et le même d'une exécution à l'autre.
+ */
+public final class GenerateurUtilisateurs {
+    private static final String[] NOMS = {
+        "Martin", "Bernard", "Thomas", "Petit", "Robert", "Richard", "Durand", "Dubois", "Moreau",
+        "Laurent", "Simon", "Michel", "Lefèvre", "Leroy", "Roux", "David", "Bertrand", "Morel",
+        "Fournier", "Girard", "Bonnet", "Dupont", "Lambert", "Fontaine", "Rousseau", "Vincent",
+        "Muller", "Faure", "André", "Mercier", "Blanc", "Guérin", "Boyer", "Garnier", "Chevalier",
+        "François", "Legrand", "Gauthier", "Garcia", "Perrin", "Robin", "Clément", "Morin",
+        "Nicolas", "Henry", "Roussel", "Mathieu", "Masson", "Marchand", "Duval", "Denis", "Dumont",
+        "Lemaire", "Noël", "Meyer", "Dufour", "Meunier", "Brun", "Blanchard", "Giraud", "Joly",
+        "Rivière", "Lucas", "Brunet", "Gaillard", "Barbier", "Arnaud", "Martinez", "Gérard",
+        "Roche", "Renard", "Schmitt", "Roy", "Leroux", "Colin", "Vidal", "Caron", "Picard",
+        "Roger", "Fabre", "Aubert", "Lemoine", "Renaud", "Dumas", "Lacroix", "Olivier", "Philippe",
+        "Bourgeois", "Pierre", "Benoît", "Rey", "Leclerc", "Payet", "Rolland", "Leclercq",
+        "Guillaume", "Lecomte", "Lopez", "Jean", "Dupuy", "Guillot", "Hubert", "Berger", "Carpentier",
+        "Sanchez", "Dupuis", "Moulin", "Louis", "Deschamps", "Huet", "Vasseur", "Perez", "Boucher",
+        "Fleury", "Royer", "Klein", "Jacquet", "Adam", "Paris", "Poirier", "Marty", "Aubry",
+        "Guyot", "Carré", "Charles", "Renault", "Charpentier", "Ménard", "Maillard", "Baron",
+        "Bertin", "Bailly", "Hervé", "Schneider", "Fernandez", "Le Gall", "Collet", "Léger",
+        "Bouvier", "Julien", "Prévost", "Millet", "Perrot", "Daniel", "Le Roux", "Cousin",
+        "Germain", "Breton", "Besson", "Langlois", "Rémy", "Le Goff", "Pelletier", "Lévêque",
+        "Perrier", "Leblanc", "Barré", "Lebrun", "Marchal", "Weber", "Mallet", "Hamon", "Boulanger",
+        "Jacob", "Monnier", "Michaud", "Rodriguez", "Guichard", "Gillet", "Étienne", "Grondin",
+        "Poulain", "Tessier", "Chevallier", "Collin", "Chauvin", "Da Silva", "Bouchet", "Gay",
+        "Lemaître", "Bénard", "Maréchal", "Humbert", "Reynaud", "Antoine", "Hoarau", "Perret",
+        "Barthélemy", "Cordier", "Pichon", "Lejeune", "Gilbert", "Lamy", "Delaunay", "Pasquier",
+        "Carlier", "Laporte"
+    };
+    private static final String[] PRENOMS = {
+        "Jean", "Marie", "Pierre", "Michel", "Philippe", "Nathalie", "Isabelle", "Alain", "Sylvie",
+        "Catherine", "Nicolas", "Françoise", "Christophe", "Stéphane", "Sophie", "Sandrine",
+        "Patrick", "Christine", "Frédéric", "Valérie", "Julien", "Laurent", "Céline", "Olivier",
+        "Thomas", "Camille", "Léa", "Manon", "Chloé", "Emma", "Inès", "Jade", "Louise", "Alice",
+        "Lucas", "Hugo", "Louis", "Gabriel", "Jules", "Arthur", "Raphaël", "Adam", "Léo", "Nathan",
+        "Élodie", "Aurélie", "Émilie", "Julie", "Anaïs", "Mathilde", "Antoine", "Maxime", "Romain",
+        "Guillaume", "Sébastien", "Benoît", "Hélène", "Agnès", "Brigitte", "Monique", "Jacqueline",
+        "Gérard", "Bernard", "Daniel", "François", "Éric", "Thierry", "Pascal", "Yves", "Noémie",
+        "Zoé", "Clément", "Théo", "Océane", "Margaux", "Victor", "Paul", "Lina", "Rose", "Ambre"
+    };
+    private static final String[] ROLES = {"Utilisateur", "Admin", "Manager", "Superviseur"};
+    /** Répartition cumulée des rôles : surtout des utilisateurs, peu d'administrateurs. */
+    private static final double[] REPARTITION_ROLES = {0.85, 0.90, 0.97, 1.0};
+    private static final String[] DOMAINES = {"email.com", "exemple.fr", "societe.fr", "mail.fr"};
+    /** Exposant de la loi de Zipf des noms. */
+    private static final double EXPOSANT_ZIPF = 1.0;
+    
+    private final long graine;
+    private final double[] repartitionNoms;
+    
+    /**
+     * Crée un générateur.
+     * 
+     * @param graine la graine : deux générateurs de même graine produisent les mêmes utilisateurs
+     */
+    public GenerateurUtilisateurs(long graine) {
+        this.graine = graine;
+        this.repartitionNoms = new double[NOMS.length];
+        double total = 0;
+        for (int rang = 0; rang < NOMS.length; rang++) {
+            total += 1.0 / Math.pow(rang + 1, EXPOSANT_ZIPF);
+            repartitionNoms[rang] = total;
+        }
+        for (int rang = 0; rang < NOMS.length; rang++) {
+            repartitionNoms[rang] /= total;
+        }
+    }
+    
+    /**
+     * Génère l'utilisateur d'un numéro, sans ID (à attribuer à l'ajout).
+     * 
+     * @param numero le numéro de l'utilisateur dans le jeu, positif
+     * @return l'utilisateur, toujours le même pour une graine et un numéro donnés
+     */
+    public Utilisateur generer(int numero) {
+        SplittableRandom aleatoire = new SplittableRandom(graine * 0x9E3779B97F4A7C15L + numero);
+        String nom = nom(aleatoire);
+        String prenom = PRENOMS[aleatoire.nextInt(PRENOMS.length)];
+        String role = ROLES[choisir(REPARTITION_ROLES, aleatoire.nextDouble())];
+        // Le numéro rend l'email unique ; la clé de recherche retire accents et espaces
+        String email = (CleRecherche.normaliser(prenom) + "." + CleRecherche.normaliser(nom)).replace(' ', '-')
+                + "." + numero + "@" + DOMAINES[aleatoire.nextInt(DOMAINES.length)];
+        return new Utilisateur(0, nom, prenom, email, role);
+    }
+    
+    /**
+     * Génère un jeu d'utilisateurs numérotés de {@code premier} à {@code premier + nombre - 1}.
+     * 
+     * @param premier le numéro du premier utilisateur
+     * @param nombre le nombre d'utilisateurs
+     * @return les utilisateurs, sans ID
+     */
+    public List<Utilisateur> generer(int premier, int nombre) {
+        List<Utilisateur> utilisateurs = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            utilisateurs.add(generer(premier + i));
+        }
+        return utilisateurs;
+    }
+    
+    /**
+     * Tire un nom selon la loi de Zipf, par exemple comme terme de recherche.
+     * 
+     * @param aleatoire la source d'aléa
+     * @return un nom de famille
+     */
+    public String nom(SplittableRandom aleatoire) {
+        return NOMS[choisir(repartitionNoms, aleatoire.nextDouble())];
+    }
+    
+    /**
+     * Retourne l'index de la première répartition cumulée supérieure au tirage.
+     */
+    private static int choisir(double[] repartition, double tirage) {
+        int bas = 0;
+        int haut = repartition.length - 1;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (repartition[milieu] < tirage) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package main.charge;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de latences à échelle log-linéaire : chaque puissance de deux de
+ * nanosecondes est découpée en {@value #SOUS_CLASSES} classes, soit une précision
+ * d'environ 12 % de 1 ns à plusieurs minutes, dans un tableau fixe de quelques centaines
+ * de compteurs.
+ * 
+ * Chaque fil de charge écrit dans son propre histogramme, sans synchronisation : un seul
+ * écrivain par compteur. Le rapporteur additionne les histogrammes des fils à chaque
+ * intervalle ; la différence avec la somme précédente donne l'histogramme de l'intervalle.
+ */
+final class HistogrammeLatences {
+    private static final int BITS_SOUS_CLASSES = 3;
+    private static final int SOUS_CLASSES = 1 << BITS_SOUS_CLASSES;
+    /** Classes : les valeurs inférieures à 8 ns, puis 8 sous-classes par puissance de deux. */
+    static final int CLASSES = (64 - BITS_SOUS_CLASSES) * SOUS_CLASSES;
+    
+    private final AtomicLongArray comptes = new AtomicLongArray(CLASSES);
+    
+    /**
+     * Enregistre une latence ; réservé au fil propriétaire de l'histogramme.
+     * 
+     * @param nanos la latence en nanosecondes
+     */
+    void enregistrer(long nanos) {
+        int classe = classe(Math.max(0, nanos));
+        // Écrivain unique : pas besoin d'incrément atomique, seulement de visibilité
+        comptes.lazySet(classe, comptes.get(classe) + 1);
+    }
+    
+    /**
+     * Ajoute les comptes de l'histogramme à un cumul.
+     * 
+     * @param cumul un tableau de {@link #CLASSES} comptes
+     */
+    void ajouterA(long[] cumul) {
+        for (int i = 0; i < CLASSES; i++) {
+            cumul[i] += comptes.get(i);
+        }
+    }
+    
+    static int classe(long nanos) {
+        if (nanos < SOUS_CLASSES) {
+            return (int) nanos;
+        }
+        int exposant = 63 - Long.numberOfLeadingZeros(nanos);
+        int sousClasse = (int) (nanos >>> (exposant - BITS_SOUS_CLASSES)) & (SOUS_CLASSES - 1);
+        return (exposant - BITS_SOUS_CLASSES + 1) * SOUS_CLASSES + sousClasse;
+    }
+    
+    /**
+     * Retourne la plus grande latence d'une classe.
+     */
+    static long borneHaute(int classe) {
+        if (classe < SOUS_CLASSES) {
+            return classe;
+        }
+        int exposant = classe / SOUS_CLASSES + BITS_SOUS_CLASSES - 1;
+        long debut = (long) (SOUS_CLASSES + classe % SOUS_CLASSES) << (exposant - BITS_SOUS_CLASSES);
+        return debut + (1L << (exposant - BITS_SOUS_CLASSES)) - 1;
+    }
+    
+    /**
+     * Calcule un centile à partir de comptes.
+     * 
+     * @param comptes les comptes par classe
+     * @param centile le centile, de 0 à 100
+     * @return la borne haute de la classe du centile, en nanosecondes, ou 0 sans mesure
+     */
+    static long centile(long[] comptes, double centile) {
+        long total = 0;
+        for (long compte : comptes) {
+            total += compte;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(total * centile / 100));
+        long cumul = 0;
+        for (int i = 0; i < comptes.length; i++) {
+            cumul += comptes[i];
+            if (cumul >= rang) {
+                return borneHaute(i);
+            }
+        }
+        return borneHaute(comptes.length - 1);
+    }
+}
\ No newline at end of file
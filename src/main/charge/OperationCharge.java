@@ -0,0 +1,57 @@
+package main.charge;
+
+/**
+ * Opérations rejouées par le générateur de charge sur {@link main.service.ServiceUtilisateur}.
+ */
+public enum OperationCharge {
+    /** Lecture d'un utilisateur par ID. */
+    LECTURE("lecture", 55),
+    /** Lecture d'une page de 50 utilisateurs après un ID. */
+    PAGE("page", 5),
+    /** Recherche classée des 20 meilleurs résultats pour un nom. */
+    RECHERCHE("recherche", 20),
+    /** Création d'un utilisateur. */
+    AJOUT("ajout", 8),
+    /** Modification d'un utilisateur existant. */
+    MODIFICATION("modification", 10),
+    /** Suppression d'un utilisateur. */
+    SUPPRESSION("suppression", 2);
+    
+    private final String nom;
+    private final int poidsParDefaut;
+    
+    OperationCharge(String nom, int poidsParDefaut) {
+        this.nom = nom;
+        this.poidsParDefaut = poidsParDefaut;
+    }
+    
+    /**
+     * @return le nom de l'opération dans les options et les rapports
+     */
+    public String getNom() {
+        return nom;
+    }
+    
+    /**
+     * @return la part de l'opération dans le mélange par défaut, en pourcentage
+     */
+    public int getPoidsParDefaut() {
+        return poidsParDefaut;
+    }
+    
+    /**
+     * Retrouve une opération par son nom.
+     * 
+     * @param nom le nom de l'opération
+     * @return l'opération
+     * @throws IllegalArgumentException si aucune opération ne porte ce nom
+     */
+    public static OperationCharge parNom(String nom) {
+        for (OperationCharge operation : values()) {
+            if (operation.nom.equalsIgnoreCase(nom.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Opération inconnue : " + nom);
+    }
+}
\ No newline at end of file
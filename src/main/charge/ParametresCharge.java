@@ -0,0 +1,198 @@
+package main.charge;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Paramètres d'une exécution du générateur de charge.
+ * 
+ * Exemple en ligne de commande :
+ * {@code --utilisateurs 100000 --fils 8 --debit 20000 --duree 300 --intervalle 10
+ * --melange lecture=60,recherche=20,modification=15,ajout=4,suppression=1}
+ */
+public final class ParametresCharge {
+    private int utilisateurs = 10_000;
+    private int fils = Runtime.getRuntime().availableProcessors();
+    private int debit;
+    private int dureeSecondes = 30;
+    private int intervalleSecondes = 5;
+    private long graine = 42;
+    private final Map<OperationCharge, Integer> melange = new EnumMap<>(OperationCharge.class);
+    
+    /**
+     * Crée des paramètres par défaut : 10 000 utilisateurs, un fil par cœur, débit
+     * maximal pendant 30 secondes, rapport toutes les 5 secondes, mélange par défaut.
+     */
+    public ParametresCharge() {
+        for (OperationCharge operation : OperationCharge.values()) {
+            melange.put(operation, operation.getPoidsParDefaut());
+        }
+    }
+    
+    /**
+     * Lit des paramètres en ligne de commande ({@code --option valeur}).
+     * 
+     * @param args les arguments
+     * @return les paramètres, par défaut pour les options absentes
+     * @throws IllegalArgumentException si une option est inconnue ou mal formée
+     */
+    public static ParametresCharge lire(String[] args) {
+        ParametresCharge parametres = new ParametresCharge();
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Valeur manquante pour " + args[i]);
+            }
+            String valeur = args[++i];
+            switch (args[i - 1]) {
+                case "--utilisateurs":
+                    parametres.utilisateurs(Integer.parseInt(valeur));
+                    break;
+                case "--fils":
+                    parametres.fils(Integer.parseInt(valeur));
+                    break;
+                case "--debit":
+                    parametres.debit(Integer.parseInt(valeur));
+                    break;
+                case "--duree":
+                    parametres.duree(Integer.parseInt(valeur));
+                    break;
+                case "--intervalle":
+                    parametres.intervalle(Integer.parseInt(valeur));
+                    break;
+                case "--graine":
+                    parametres.graine(Long.parseLong(valeur));
+                    break;
+                case "--melange":
+                    parametres.melange(valeur);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Option inconnue : " + args[i - 1]);
+            }
+        }
+        return parametres;
+    }
+    
+    /**
+     * @param utilisateurs le nombre d'utilisateurs synthétiques chargés avant la mesure
+     * @return ces paramètres
+     */
+    public ParametresCharge utilisateurs(int utilisateurs) {
+        this.utilisateurs = positif(utilisateurs, "utilisateurs", true);
+        return this;
+    }
+    
+    /**
+     * @param fils le nombre de fils qui rejouent la charge
+     * @return ces paramètres
+     */
+    public ParametresCharge fils(int fils) {
+        this.fils = positif(fils, "fils", false);
+        return this;
+    }
+    
+    /**
+     * @param debit le débit visé en opérations par seconde, tous fils confondus ; 0 pour
+     *              le débit maximal
+     * @return ces paramètres
+     */
+    public ParametresCharge debit(int debit) {
+        this.debit = positif(debit, "debit", true);
+        return this;
+    }
+    
+    /**
+     * @param secondes la durée de la mesure
+     * @return ces paramètres
+     */
+    public ParametresCharge duree(int secondes) {
+        this.dureeSecondes = positif(secondes, "duree", false);
+        return this;
+    }
+    
+    /**
+     * @param secondes l'intervalle entre deux rapports intermédiaires
+     * @return ces paramètres
+     */
+    public ParametresCharge intervalle(int secondes) {
+        this.intervalleSecondes = positif(secondes, "intervalle", false);
+        return this;
+    }
+    
+    /**
+     * @param graine la graine du jeu de données et des tirages d'opérations
+     * @return ces paramètres
+     */
+    public ParametresCharge graine(long graine) {
+        this.graine = graine;
+        return this;
+    }
+    
+    /**
+     * Fixe le poids d'une opération ; les opérations non citées gardent le leur.
+     * 
+     * @param operation l'opération
+     * @param poids son poids relatif, 0 pour l'exclure
+     * @return ces paramètres
+     */
+    public ParametresCharge poids(OperationCharge operation, int poids) {
+        melange.put(operation, positif(poids, operation.getNom(), true));
+        return this;
+    }
+    
+    /**
+     * Fixe le mélange d'opérations ; les opérations non citées sont exclues.
+     * 
+     * @param melange les poids, par exemple {@code lecture=60,recherche=30,modification=10}
+     * @return ces paramètres
+     */
+    public ParametresCharge melange(String melange) {
+        this.melange.replaceAll((operation, poids) -> 0);
+        for (String element : melange.split(",")) {
+            String[] poids = element.split("=");
+            if (poids.length != 2) {
+                throw new IllegalArgumentException("Mélange mal formé : " + element);
+            }
+            poids(OperationCharge.parNom(poids[0]), Integer.parseInt(poids[1].trim()));
+        }
+        return this;
+    }
+    
+    public int getUtilisateurs() {
+        return utilisateurs;
+    }
+    
+    public int getFils() {
+        return fils;
+    }
+    
+    public int getDebit() {
+        return debit;
+    }
+    
+    public int getDureeSecondes() {
+        return dureeSecondes;
+    }
+    
+    public int getIntervalleSecondes() {
+        return intervalleSecondes;
+    }
+    
+    public long getGraine() {
+        return graine;
+    }
+    
+    /**
+     * @param operation une opération
+     * @return son poids relatif dans le mélange
+     */
+    public int getPoids(OperationCharge operation) {
+        return melange.get(operation);
+    }
+    
+    private static int positif(int valeur, String nom, boolean zeroAccepte) {
+        if (valeur < 0 || (valeur == 0 && !zeroAccepte)) {
+            throw new IllegalArgumentException("Valeur invalide pour " + nom + " : " + valeur);
+        }
+        return valeur;
+    }
+}
\ No newline at end of file
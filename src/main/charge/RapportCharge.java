@@ -0,0 +1,137 @@
+package main.charge;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bilan d'une exécution du générateur de charge, ou d'un de ses intervalles : nombre
+ * d'opérations et latences par type d'opération, tas et ramasse-miettes.
+ * 
+ * Les latences sont mesurées depuis l'instant où l'opération aurait dû partir selon le
+ * débit visé, et non depuis son départ effectif : un ralentissement du service retarde les
+ * opérations suivantes, et ce retard est compté dans leur latence au lieu de disparaître
+ * (omission coordonnée).
+ */
+public final class RapportCharge {
+    private final long dureeNanos;
+    private final Map<OperationCharge, long[]> latences;
+    private final Map<OperationCharge, Long> echecs;
+    private final long tasUtilise;
+    private final long tasReserve;
+    private final long collectes;
+    private final long tempsCollectesMillis;
+    
+    RapportCharge(long dureeNanos, Map<OperationCharge, long[]> latences, Map<OperationCharge, Long> echecs,
+                  long tasUtilise, long tasReserve, long collectes, long tempsCollectesMillis) {
+        this.dureeNanos = dureeNanos;
+        this.latences = new EnumMap<>(latences);
+        this.echecs = new EnumMap<>(echecs);
+        this.tasUtilise = tasUtilise;
+        this.tasReserve = tasReserve;
+        this.collectes = collectes;
+        this.tempsCollectesMillis = tempsCollectesMillis;
+    }
+    
+    /**
+     * @return la durée couverte par le rapport, en nanosecondes
+     */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+    
+    /**
+     * @param operation une opération
+     * @return le nombre d'opérations de ce type terminées
+     */
+    public long getNombre(OperationCharge operation) {
+        long nombre = 0;
+        for (long compte : latences.get(operation)) {
+            nombre += compte;
+        }
+        return nombre;
+    }
+    
+    /**
+     * @return le nombre total d'opérations terminées
+     */
+    public long getNombreTotal() {
+        long total = 0;
+        for (OperationCharge operation : OperationCharge.values()) {
+            total += getNombre(operation);
+        }
+        return total;
+    }
+    
+    /**
+     * @param operation une opération
+     * @return le nombre d'opérations de ce type refusées par le service (conflit, email
+     *         déjà utilisé...) ou terminées par une exception
+     */
+    public long getEchecs(OperationCharge operation) {
+        return echecs.get(operation);
+    }
+    
+    /**
+     * @return le débit moyen, en opérations par seconde
+     */
+    public double getDebit() {
+        return dureeNanos == 0 ? 0 : getNombreTotal() * 1e9 / dureeNanos;
+    }
+    
+    /**
+     * @param operation une opération
+     * @param centile le centile, de 0 à 100
+     * @return la latence de ce centile en nanosecondes, majorée à 12 % près ; 0 sans mesure
+     */
+    public long getLatence(OperationCharge operation, double centile) {
+        return HistogrammeLatences.centile(latences.get(operation), centile);
+    }
+    
+    /**
+     * @return le tas utilisé en fin de période, en octets
+     */
+    public long getTasUtilise() {
+        return tasUtilise;
+    }
+    
+    /**
+     * @return le tas réservé par la JVM en fin de période, en octets
+     */
+    public long getTasReserve() {
+        return tasReserve;
+    }
+    
+    /**
+     * @return le nombre de collectes du ramasse-miettes pendant la période
+     */
+    public long getCollectes() {
+        return collectes;
+    }
+    
+    /**
+     * @return le temps passé en collectes pendant la période, en millisecondes
+     */
+    public long getTempsCollectesMillis() {
+        return tempsCollectesMillis;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder(String.format(Locale.ROOT,
+                "%.1f s  %,.0f op/s  tas %d/%d Mo  GC %d (%d ms)%n",
+                dureeNanos / 1e9, getDebit(), tasUtilise >> 20, tasReserve >> 20, collectes, tempsCollectesMillis));
+        for (OperationCharge operation : OperationCharge.values()) {
+            long nombre = getNombre(operation);
+            if (nombre == 0) {
+                continue;
+            }
+            texte.append(String.format(Locale.ROOT,
+                    "  %-13s %,10d op  %,6d échecs  p50 %,9.1f  p99 %,9.1f  p99.9 %,9.1f  max %,9.1f µs%n",
+                    operation.getNom(), nombre, getEchecs(operation),
+                    getLatence(operation, 50) / 1e3, getLatence(operation, 99) / 1e3,
+                    getLatence(operation, 99.9) / 1e3, getLatence(operation, 100) / 1e3));
+        }
+        return texte.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package main.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Attribution des IDs d'utilisateurs par blocs, sans contention par insertion.
+ * 
+ * Les IDs sont pris par blocs sur un compteur global, puis distribués depuis quelques
+ * bandes. Sans concurrence, tout passe par la première bande et les IDs se suivent ;
+ * un écrivain qui perd une course est renvoyé vers une autre bande, choisie selon son
+ * thread, et le compteur global n'est touché qu'une fois par bloc. Les imports en lot
+ * réservent directement une plage entière.
+ * 
+ * Un ID attribué mais jamais enregistré (insertion refusée, transaction annulée, fin
+ * de plage inutilisée) est rendu, puis redistribué avant tout nouveau bloc : l'espace
+ * des IDs reste dense. Un ID supprimé n'est en revanche jamais réutilisé, car il a pu être exposé
+ * (API, ETag) et doit continuer à désigner le même utilisateur.
+ * 
+ * La marque haute (premier ID jamais distribué) peut être persistée dans un fichier.
+ * Elle y est écrite par avance, par pas de {@value #PAS_MARQUE} IDs : un redémarrage
+ * repart au-delà de tout ID déjà distribué, au prix d'un trou d'au plus un pas.
+ */
+public final class AllocateurIds {
+    /** Taille des blocs distribués par les bandes. */
+    static final int TAILLE_BLOC = 64;
+    /** Avance de la marque persistée sur la marque haute réelle. */
+    static final int PAS_MARQUE = 4096;
+    
+    private final AtomicInteger marqueHaute;
+    /** Par bande : prochain ID (32 bits de poids faible) et fin exclue du bloc (poids fort). */
+    private final AtomicLongArray bandes;
+    private final int masqueBandes;
+    private final ConcurrentLinkedQueue<Plage> rendues;
+    private final Path fichierMarque;
+    /** Marque couverte par le fichier ; protégée par le moniteur de l'allocateur. */
+    private volatile int marquePersistee;
+    
+    /**
+     * Crée un allocateur en mémoire, qui commence à l'ID 1.
+     */
+    public AllocateurIds() {
+        this(null);
+    }
+    
+    /**
+     * Crée un allocateur dont la marque haute est persistée dans un fichier. S'il existe,
+     * l'attribution reprend après la marque qu'il contient.
+     * 
+     * @param fichierMarque le fichier de la marque haute, ou null pour rester en mémoire
+     * @throws UncheckedIOException si le fichier existe mais ne peut pas être lu
+     */
+    public AllocateurIds(Path fichierMarque) {
+        this.fichierMarque = fichierMarque;
+        int depart = Math.max(1, lireMarque(fichierMarque));
+        this.marqueHaute = new AtomicInteger(depart);
+        this.marquePersistee = depart;
+        int nombreBandes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2);
+        this.bandes = new AtomicLongArray(nombreBandes);
+        this.masqueBandes = nombreBandes - 1;
+        this.rendues = new ConcurrentLinkedQueue<>();
+    }
+    
+    /**
+     * Attribue un nouvel ID.
+     * 
+     * @return l'ID, jamais attribué auparavant ou rendu depuis
+     * @throws UncheckedIOException si la marque haute ne peut pas être persistée
+     */
+    public int allouer() {
+        int index = 0;
+        while (true) {
+            long bloc = bandes.get(index);
+            int suivant = (int) bloc;
+            int fin = (int) (bloc >>> 32);
+            if (suivant < fin) {
+                if (bandes.compareAndSet(index, bloc, bloc + 1)) {
+                    return suivant;
+                }
+                // Course perdue : changer de bande plutôt que d'insister
+                index = (index + 1 + System.identityHashCode(Thread.currentThread())) & masqueBandes;
+                continue;
+            }
+            
+            // Bloc épuisé : reprendre une plage rendue, sinon un nouveau bloc
+            Plage plage = rendues.poll();
+            if (plage == null) {
+                plage = reserver(TAILLE_BLOC);
+            }
+            if (bandes.compareAndSet(index, bloc, emballer(plage.debut + 1, plage.fin))) {
+                return plage.debut;
+            }
+            // Un autre thread a rechargé la bande entre-temps
+            rendues.add(plage);
+        }
+    }
+    
+    /**
+     * Réserve une plage d'IDs consécutifs jamais attribués, pour un import en lot.
+     * La partie inutilisée peut être rendue avec {@link #rendre(Plage)}.
+     * 
+     * @param nombre le nombre d'IDs à réserver
+     * @return la plage réservée
+     * @throws IllegalArgumentException si le nombre n'est pas positif
+     * @throws UncheckedIOException si la marque haute ne peut pas être persistée
+     */
+    public Plage reserver(int nombre) {
+        if (nombre <= 0) {
+            throw new IllegalArgumentException("Nombre d'IDs invalide : " + nombre);
+        }
+        int debut = marqueHaute.getAndAdd(nombre);
+        if (debut < 0 || debut + nombre < 0) {
+            throw new IllegalStateException("Plus d'ID disponible");
+        }
+        persister(debut + nombre);
+        return new Plage(debut, debut + nombre);
+    }
+    
+    /**
+     * Signale un ID choisi par l'appelant : la marque haute passe au-delà, pour que
+     * l'allocateur ne le distribue jamais.
+     * 
+     * @param id l'ID utilisé
+     */
+    public void signalerUtilise(int id) {
+        if (id >= marqueHaute.get()) {
+            persister(marqueHaute.accumulateAndGet(id + 1, Math::max));
+        }
+    }
+    
+    /**
+     * Rend un ID attribué mais jamais enregistré, pour qu'il soit redistribué.
+     * 
+     * @param id l'ID à rendre
+     */
+    public void rendre(int id) {
+        rendues.add(new Plage(id, id + 1));
+    }
+    
+    /**
+     * Rend des IDs réservés mais jamais enregistrés, pour qu'ils soient redistribués.
+     * 
+     * @param plage les IDs à rendre
+     */
+    public void rendre(Plage plage) {
+        if (plage.getTaille() > 0) {
+            rendues.add(plage);
+        }
+    }
+    
+    /**
+     * Retourne la marque haute : tout ID attribué lui est inférieur.
+     * 
+     * @return le premier ID jamais distribué
+     */
+    public int getMarqueHaute() {
+        return marqueHaute.get();
+    }
+    
+    private static long emballer(int suivant, int fin) {
+        return ((long) fin << 32) | (suivant & 0xFFFFFFFFL);
+    }
+    
+    private void persister(int marque) {
+        if (fichierMarque == null || marque <= marquePersistee) {
+            return;
+        }
+        synchronized (this) {
+            if (marque <= marquePersistee) {
+                return;
+            }
+            int avance = (int) Math.min(Integer.MAX_VALUE, (long) marque + PAS_MARQUE);
+            ecrireMarque(fichierMarque, avance);
+            marquePersistee = avance;
+        }
+    }
+    
+    private static int lireMarque(Path fichier) {
+        if (fichier == null || !Files.exists(fichier)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de la marque des IDs impossible : " + fichier, e);
+        } catch (NumberFormatException e) {
+            throw new UncheckedIOException(new IOException("Marque des IDs corrompue : " + fichier, e));
+        }
+    }
+    
+    /**
+     * Écrit la marque dans un fichier temporaire puis le renomme : un arrêt brutal
+     * laisse l'ancienne marque ou la nouvelle, jamais un fichier tronqué.
+     */
+    private static void ecrireMarque(Path fichier, int marque) {
+        try {
+            Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+            Files.write(temporaire, Integer.toString(marque).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture de la marque des IDs impossible : " + fichier, e);
+        }
+    }
+    
+    /**
+     * Plage d'IDs consécutifs, début inclus et fin exclue.
+     */
+    public static final class Plage {
+        private final int debut;
+        private final int fin;
+        
+        Plage(int debut, int fin) {
+            this.debut = debut;
+            this.fin = fin;
+        }
+        
+        public int getDebut() {
+            return debut;
+        }
+        
+        public int getFin() {
+            return fin;
+        }
+        
+        public int getTaille() {
+            return fin - debut;
+        }
+        
+        /**
+         * Retourne la fin de la plage à partir d'un ID, pour rendre la partie inutilisée.
+         * 
+         * @param depuis le premier ID inutilisé
+         * @return la plage restante, éventuellement vide
+         */
+        public Plage reste(int depuis) {
+            return new Plage(Math.max(debut, Math.min(depuis, fin)), fin);
+        }
+        
+        @Override
+        public String toString() {
+            return "[" + debut + ", " + fin + ")";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package main.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import main.model.UtilisateurImmuable;
+
+/**
+ * Arbre d'empreintes (arbre de Merkle) sur les plages d'IDs, pour comparer deux
+ * répertoires en n'échangeant que des empreintes.
+ * 
+ * Le niveau 0 contient l'empreinte de chaque utilisateur, calculée sur son contenu
+ * (0 s'il n'existe pas). Chaque nœud d'un niveau supérieur résume {@value #ARITE} nœuds
+ * du niveau inférieur : le nœud {@code i} du niveau {@code n} couvre les IDs
+ * {@code [i * 16^n, (i + 1) * 16^n)}, et la racine, seule au niveau {@value #RACINE},
+ * couvre tous les IDs. Deux répertoires identiques ont la même racine ; sinon, on ne
+ * descend que dans les plages dont les empreintes diffèrent.
+ * 
+ * L'empreinte d'un nœud est la somme de celles de ses enfants : une écriture ajoute la
+ * différence entre nouvelle et ancienne empreinte à chaque ancêtre, sans verrou et sans
+ * relire les voisins. Un lecteur peut voir une écriture appliquée à certains niveaux
+ * seulement ; une comparaison concurrente d'écritures peut donc signaler une plage de
+ * trop ou en manquer une, que la comparaison suivante rattrape.
+ */
+final class ArbreEmpreintes {
+    /** Nombre d'enfants de chaque nœud. */
+    static final int ARITE = 16;
+    private static final int BITS_ARITE = 4;
+    /** Niveau de la racine : 16^8 nœuds au niveau 0 couvrent tous les IDs positifs. */
+    static final int RACINE = 8;
+    
+    private final TableEmpreintes[] niveaux = new TableEmpreintes[RACINE + 1];
+    
+    ArbreEmpreintes() {
+        for (int niveau = 0; niveau <= RACINE; niveau++) {
+            niveaux[niveau] = new TableEmpreintes();
+        }
+    }
+    
+    /**
+     * Reporte le changement d'empreinte d'un utilisateur sur sa feuille et ses ancêtres.
+     * 
+     * @param id l'ID de l'utilisateur
+     * @param ancien l'utilisateur avant l'écriture, ou null
+     * @param nouveau l'utilisateur après l'écriture, ou null
+     */
+    void remplacer(int id, UtilisateurImmuable ancien, UtilisateurImmuable nouveau) {
+        long difference = empreinte(nouveau) - empreinte(ancien);
+        if (difference == 0 || id < 0) {
+            return;
+        }
+        for (int niveau = 0; niveau <= RACINE; niveau++) {
+            niveaux[niveau].ajouter(id >>> (niveau * BITS_ARITE), difference);
+        }
+    }
+    
+    /**
+     * Copie les empreintes des enfants de plusieurs nœuds.
+     * 
+     * @param niveau le niveau des nœuds, de 1 à {@value #RACINE}
+     * @param noeuds les index des nœuds dans leur niveau
+     * @return {@value #ARITE} empreintes par nœud, dans l'ordre des nœuds
+     */
+    long[] enfants(int niveau, int[] noeuds) {
+        if (niveau < 1 || niveau > RACINE) {
+            throw new IllegalArgumentException("Niveau invalide : " + niveau);
+        }
+        TableEmpreintes table = niveaux[niveau - 1];
+        long[] empreintes = new long[noeuds.length * ARITE];
+        for (int i = 0; i < noeuds.length; i++) {
+            long premier = (long) noeuds[i] << BITS_ARITE;
+            for (int j = 0; j < ARITE; j++) {
+                empreintes[i * ARITE + j] = table.lire(premier + j);
+            }
+        }
+        return empreintes;
+    }
+    
+    /**
+     * Calcule l'empreinte du contenu d'un utilisateur, indépendante de sa version : deux
+     * répertoires qui contiennent les mêmes données ont les mêmes empreintes.
+     * 
+     * @param utilisateur l'utilisateur, ou null
+     * @return l'empreinte, 0 pour null
+     */
+    static long empreinte(UtilisateurImmuable utilisateur) {
+        if (utilisateur == null) {
+            return 0;
+        }
+        long empreinte = melanger(utilisateur.getId());
+        empreinte = melanger(empreinte ^ hacher(utilisateur.getNom()));
+        empreinte = melanger(empreinte ^ hacher(utilisateur.getPrenom()));
+        empreinte = melanger(empreinte ^ hacher(utilisateur.getEmail()));
+        empreinte = melanger(empreinte ^ hacher(utilisateur.getRole()));
+        return empreinte;
+    }
+    
+    /**
+     * FNV-1a 64 bits sur l'UTF-8 de la chaîne : stable d'une JVM à l'autre.
+     */
+    private static long hacher(String chaine) {
+        if (chaine == null) {
+            return 0x9E3779B97F4A7C15L;
+        }
+        long hache = 0xCBF29CE484222325L;
+        for (byte octet : chaine.getBytes(StandardCharsets.UTF_8)) {
+            hache = (hache ^ (octet & 0xFF)) * 0x100000001B3L;
+        }
+        return hache;
+    }
+    
+    /**
+     * Finaliseur de SplitMix64 : chaque bit de l'entrée influence tous ceux de la sortie.
+     */
+    private static long melanger(long valeur) {
+        valeur = (valeur ^ (valeur >>> 30)) * 0xBF58476D1CE4E5B9L;
+        valeur = (valeur ^ (valeur >>> 27)) * 0x94D049BB133111EBL;
+        return valeur ^ (valeur >>> 31);
+    }
+    
+    /**
+     * Empreintes d'un niveau, dans un tableau paginé alloué à la demande comme
+     * {@link RepertoireIds} : les lecteurs ne prennent jamais de verrou.
+     */
+    private static final class TableEmpreintes {
+        private static final int BITS_PAGE = 10;
+        private static final int TAILLE_PAGE = 1 << BITS_PAGE;
+        
+        private volatile AtomicLongArray[] pages = new AtomicLongArray[1];
+        
+        long lire(long index) {
+            AtomicLongArray[] table = pages;
+            long indexPage = index >>> BITS_PAGE;
+            if (indexPage >= table.length || table[(int) indexPage] == null) {
+                return 0;
+            }
+            return table[(int) indexPage].get((int) (index & (TAILLE_PAGE - 1)));
+        }
+        
+        void ajouter(int index, long difference) {
+            page(index >>> BITS_PAGE).getAndAdd(index & (TAILLE_PAGE - 1), difference);
+        }
+        
+        private AtomicLongArray page(int indexPage) {
+            AtomicLongArray[] table = pages;
+            if (indexPage < table.length && table[indexPage] != null) {
+                return table[indexPage];
+            }
+            synchronized (this) {
+                table = pages;
+                if (indexPage >= table.length) {
+                    table = Arrays.copyOf(table, Math.max(table.length * 2, indexPage + 1));
+                } else if (table[indexPage] != null) {
+                    return table[indexPage];
+                } else {
+                    table = table.clone();
+                }
+                AtomicLongArray page = new AtomicLongArray(TAILLE_PAGE);
+                table[indexPage] = page;
+                pages = table;
+                return page;
+            }
+        }
+    }
+}
\ No newline at end of file
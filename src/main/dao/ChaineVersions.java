@@ -0,0 +1,136 @@
+package main.dao;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import main.model.UtilisateurImmuable;
+
+/**
+ * Historique des versions d'un utilisateur (MVCC), de la plus récente à la plus ancienne.
+ * 
+ * Une écriture installe une nouvelle version en tête de chaîne par compare-and-set,
+ * sans verrou. Tant que son commit n'est pas horodaté, la version reste invisible :
+ * les lecteurs lisent la version précédente et ne sont jamais bloqués.
+ */
+final class ChaineVersions {
+    private static final AtomicReferenceFieldUpdater<ChaineVersions, Version> TETE =
+            AtomicReferenceFieldUpdater.newUpdater(ChaineVersions.class, Version.class, "tete");
+    
+    private volatile Version tete;
+    /** Version de l'utilisateur reflétée par les index secondaires ; protégée par le moniteur de la chaîne. */
+    UtilisateurImmuable indexe;
+    /** Séquence (horodatage du commit) de la version {@link #indexe} ; protégée par le moniteur de la chaîne. */
+    long sequenceIndexee;
+    
+    ChaineVersions(Version premiere) {
+        this.tete = premiere;
+    }
+    
+    Version tete() {
+        return tete;
+    }
+    
+    /**
+     * Installe une nouvelle version si la tête est toujours celle attendue.
+     */
+    boolean installer(Version attendue, Version nouvelle) {
+        return TETE.compareAndSet(this, attendue, nouvelle);
+    }
+    
+    /**
+     * Retire une version annulée de la tête de chaîne.
+     */
+    void desinstaller(Version annulee) {
+        TETE.compareAndSet(this, annulee, annulee.precedente);
+    }
+    
+    /**
+     * Retourne la version la plus récente visible depuis un instantané.
+     * 
+     * @param instantane l'horodatage de l'instantané
+     * @return la version visible, ou null si l'utilisateur n'existait pas encore
+     */
+    Version visible(long instantane) {
+        for (Version version = tete; version != null; version = version.precedente) {
+            long horodatage = version.commit.horodatageStable();
+            if (horodatage > 0 && horodatage <= instantane) {
+                return version;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Retourne la dernière version validée.
+     * 
+     * @return la version, ou null si aucune version n'est encore validée
+     */
+    Version derniereValidee() {
+        for (Version version = tete; version != null; version = version.precedente) {
+            if (version.commit.horodatageStable() > 0) {
+                return version;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Supprime les versions qu'aucun instantané actif ne peut plus lire : tout ce qui
+     * précède la plus récente version validée au plus tard à {@code plusAncienInstantane}.
+     * 
+     * @param plusAncienInstantane l'instantané actif le plus ancien
+     */
+    void elaguer(long plusAncienInstantane) {
+        for (Version version = tete; version != null; version = version.precedente) {
+            long horodatage = version.commit.horodatage;
+            if (horodatage > 0 && horodatage <= plusAncienInstantane) {
+                version.precedente = null;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Une version d'un utilisateur.
+     */
+    static final class Version {
+        /** Données de l'utilisateur, ou null pour une suppression. */
+        final UtilisateurImmuable valeur;
+        final Commit commit;
+        volatile Version precedente;
+        
+        Version(UtilisateurImmuable valeur, Commit commit, Version precedente) {
+            this.valeur = valeur;
+            this.commit = commit;
+            this.precedente = precedente;
+        }
+    }
+    
+    /**
+     * État d'un commit, partagé par toutes les versions qu'il installe : elles deviennent
+     * visibles ensemble au moment où l'horodatage est publié.
+     */
+    static final class Commit {
+        static final long EN_COURS = 0;
+        static final long ANNULE = -1;
+        
+        /** EN_COURS, ANNULE ou horodatage (> 0) du commit. */
+        volatile long horodatage = EN_COURS;
+        /** Vrai entre la prise de l'horodatage et sa publication. */
+        volatile boolean horodatageEnCours;
+        
+        /**
+         * Lit l'horodatage en attendant la fin de sa publication si elle a commencé.
+         * L'attente ne couvre que l'intervalle entre l'incrément de l'horloge et
+         * l'écriture du champ : elle garantit qu'un instantané pris avant l'incrément
+         * ne verra jamais ce commit, et qu'un instantané pris après le verra toujours.
+         */
+        long horodatageStable() {
+            long valeur = horodatage;
+            while (valeur == EN_COURS && horodatageEnCours) {
+                Thread.onSpinWait();
+                valeur = horodatage;
+            }
+            return valeur;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package main.dao;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Function;
+
+import main.model.CleRecherche;
+import main.model.UtilisateurImmuable;
+
+/**
+ * Critères de tri des utilisateurs. Hors ID, le DAO tient pour chaque critère un index
+ * trié (voir {@link UtilisateurDAO#listerIdsTries(CritereTri)}) ; les textes sont comparés
+ * par clé de recherche, donc sans tenir compte de la casse ni des accents.
+ */
+public enum CritereTri {
+    ID(null),
+    PRENOM(u -> CleRecherche.normaliser(u.getPrenom())),
+    NOM(UtilisateurImmuable::getNomCle),
+    EMAIL(u -> u.getEmail().toLowerCase(Locale.ROOT)),
+    ROLE(u -> CleRecherche.normaliser(u.getRole()));
+    
+    private final Function<UtilisateurImmuable, String> cle;
+    
+    CritereTri(Function<UtilisateurImmuable, String> cle) {
+        this.cle = cle;
+    }
+    
+    /**
+     * Retourne la clé de tri d'un utilisateur, ou null pour le tri par ID.
+     * 
+     * @param utilisateur l'utilisateur
+     * @return la clé de tri
+     */
+    public String cle(UtilisateurImmuable utilisateur) {
+        return cle != null ? cle.apply(utilisateur) : null;
+    }
+    
+    /**
+     * Retourne l'ordre croissant selon ce critère, départagé par ID ; pour trier
+     * quelques utilisateurs en mémoire dans le même ordre que l'index du DAO.
+     * 
+     * @return le comparateur
+     */
+    public Comparator<UtilisateurImmuable> comparateur() {
+        Comparator<UtilisateurImmuable> parId = Comparator.comparingInt(UtilisateurImmuable::getId);
+        return cle != null ? Comparator.comparing(cle).thenComparing(parId) : parId;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package main.dao;
+
+import main.model.DonneesUtilisateur;
+import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+
+/**
+ * Écriture en attente de commit sur un utilisateur : insertion, modification ou suppression.
+ */
+final class Ecriture {
+    final int id;
+    /** Nouvelles données, ou null pour une suppression. */
+    final UtilisateurImmuable nouvelle;
+    /** Saisie de l'appelant, qui reçoit la nouvelle version au commit ; null si aucune. */
+    final Utilisateur saisie;
+    /** Vrai si l'utilisateur ne doit pas encore exister. */
+    final boolean insertion;
+    /** Version attendue de l'utilisateur, ou {@link UtilisateurDAO#VERSION_QUELCONQUE}. */
+    final long versionAttendue;
+    
+    Ecriture(int id, DonneesUtilisateur donnees, Utilisateur saisie, boolean insertion, long versionAttendue) {
+        this.id = id;
+        this.nouvelle = donnees != null ? UtilisateurImmuable.depuis(donnees).id(id).construire() : null;
+        this.saisie = saisie;
+        this.insertion = insertion;
+        this.versionAttendue = versionAttendue;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package main.dao;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fusion de plusieurs parcours triés par ID en un seul, trié lui aussi : chaque partition
+ * du DAO est triée par ID, et un parcours global lit la plus petite tête parmi elles.
+ * 
+ * Chaque élément coûte O(log k) pour k sources, et le parcours est paresseux : une page
+ * ne lit que ce qu'elle affiche.
+ */
+final class FusionTriee<T> implements Iterator<T> {
+    private final PriorityQueue<Source<T>> sources;
+    
+    private FusionTriee(List<? extends Iterator<T>> parcours, ToIntFunction<T> cle) {
+        this.sources = new PriorityQueue<>(Math.max(1, parcours.size()),
+                Comparator.comparingInt(source -> cle.applyAsInt(source.tete)));
+        for (Iterator<T> iterateur : parcours) {
+            if (iterateur.hasNext()) {
+                sources.add(new Source<>(iterateur, iterateur.next()));
+            }
+        }
+    }
+    
+    /**
+     * Fusionne des parcours triés par clé croissante.
+     * 
+     * @param parcours les parcours, chacun trié par clé
+     * @param cle la clé de tri (l'ID)
+     * @return un parcours de tous les éléments, trié par clé
+     */
+    static <T> Iterator<T> fusionner(List<? extends Iterator<T>> parcours, ToIntFunction<T> cle) {
+        return parcours.size() == 1 ? parcours.get(0) : new FusionTriee<>(parcours, cle);
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return !sources.isEmpty();
+    }
+    
+    @Override
+    public T next() {
+        Source<T> source = sources.poll();
+        if (source == null) {
+            throw new NoSuchElementException();
+        }
+        T element = source.tete;
+        if (source.iterateur.hasNext()) {
+            source.tete = source.iterateur.next();
+            sources.add(source);
+        }
+        return element;
+    }
+    
+    private static final class Source<T> {
+        final Iterator<T> iterateur;
+        T tete;
+        
+        Source(Iterator<T> iterateur, T tete) {
+            this.iterateur = iterateur;
+            this.tete = tete;
+        }
+    }
+}
\ No newline at end of file
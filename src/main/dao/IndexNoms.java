@@ -0,0 +1,210 @@
+package main.dao;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Index des noms : dictionnaire trié des clés de recherche des noms (voir
+ * {@link main.model.CleRecherche}) vers les IDs des utilisateurs qui les portent.
+ * 
+ * Le dictionnaire trié sert aux recherches exactes et par préfixe, qui lisent une
+ * plage de clés consécutives. Les mêmes clés sont aussi rangées dans un arbre BK selon
+ * leur distance d'édition (Levenshtein), pour la recherche approchée : pour une requête
+ * et une distance maximale k, l'inégalité triangulaire permet de n'explorer que les
+ * enfants dont la distance au nœud est comprise entre d - k et d + k, soit une petite
+ * partie des noms distincts.
+ * 
+ * L'index est sûr en accès concurrent et sans verrou global. Un nom qui n'est plus porté
+ * par aucun utilisateur quitte le dictionnaire, que les recherches par préfixe ou sous-chaîne
+ * ne parcourent donc plus ; l'arbre, lui, ne fait que grandir (ajout par putIfAbsent) et
+ * garde le nœud, sans IDs, pour le jour où le nom revient. Les résultats sont des
+ * candidats que le DAO vérifie contre la dernière version validée de chaque utilisateur.
+ */
+final class IndexNoms {
+    private final AtomicReference<Noeud> racine = new AtomicReference<>();
+    private final ConcurrentNavigableMap<String, Set<Integer>> idsParNom = new ConcurrentSkipListMap<>();
+    
+    /**
+     * Associe un utilisateur à la clé de son nom.
+     */
+    void ajouter(String nomCle, int id) {
+        while (true) {
+            Set<Integer> ids = idsParNom.get(nomCle);
+            if (ids == null) {
+                insererDansArbre(nomCle);
+                Set<Integer> nouveaux = ConcurrentHashMap.newKeySet();
+                nouveaux.add(id);
+                if (idsParNom.putIfAbsent(nomCle, nouveaux) == null) {
+                    return;
+                }
+                continue;
+            }
+            synchronized (ids) {
+                // Un ensemble vidé puis retiré entre-temps ne doit plus recevoir d'ID
+                if (idsParNom.get(nomCle) == ids) {
+                    ids.add(id);
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Retire l'association d'un utilisateur à la clé de son ancien nom ; le nom quitte
+     * le dictionnaire s'il n'est plus porté par personne.
+     */
+    void retirer(String nomCle, int id) {
+        Set<Integer> ids = idsParNom.get(nomCle);
+        if (ids == null) {
+            return;
+        }
+        synchronized (ids) {
+            if (ids.remove(id) && ids.isEmpty()) {
+                idsParNom.remove(nomCle, ids);
+            }
+        }
+    }
+    
+    /**
+     * Retourne les noms commençant par un préfixe, dans l'ordre alphabétique des clés,
+     * le nom égal au préfixe compris.
+     * 
+     * @param prefixeCle la clé de recherche du préfixe
+     * @return les clés de noms et les IDs qui les portent
+     */
+    NavigableMap<String, Set<Integer>> parPrefixe(String prefixeCle) {
+        return idsParNom.subMap(prefixeCle, true, prefixeCle + Character.MAX_VALUE, false);
+    }
+    
+    /**
+     * Retourne tous les noms indexés, dans l'ordre alphabétique des clés.
+     * 
+     * @return les clés de noms et les IDs qui les portent
+     */
+    NavigableMap<String, Set<Integer>> tous() {
+        return idsParNom;
+    }
+    
+    /**
+     * Recherche les noms à une distance d'édition au plus {@code distanceMax} de la requête.
+     * 
+     * @param requeteCle la clé de recherche de la requête
+     * @param distanceMax la distance d'édition maximale
+     * @return les correspondances, dans l'ordre de parcours de l'arbre
+     */
+    List<Correspondance> rechercher(String requeteCle, int distanceMax) {
+        List<Correspondance> correspondances = new ArrayList<>();
+        Noeud premier = racine.get();
+        if (premier == null) {
+            return correspondances;
+        }
+        
+        Deque<Noeud> aVisiter = new ArrayDeque<>();
+        aVisiter.push(premier);
+        while (!aVisiter.isEmpty()) {
+            Noeud noeud = aVisiter.pop();
+            int distance = distance(requeteCle, noeud.nom);
+            if (distance <= distanceMax) {
+                Set<Integer> ids = idsParNom.get(noeud.nom);
+                if (ids != null) {
+                    for (int id : ids) {
+                        correspondances.add(new Correspondance(id, noeud.nom, distance));
+                    }
+                }
+            }
+            for (int d = Math.max(1, distance - distanceMax); d <= distance + distanceMax; d++) {
+                Noeud enfant = noeud.enfants.get(d);
+                if (enfant != null) {
+                    aVisiter.push(enfant);
+                }
+            }
+        }
+        return correspondances;
+    }
+    
+    private void insererDansArbre(String nom) {
+        Noeud nouveau = new Noeud(nom);
+        Noeud noeud = racine.get();
+        if (noeud == null) {
+            if (racine.compareAndSet(null, nouveau)) {
+                return;
+            }
+            noeud = racine.get();
+        }
+        while (true) {
+            int distance = distance(nom, noeud.nom);
+            if (distance == 0) {
+                return;
+            }
+            Noeud enfant = noeud.enfants.putIfAbsent(distance, nouveau);
+            if (enfant == null) {
+                return;
+            }
+            noeud = enfant;
+        }
+    }
+    
+    /**
+     * Distance de Levenshtein entre deux chaînes, calculée sur deux lignes.
+     */
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String echange = a;
+            a = b;
+            b = echange;
+        }
+        int[] precedente = new int[b.length() + 1];
+        int[] courante = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            precedente[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            courante[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cout = ca == b.charAt(j - 1) ? 0 : 1;
+                courante[j] = Math.min(Math.min(courante[j - 1] + 1, precedente[j] + 1), precedente[j - 1] + cout);
+            }
+            int[] ligne = precedente;
+            precedente = courante;
+            courante = ligne;
+        }
+        return precedente[b.length()];
+    }
+    
+    /**
+     * Nœud de l'arbre BK : un nom et ses enfants, indexés par leur distance à ce nom.
+     */
+    private static final class Noeud {
+        final String nom;
+        final ConcurrentHashMap<Integer, Noeud> enfants = new ConcurrentHashMap<>();
+        
+        Noeud(String nom) {
+            this.nom = nom;
+        }
+    }
+    
+    /**
+     * Utilisateur candidat, avec la clé de nom sous laquelle il a été trouvé et sa
+     * distance d'édition à la requête.
+     */
+    static final class Correspondance {
+        final int id;
+        final String nomCle;
+        final int distance;
+        
+        Correspondance(int id, String nomCle, int distance) {
+            this.id = id;
+            this.nomCle = nomCle;
+            this.distance = distance;
+        }
+    }
+}
\ No newline at end of file
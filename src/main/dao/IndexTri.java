@@ -0,0 +1,57 @@
+package main.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index trié des utilisateurs selon une clé de tri, sans verrou : un ensemble trié
+ * concurrent de couples (clé, ID), ordonnés par clé puis par ID.
+ * 
+ * Lister les IDs dans l'ordre revient à parcourir l'ensemble, sans aucune comparaison :
+ * le coût du tri est payé une fois par écriture, pas à chaque affichage.
+ */
+final class IndexTri {
+    private final ConcurrentSkipListSet<Entree> entrees = new ConcurrentSkipListSet<>();
+    
+    void ajouter(String cle, int id) {
+        entrees.add(new Entree(cle, id));
+    }
+    
+    void retirer(String cle, int id) {
+        entrees.remove(new Entree(cle, id));
+    }
+    
+    /**
+     * Retourne les IDs dans l'ordre croissant des clés.
+     * 
+     * @param tailleEstimee le nombre d'entrées attendu, pour dimensionner le tableau
+     * @return les IDs triés
+     */
+    int[] ids(int tailleEstimee) {
+        int[] ids = new int[Math.max(tailleEstimee, 16)];
+        int taille = 0;
+        for (Entree entree : entrees) {
+            if (taille == ids.length) {
+                ids = Arrays.copyOf(ids, taille * 2);
+            }
+            ids[taille++] = entree.id;
+        }
+        return Arrays.copyOf(ids, taille);
+    }
+    
+    private static final class Entree implements Comparable<Entree> {
+        final String cle;
+        final int id;
+        
+        Entree(String cle, int id) {
+            this.cle = cle;
+            this.id = id;
+        }
+        
+        @Override
+        public int compareTo(Entree autre) {
+            int comparaison = cle.compareTo(autre.cle);
+            return comparaison != 0 ? comparaison : Integer.compare(id, autre.id);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package main.dao;
+
+import java.util.List;
+
+/**
+ * Modifications lues dans un instantané cohérent d'un répertoire, avec la séquence de
+ * cet instantané : la prochaine exportation différentielle repart de cette séquence.
+ */
+public final class LotModifications {
+    private final long sequence;
+    private final List<Modification> modifications;
+    
+    /**
+     * Crée un lot.
+     * 
+     * @param sequence la séquence de l'instantané lu
+     * @param modifications les modifications, au plus une par utilisateur
+     */
+    public LotModifications(long sequence, List<Modification> modifications) {
+        this.sequence = sequence;
+        this.modifications = List.copyOf(modifications);
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public List<Modification> getModifications() {
+        return modifications;
+    }
+    
+    public int getTaille() {
+        return modifications.size();
+    }
+}
\ No newline at end of file
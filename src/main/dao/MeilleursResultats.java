@@ -0,0 +1,86 @@
+package main.dao;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import main.model.UtilisateurImmuable;
+
+/**
+ * Les K meilleurs résultats d'une recherche classée, gardés dans un tas borné.
+ * 
+ * Les résultats sont classés par rang (nom identique, puis commençant par la recherche,
+ * puis la contenant), puis par clé de nom et par ID. Le tas garde le moins bon résultat
+ * en tête : un candidat moins bon que lui est écarté aussitôt, et la mémoire reste
+ * en O(K) quel que soit le nombre de correspondances.
+ */
+final class MeilleursResultats {
+    static final int RANG_EXACT = 0;
+    static final int RANG_PREFIXE = 1;
+    static final int RANG_SOUS_CHAINE = 2;
+    
+    private static final Comparator<Candidat> ORDRE = Comparator.<Candidat>comparingInt(c -> c.rang)
+            .thenComparing(c -> c.utilisateur.getNomCle())
+            .thenComparingInt(c -> c.utilisateur.getId());
+    
+    private final int limite;
+    private final PriorityQueue<Candidat> tas;
+    
+    MeilleursResultats(int limite) {
+        this.limite = limite;
+        this.tas = new PriorityQueue<>(Math.max(1, limite), ORDRE.reversed());
+    }
+    
+    /**
+     * Indique si un nom de ce rang peut encore entrer dans les résultats. Les noms étant
+     * proposés dans l'ordre du classement, la recherche s'arrête au premier refus.
+     */
+    boolean peutEntrer(int rang, String nomCle) {
+        if (tas.size() < limite) {
+            return true;
+        }
+        Candidat pire = tas.peek();
+        if (pire == null || rang != pire.rang) {
+            return pire != null && rang < pire.rang;
+        }
+        // À clé égale, l'ID peut encore départager
+        return nomCle.compareTo(pire.utilisateur.getNomCle()) <= 0;
+    }
+    
+    void proposer(int rang, UtilisateurImmuable utilisateur) {
+        if (limite <= 0) {
+            return;
+        }
+        Candidat candidat = new Candidat(rang, utilisateur);
+        if (tas.size() < limite) {
+            tas.add(candidat);
+        } else if (ORDRE.compare(candidat, tas.peek()) < 0) {
+            tas.poll();
+            tas.add(candidat);
+        }
+    }
+    
+    /**
+     * Retourne les résultats gardés, du meilleur au moins bon.
+     */
+    List<UtilisateurImmuable> trier() {
+        List<Candidat> candidats = new ArrayList<>(tas);
+        candidats.sort(ORDRE);
+        List<UtilisateurImmuable> resultats = new ArrayList<>(candidats.size());
+        for (Candidat candidat : candidats) {
+            resultats.add(candidat.utilisateur);
+        }
+        return resultats;
+    }
+    
+    private static final class Candidat {
+        final int rang;
+        final UtilisateurImmuable utilisateur;
+        
+        Candidat(int rang, UtilisateurImmuable utilisateur) {
+            this.rang = rang;
+            this.utilisateur = utilisateur;
+        }
+    }
+}
\ No newline at end of file
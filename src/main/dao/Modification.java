@@ -0,0 +1,51 @@
+package main.dao;
+
+import main.model.UtilisateurImmuable;
+
+/**
+ * État d'un utilisateur transmis lors d'une synchronisation : ses données et le numéro
+ * de séquence du commit qui les a écrites, ou une suppression.
+ */
+public final class Modification {
+    private final int id;
+    private final long sequence;
+    private final UtilisateurImmuable utilisateur;
+    
+    /**
+     * Crée une modification.
+     * 
+     * @param id l'ID de l'utilisateur
+     * @param sequence le numéro de séquence de la dernière écriture de l'utilisateur,
+     *                 dans le répertoire d'origine (0 s'il n'y a jamais existé)
+     * @param utilisateur les données de l'utilisateur, ou null s'il n'existe pas ou plus
+     */
+    public Modification(int id, long sequence, UtilisateurImmuable utilisateur) {
+        this.id = id;
+        this.sequence = sequence;
+        this.utilisateur = utilisateur;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public UtilisateurImmuable getUtilisateur() {
+        return utilisateur;
+    }
+    
+    /**
+     * @return true si l'utilisateur n'existe pas (ou plus) dans le répertoire d'origine
+     */
+    public boolean estSuppression() {
+        return utilisateur == null;
+    }
+    
+    @Override
+    public String toString() {
+        return "Modification{id=" + id + ", sequence=" + sequence + ", utilisateur=" + utilisateur + "}";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package main.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Répertoire dense des chaînes de versions, indexé directement par ID.
+ * 
+ * Les IDs attribués par {@link AllocateurIds} sont de petits entiers consécutifs : un
+ * tableau paginé les adresse sans boxing ni hachage. Retrouver une chaîne revient à
+ * lire la page de l'ID puis sa case. Les pages sont allouées à la demande et la table
+ * des pages est recopiée en double quand un ID la dépasse ; les lecteurs ne prennent
+ * jamais de verrou.
+ * 
+ * Une case n'est jamais vidée. Un utilisateur supprimé garde sa chaîne, dont la dernière
+ * version est une suppression (tombe) : {@link AllocateurIds} ne redistribue jamais l'ID
+ * d'un utilisateur supprimé. Un ID attribué mais jamais enregistré (insertion refusée,
+ * transaction annulée) est en revanche rendu puis redistribué ; s'il a déjà reçu une
+ * chaîne, le commit annulé en a retiré sa version, et la prochaine insertion réutilise
+ * cette chaîne vide.
+ */
+final class RepertoireIds {
+    private static final int BITS_PAGE = 10;
+    private static final int TAILLE_PAGE = 1 << BITS_PAGE;
+    private static final int MASQUE_PAGE = TAILLE_PAGE - 1;
+    
+    private volatile AtomicReferenceArray<ChaineVersions>[] pages;
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RepertoireIds() {
+        this.pages = new AtomicReferenceArray[16];
+    }
+    
+    /**
+     * Retourne la chaîne d'un ID.
+     * 
+     * @return la chaîne, ou null si l'ID n'a jamais été écrit
+     */
+    ChaineVersions lire(int id) {
+        if (id < 0) {
+            return null;
+        }
+        AtomicReferenceArray<ChaineVersions>[] table = pages;
+        int indexPage = id >>> BITS_PAGE;
+        if (indexPage >= table.length) {
+            return null;
+        }
+        AtomicReferenceArray<ChaineVersions> page = table[indexPage];
+        return page != null ? page.get(id & MASQUE_PAGE) : null;
+    }
+    
+    /**
+     * Retourne la chaîne d'un ID, en plaçant celle fournie si la case est vide.
+     * 
+     * @param id l'ID, positif
+     * @param nouvelle la chaîne à placer si l'ID n'en a pas encore
+     * @return la chaîne de l'ID : {@code nouvelle}, ou celle placée avant elle
+     */
+    ChaineVersions placerSiAbsente(int id, ChaineVersions nouvelle) {
+        AtomicReferenceArray<ChaineVersions> page = page(id >>> BITS_PAGE);
+        int index = id & MASQUE_PAGE;
+        if (page.compareAndSet(index, null, nouvelle)) {
+            return nouvelle;
+        }
+        return page.get(index);
+    }
+    
+    private AtomicReferenceArray<ChaineVersions> page(int indexPage) {
+        AtomicReferenceArray<ChaineVersions>[] table = pages;
+        if (indexPage < table.length && table[indexPage] != null) {
+            return table[indexPage];
+        }
+        synchronized (this) {
+            table = pages;
+            if (indexPage >= table.length) {
+                table = Arrays.copyOf(table, Math.max(table.length * 2, indexPage + 1));
+            } else if (table[indexPage] != null) {
+                return table[indexPage];
+            } else {
+                // Copie : une table publiée n'est jamais modifiée, les lecteurs la lisent sans verrou
+                table = table.clone();
+            }
+            AtomicReferenceArray<ChaineVersions> page = new AtomicReferenceArray<>(TAILLE_PAGE);
+            table[indexPage] = page;
+            pages = table;
+            return page;
+        }
+    }
+}
\ No newline at end of file
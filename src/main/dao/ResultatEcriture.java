@@ -0,0 +1,24 @@
+package main.dao;
+
+/**
+ * Résultat d'une écriture conditionnelle (modification ou suppression avec version attendue).
+ */
+public enum ResultatEcriture {
+    /** L'écriture a été appliquée. */
+    SUCCES,
+    /** L'utilisateur a été modifié entre-temps : sa version ne correspond plus. */
+    CONFLIT,
+    /** Aucun utilisateur ne porte cet ID. */
+    INTROUVABLE,
+    /** Les données fournies ne sont pas valides. */
+    INVALIDE,
+    /** L'email appartient déjà à un autre utilisateur. */
+    EMAIL_DEJA_UTILISE;
+    
+    /**
+     * @return true si l'écriture a été appliquée
+     */
+    public boolean estSucces() {
+        return this == SUCCES;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package main.dao;
+
+/**
+ * Répertoire d'utilisateurs vu par une synchronisation : ce qu'un réplica doit pouvoir
+ * demander à sa source, localement ou à travers le réseau.
+ * 
+ * Toutes les opérations coûtent en proportion de ce qu'elles renvoient, pas de la
+ * taille du répertoire (sauf l'exportation complète, depuis la séquence 0).
+ */
+public interface SourceSynchronisation {
+    /**
+     * Retourne la séquence jusqu'à laquelle toutes les écritures sont reflétées dans les
+     * empreintes et les exportations.
+     * 
+     * @return la séquence stable
+     */
+    long getSequence();
+    
+    /**
+     * Retourne les empreintes des enfants de nœuds de l'arbre des IDs : 16 par nœud. La
+     * racine est le nœud 0 du niveau 8 ; les enfants du nœud {@code i} du niveau 1 sont
+     * les utilisateurs d'IDs {@code 16 * i} à {@code 16 * i + 15}.
+     * 
+     * @param niveau le niveau des nœuds, de 1 à 8
+     * @param noeuds les index des nœuds dans leur niveau
+     * @return les empreintes des enfants, nœud après nœud
+     */
+    long[] lireEmpreintes(int niveau, int[] noeuds);
+    
+    /**
+     * Lit l'état courant de quelques utilisateurs, suppressions comprises.
+     * 
+     * @param ids les IDs à lire
+     * @return une modification par ID, une suppression pour un ID sans utilisateur
+     */
+    LotModifications lire(int[] ids);
+    
+    /**
+     * Exporte les utilisateurs écrits après une séquence, tels qu'ils sont dans un
+     * instantané pris maintenant. Depuis la séquence 0, l'exportation est un instantané
+     * complet du répertoire, sans suppressions.
+     * 
+     * @param sequence la séquence du lot précédent, ou 0
+     * @return les utilisateurs écrits ou supprimés depuis la séquence
+     */
+    LotModifications exporterDepuis(long sequence);
+}
\ No newline at end of file
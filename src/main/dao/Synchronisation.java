@@ -0,0 +1,126 @@
+package main.dao;
+
+import java.util.Arrays;
+
+/**
+ * Synchronisation différentielle d'un réplica à partir d'une source.
+ * 
+ * Chaque écriture de la source porte un numéro de séquence (l'horodatage de son commit).
+ * Une fois le réplica aligné, chaque synchronisation ne transfère que les utilisateurs
+ * écrits depuis la séquence précédente, lus dans un instantané cohérent de la source.
+ * 
+ * Les arbres d'empreintes des deux côtés sont ensuite comparés : s'ils diffèrent (premier
+ * alignement, écriture locale au réplica, lot perdu), on descend uniquement dans les
+ * plages d'IDs dont les empreintes diffèrent et on ne transfère que les utilisateurs en
+ * cause. Deux répertoires presque identiques s'alignent donc en un temps proportionnel
+ * à leurs différences, pas à leur taille.
+ * 
+ * La synchronisation va de la source vers le réplica : en cas de divergence, la source
+ * l'emporte.
+ */
+public final class Synchronisation {
+    private final SourceSynchronisation source;
+    private final UtilisateurDAO replica;
+    /** Séquence de la source déjà reflétée dans le réplica, 0 avant le premier alignement. */
+    private long sequence;
+    private int derniersTransferts;
+    
+    /**
+     * Prépare la synchronisation d'un réplica.
+     * 
+     * @param source le répertoire de référence
+     * @param replica le répertoire à aligner sur la source
+     */
+    public Synchronisation(SourceSynchronisation source, UtilisateurDAO replica) {
+        this.source = source;
+        this.replica = replica;
+    }
+    
+    /**
+     * Aligne le réplica sur la source.
+     * 
+     * @return SUCCES, ou le résultat de l'import refusé par le réplica (par exemple
+     *         EMAIL_DEJA_UTILISE si un utilisateur local au réplica bloque un email)
+     */
+    public ResultatEcriture synchroniser() {
+        derniersTransferts = 0;
+        long depart;
+        if (sequence == 0) {
+            // Premier alignement : les empreintes suffisent, sans exporter tout le répertoire
+            depart = source.getSequence();
+        } else {
+            LotModifications lot = source.exporterDepuis(sequence);
+            ResultatEcriture resultat = importer(lot);
+            if (!resultat.estSucces()) {
+                return resultat;
+            }
+            depart = lot.getSequence();
+        }
+        
+        int[] differences = comparer(source, replica);
+        if (differences.length > 0) {
+            ResultatEcriture resultat = importer(source.lire(differences));
+            if (!resultat.estSucces()) {
+                return resultat;
+            }
+        }
+        sequence = depart;
+        return ResultatEcriture.SUCCES;
+    }
+    
+    /**
+     * Retourne la séquence de la source reflétée dans le réplica.
+     * 
+     * @return la séquence, 0 avant la première synchronisation réussie
+     */
+    public long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Retourne le nombre d'utilisateurs transférés par la dernière synchronisation.
+     * 
+     * @return le nombre d'utilisateurs transférés
+     */
+    public int getDerniersTransferts() {
+        return derniersTransferts;
+    }
+    
+    /**
+     * Compare deux répertoires par leurs arbres d'empreintes, en descendant niveau par
+     * niveau dans les seules plages qui diffèrent : un échange par niveau, de taille
+     * proportionnelle au nombre de différences.
+     * 
+     * @param a un répertoire
+     * @param b l'autre répertoire
+     * @return les IDs des utilisateurs qui diffèrent, par ordre croissant
+     */
+    public static int[] comparer(SourceSynchronisation a, SourceSynchronisation b) {
+        int[] noeuds = {0};
+        for (int niveau = ArbreEmpreintes.RACINE; niveau >= 1 && noeuds.length > 0; niveau--) {
+            long[] empreintesA = a.lireEmpreintes(niveau, noeuds);
+            long[] empreintesB = b.lireEmpreintes(niveau, noeuds);
+            int[] differents = new int[Math.min(empreintesA.length, 1024)];
+            int nombre = 0;
+            for (int i = 0; i < empreintesA.length; i++) {
+                if (empreintesA[i] != empreintesB[i]) {
+                    if (nombre == differents.length) {
+                        differents = Arrays.copyOf(differents, nombre * 2);
+                    }
+                    differents[nombre++] = noeuds[i / ArbreEmpreintes.ARITE] * ArbreEmpreintes.ARITE
+                            + i % ArbreEmpreintes.ARITE;
+                }
+            }
+            noeuds = Arrays.copyOf(differents, nombre);
+        }
+        return noeuds;
+    }
+    
+    private ResultatEcriture importer(LotModifications lot) {
+        ResultatEcriture resultat = replica.importer(lot.getModifications());
+        if (resultat.estSucces()) {
+            derniersTransferts += lot.getTaille();
+        }
+        return resultat;
+    }
+}
\ No newline at end of file
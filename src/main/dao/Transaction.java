@@ -0,0 +1,225 @@
+package main.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import main.model.DonneesUtilisateur;
+import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+
+/**
+ * Transaction sur les utilisateurs, en isolation par instantané.
+ * 
+ * Les lectures voient les données telles qu'elles étaient au démarrage de la transaction,
+ * plus ses propres écritures ; elles ne bloquent jamais et ne sont jamais bloquées.
+ * Les écritures sont gardées en attente jusqu'à {@link #valider()}, qui les applique
+ * toutes ou aucune. Si un utilisateur écrit a été modifié par un autre commit depuis
+ * le démarrage, la validation échoue avec CONFLIT (le premier commit gagne) et la
+ * transaction peut être rejouée.
+ * 
+ * Une transaction n'est pas partagée entre threads. Utilisée dans un try-with-resources,
+ * elle est annulée si elle n'a pas été validée.
+ */
+public class Transaction implements AutoCloseable {
+    private final UtilisateurDAO dao;
+    private final long instantane;
+    private final Map<Integer, Ecriture> ecritures;
+    /** Utilisateurs ajoutés par ID nouvellement attribué, à rendre si rien n'est validé. */
+    private final Map<Integer, Utilisateur> idsAttribues;
+    private boolean terminee;
+    
+    Transaction(UtilisateurDAO dao) {
+        this.dao = dao;
+        this.ecritures = new LinkedHashMap<>();
+        this.idsAttribues = new HashMap<>();
+        this.instantane = dao.ouvrirInstantane(this);
+    }
+    
+    /**
+     * Retourne l'horodatage de l'instantané lu par la transaction.
+     * 
+     * @return l'horodatage de l'instantané
+     */
+    public long getInstantane() {
+        return instantane;
+    }
+    
+    /**
+     * Récupère un utilisateur par son ID, en tenant compte des écritures de la transaction.
+     * 
+     * @param id l'ID de l'utilisateur à rechercher
+     * @return un Optional contenant l'utilisateur s'il est trouvé
+     */
+    public Optional<UtilisateurImmuable> trouverParId(int id) {
+        verifierActive();
+        Ecriture ecriture = ecritures.get(id);
+        if (ecriture != null) {
+            return Optional.ofNullable(ecriture.nouvelle);
+        }
+        return Optional.ofNullable(dao.lireInstantane(id, instantane));
+    }
+    
+    /**
+     * Récupère tous les utilisateurs, en tenant compte des écritures de la transaction.
+     * 
+     * @return la liste des utilisateurs, triés par ID
+     */
+    public List<UtilisateurImmuable> listerTous() {
+        verifierActive();
+        Map<Integer, UtilisateurImmuable> parId = new TreeMap<>();
+        for (UtilisateurImmuable utilisateur : dao.listerInstantane(instantane)) {
+            parId.put(utilisateur.getId(), utilisateur);
+        }
+        for (Ecriture ecriture : ecritures.values()) {
+            if (ecriture.nouvelle != null) {
+                parId.put(ecriture.id, ecriture.nouvelle);
+            } else {
+                parId.remove(ecriture.id);
+            }
+        }
+        return new ArrayList<>(parId.values());
+    }
+    
+    /**
+     * Ajoute un nouvel utilisateur lors de la validation. L'ID est attribué immédiatement
+     * et reporté sur la saisie, qui reçoit aussi sa version si la transaction est validée.
+     * 
+     * @param utilisateur l'utilisateur à ajouter
+     * @return true si l'ajout est enregistré, false si l'utilisateur est invalide ou existe déjà
+     */
+    public boolean ajouter(Utilisateur utilisateur) {
+        verifierActive();
+        if (utilisateur == null || !utilisateur.estValide()) {
+            return false;
+        }
+        boolean nouvelId = utilisateur.getId() == 0;
+        int id = dao.attribuerId(utilisateur);
+        if (trouverParId(id).isPresent()) {
+            return false;
+        }
+        if (nouvelId) {
+            idsAttribues.put(id, utilisateur);
+        }
+        ecritures.put(id, new Ecriture(id, utilisateur, utilisateur, true, UtilisateurDAO.VERSION_QUELCONQUE));
+        return true;
+    }
+    
+    /**
+     * Remplace un utilisateur lors de la validation. La saisie reçoit sa nouvelle
+     * version si la transaction est validée.
+     * 
+     * @param utilisateur l'utilisateur avec les nouvelles données
+     * @return true si la modification est enregistrée, false si l'utilisateur est invalide
+     *         ou n'existe pas dans l'instantané
+     */
+    public boolean modifier(Utilisateur utilisateur) {
+        return modifier(utilisateur, utilisateur);
+    }
+    
+    /**
+     * Remplace un utilisateur lors de la validation par une valeur dérivée d'une lecture,
+     * par exemple avec {@link UtilisateurImmuable#modifier()}.
+     * 
+     * @param utilisateur la nouvelle valeur de l'utilisateur
+     * @return true si la modification est enregistrée, false si l'utilisateur est invalide
+     *         ou n'existe pas dans l'instantané
+     */
+    public boolean modifier(UtilisateurImmuable utilisateur) {
+        return modifier(utilisateur, null);
+    }
+    
+    private boolean modifier(DonneesUtilisateur donnees, Utilisateur saisie) {
+        verifierActive();
+        if (donnees == null || !donnees.estValide() || trouverParId(donnees.getId()).isEmpty()) {
+            return false;
+        }
+        Ecriture precedente = ecritures.get(donnees.getId());
+        boolean insertion = precedente != null && precedente.insertion;
+        ecritures.put(donnees.getId(),
+                new Ecriture(donnees.getId(), donnees, saisie, insertion, UtilisateurDAO.VERSION_QUELCONQUE));
+        return true;
+    }
+    
+    /**
+     * Supprime un utilisateur lors de la validation.
+     * 
+     * @param id l'ID de l'utilisateur à supprimer
+     * @return true si la suppression est enregistrée, false si l'utilisateur n'existe pas
+     *         dans l'instantané
+     */
+    public boolean supprimer(int id) {
+        verifierActive();
+        if (trouverParId(id).isEmpty()) {
+            return false;
+        }
+        Ecriture precedente = ecritures.get(id);
+        if (precedente != null && precedente.insertion) {
+            // Ajouté puis supprimé dans la même transaction : rien à écrire
+            ecritures.remove(id);
+        } else {
+            ecritures.put(id, new Ecriture(id, null, null, false, UtilisateurDAO.VERSION_QUELCONQUE));
+        }
+        return true;
+    }
+    
+    /**
+     * Applique toutes les écritures de la transaction de façon atomique et la termine.
+     * 
+     * @return SUCCES, CONFLIT si un utilisateur écrit a été modifié depuis le démarrage,
+     *         INVALIDE si un utilisateur ajouté existe déjà, ou EMAIL_DEJA_UTILISE
+     */
+    public ResultatEcriture valider() {
+        verifierActive();
+        try {
+            if (ecritures.isEmpty()) {
+                return ResultatEcriture.SUCCES;
+            }
+            ResultatEcriture resultat = dao.appliquer(new ArrayList<>(ecritures.values()), instantane);
+            if (resultat.estSucces()) {
+                // Les IDs des ajouts enregistrés sont acquis ; seuls les autres sont rendus
+                idsAttribues.keySet().removeAll(ecritures.keySet());
+            }
+            return resultat;
+        } finally {
+            terminer();
+        }
+    }
+    
+    /**
+     * Abandonne les écritures de la transaction et la termine.
+     */
+    public void annuler() {
+        if (!terminee) {
+            terminer();
+        }
+    }
+    
+    /**
+     * Annule la transaction si elle n'a pas été validée.
+     */
+    @Override
+    public void close() {
+        annuler();
+    }
+    
+    private void terminer() {
+        terminee = true;
+        for (Map.Entry<Integer, Utilisateur> attribution : idsAttribues.entrySet()) {
+            dao.rendreId(attribution.getKey(), attribution.getValue());
+        }
+        idsAttribues.clear();
+        ecritures.clear();
+        dao.fermerInstantane(this);
+    }
+    
+    private void verifierActive() {
+        if (terminee) {
+            throw new IllegalStateException("Transaction terminée");
+        }
+    }
+}
\ No newline at end of file
@@ -1,25 +1,159 @@
 package main.dao;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import main.dao.ChaineVersions.Commit;
+import main.dao.ChaineVersions.Version;
+import main.model.CleRecherche;
+import main.model.DonneesUtilisateur;
 import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+import main.monitoring.EvenementOperationDAO;
 
 /**
  * Classe DAO (Data Access Object) pour gérer la persistance des utilisateurs.
  * Simule une base de données en mémoire.
+ * 
+ * Le stockage est sûr en accès concurrent et multi-versions (MVCC) : chaque
+ * utilisateur est une chaîne de versions rangée par ID dans une table triée
+ * concurrente, et l'unicité des emails est garantie par un index dédié, sans verrou global.
+ * 
+ * Les tables triées sont réparties en partitions selon un hachage de l'ID (une par cœur
+ * par défaut) : des IDs consécutifs, insérés en même temps, tombent dans des tables
+ * différentes au lieu de se disputer la fin d'une seule. Les parcours complets
+ * ({@link #listerTous()}, {@link #rechercherParNom(String)}) interrogent les partitions en
+ * parallèle puis fusionnent leurs résultats par ID ; les pages fusionnent les partitions
+ * au fil de la lecture. L'index des emails reste global pour garantir leur unicité.
+ * 
+ * Chaque utilisateur porte un numéro de version incrémenté à chaque modification.
+ * Les écritures conditionnelles ({@link #modifier(Utilisateur, long)},
+ * {@link #supprimer(int, long)}) sont des compare-and-set sur la chaîne de
+ * l'utilisateur : deux écritures sur des utilisateurs différents ne se bloquent jamais.
+ * 
+ * Les lectures de plusieurs utilisateurs et les {@link Transaction transactions} lisent
+ * un instantané cohérent : les écritures d'un même commit y apparaissent toutes ou pas
+ * du tout, et les lecteurs ne sont jamais bloqués par les écrivains.
+ * 
+ * Les utilisateurs retournés sont des {@link UtilisateurImmuable} partagés entre tous
+ * les lecteurs, sans copie : pour modifier un utilisateur, on en écrit une nouvelle valeur.
+ * 
+ * Pour la {@link Synchronisation synchronisation} entre instances, chaque utilisateur
+ * garde la séquence (horodatage du commit) de sa dernière écriture, suppressions
+ * comprises, et un arbre d'empreintes résume le contenu de chaque plage d'IDs.
  */
-public class UtilisateurDAO {
-    private List<Utilisateur> utilisateurs;
-    private int prochainId;
+public class UtilisateurDAO implements SourceSynchronisation {
+    /** Version attendue signifiant « quelle que soit la version courante ». */
+    public static final long VERSION_QUELCONQUE = -1;
+    
+    /** Nombre de partitions par défaut : une par cœur, arrondi à la puissance de deux supérieure. */
+    public static final int PARTITIONS_DEFAUT = Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+    
+    /** Instantané d'une écriture simple, hors transaction : pas de contrôle d'instantané. */
+    static final long SANS_INSTANTANE = -1;
+    /** Nombre d'utilisateurs à partir duquel les parcours complets sont parallélisés. */
+    private static final int SEUIL_PARALLELE = 2048;
+    /** Attentes actives d'une écriture sur un commit en cours avant de céder le processeur. */
+    private static final int ATTENTES_ACTIVES = 100;
+    /** Attentes par cession du processeur avant de suspendre le thread. */
+    private static final int ATTENTES_CEDEES = 100;
+    /** Durée maximale d'une suspension, en nanosecondes. */
+    private static final long SUSPENSION_MAX_NANOS = 1_000_000;
+    
+    /** Chaînes réparties par hachage de l'ID, chaque partition triée par ID. */
+    private final Partition[] partitions;
+    private final int masquePartitions;
+    /** Mêmes chaînes, adressées directement par ID pour les lectures ponctuelles. */
+    private final RepertoireIds repertoire;
+    private final ConcurrentHashMap<String, Integer> idsParEmail;
+    private final ConcurrentHashMap<Object, Long> instantanesActifs;
+    private final IndexNoms indexNoms;
+    private final Map<CritereTri, IndexTri> indexesTri;
+    private final AllocateurIds allocateurIds;
+    /** Horloge des commits : chaque commit validé prend la valeur suivante. */
+    private final AtomicLong horloge;
+    /** Empreintes du contenu par plage d'IDs, tenues à jour avec les index. */
+    private final ArbreEmpreintes empreintes;
+    /** Commits indexés au-delà de la séquence stable, en attendant les précédents. */
+    private final ConcurrentSkipListSet<Long> commitsIndexes;
+    /** Séquence jusqu'à laquelle tous les commits sont indexés. */
+    private final AtomicLong sequenceStable;
+    /** Moniteur signalé quand la séquence stable avance et qu'un export l'attend. */
+    private final Object indexationTerminee = new Object();
+    private final AtomicInteger exportsEnAttente = new AtomicInteger();
     
     /**
      * Constructeur qui initialise la liste des utilisateurs.
      */
     public UtilisateurDAO() {
-        this.utilisateurs = new ArrayList<>();
-        this.prochainId = 1;
+        this(new AllocateurIds());
+    }
+    
+    /**
+     * Constructeur qui initialise la liste des utilisateurs avec un allocateur d'IDs
+     * donné, par exemple persistant.
+     * 
+     * @param allocateurIds l'allocateur des IDs des nouveaux utilisateurs
+     */
+    public UtilisateurDAO(AllocateurIds allocateurIds) {
+        this(allocateurIds, PARTITIONS_DEFAUT);
+    }
+    
+    /**
+     * Constructeur qui précise le nombre de partitions du stockage.
+     * 
+     * @param allocateurIds l'allocateur des IDs des nouveaux utilisateurs
+     * @param nombrePartitions le nombre de partitions, arrondi à la puissance de deux supérieure
+     */
+    public UtilisateurDAO(AllocateurIds allocateurIds, int nombrePartitions) {
+        if (nombrePartitions < 1 || nombrePartitions > 1 << 16) {
+            throw new IllegalArgumentException("Nombre de partitions invalide : " + nombrePartitions);
+        }
+        this.partitions = new Partition[Integer.highestOneBit(nombrePartitions * 2 - 1)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition();
+        }
+        this.masquePartitions = partitions.length - 1;
+        this.repertoire = new RepertoireIds();
+        this.idsParEmail = new ConcurrentHashMap<>();
+        this.instantanesActifs = new ConcurrentHashMap<>();
+        this.indexNoms = new IndexNoms();
+        this.indexesTri = new EnumMap<>(CritereTri.class);
+        for (CritereTri critere : CritereTri.values()) {
+            // Le tri par ID suit directement l'ordre du stockage
+            if (critere != CritereTri.ID) {
+                indexesTri.put(critere, new IndexTri());
+            }
+        }
+        this.allocateurIds = allocateurIds;
+        this.horloge = new AtomicLong();
+        this.empreintes = new ArbreEmpreintes();
+        this.commitsIndexes = new ConcurrentSkipListSet<>();
+        this.sequenceStable = new AtomicLong();
         // Ajout de quelques utilisateurs de démonstration
         initialiserDonneesTest();
     }
@@ -28,34 +162,74 @@ public class UtilisateurDAO {
      * Initialise quelques utilisateurs de test.
      */
     private void initialiserDonneesTest() {
-        ajouter(new Utilisateur(prochainId++, "Dupont", "Jean", "jean.dupont@email.com", "Utilisateur"));
-        ajouter(new Utilisateur(prochainId++, "Martin", "Marie", "marie.martin@email.com", "Admin"));
-        ajouter(new Utilisateur(prochainId++, "Bernard", "Pierre", "pierre.bernard@email.com", "Utilisateur"));
+        ajouter(new Utilisateur(0, "Dupont", "Jean", "jean.dupont@email.com", "Utilisateur"));
+        ajouter(new Utilisateur(0, "Martin", "Marie", "marie.martin@email.com", "Admin"));
+        ajouter(new Utilisateur(0, "Bernard", "Pierre", "pierre.bernard@email.com", "Utilisateur"));
+    }
+    
+    /**
+     * Démarre une transaction qui lit un instantané des données pris maintenant.
+     * 
+     * @return la transaction, à valider ou annuler
+     */
+    public Transaction demarrerTransaction() {
+        return new Transaction(this);
     }
     
     /**
-     * Ajoute un nouvel utilisateur à la liste.
+     * Ajoute un nouvel utilisateur à la liste. L'ID attribué et la version enregistrée
+     * sont reportés sur la saisie.
      * 
      * @param utilisateur l'utilisateur à ajouter
      * @return true si l'ajout est réussi, false sinon
      */
     public boolean ajouter(Utilisateur utilisateur) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("ajouter");
+        boolean succes = ajouterSansTrace(utilisateur);
+        evenement.terminer(utilisateur != null ? utilisateur.getId() : 0, succes ? 1 : 0, succes);
+        return succes;
+    }
+    
+    private boolean ajouterSansTrace(Utilisateur utilisateur) {
         if (utilisateur == null || !utilisateur.estValide()) {
             return false;
         }
         
-        // Vérifier si l'email existe déjà
-        if (utilisateurs.stream().anyMatch(u -> u.getEmail().equalsIgnoreCase(utilisateur.getEmail()))) {
+        // Email déjà utilisé : échec immédiat, sans consommer d'ID
+        if (idsParEmail.containsKey(cleEmail(utilisateur.getEmail()))) {
             return false;
         }
         
-        // Assigner un ID si nécessaire
-        if (utilisateur.getId() == 0) {
-            utilisateur.setId(prochainId++);
+        boolean nouvelId = utilisateur.getId() == 0;
+        Ecriture ecriture = new Ecriture(attribuerId(utilisateur), utilisateur, utilisateur, true, VERSION_QUELCONQUE);
+        if (appliquer(List.of(ecriture), SANS_INSTANTANE).estSucces()) {
+            return true;
         }
-        
-        utilisateurs.add(utilisateur);
-        return true;
+        if (nouvelId) {
+            rendreId(ecriture.id, utilisateur);
+        }
+        return false;
+    }
+    
+    /**
+     * Réserve une plage d'IDs consécutifs pour un import en lot : les utilisateurs
+     * ajoutés avec ces IDs n'entrent pas en concurrence pour l'attribution. La partie
+     * inutilisée peut être rendue avec {@link #rendreIds(AllocateurIds.Plage)}.
+     * 
+     * @param nombre le nombre d'IDs à réserver
+     * @return la plage réservée
+     */
+    public AllocateurIds.Plage reserverIds(int nombre) {
+        return allocateurIds.reserver(nombre);
+    }
+    
+    /**
+     * Rend des IDs réservés mais jamais utilisés, pour qu'ils soient redistribués.
+     * 
+     * @param plage les IDs inutilisés
+     */
+    public void rendreIds(AllocateurIds.Plage plage) {
+        allocateurIds.rendre(plage);
     }
     
     /**
@@ -65,27 +239,71 @@ public class UtilisateurDAO {
      * @return true si la suppression est réussie, false sinon
      */
     public boolean supprimer(int id) {
-        return utilisateurs.removeIf(u -> u.getId() == id);
+        return supprimer(id, VERSION_QUELCONQUE).estSucces();
+    }
+    
+    /**
+     * Supprime un utilisateur seulement s'il est encore à la version attendue.
+     * 
+     * @param id l'ID de l'utilisateur à supprimer
+     * @param versionAttendue la version lue par l'appelant, ou {@link #VERSION_QUELCONQUE}
+     * @return SUCCES, CONFLIT si l'utilisateur a changé de version, ou INTROUVABLE
+     */
+    public ResultatEcriture supprimer(int id, long versionAttendue) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("supprimer");
+        Ecriture ecriture = new Ecriture(id, null, null, false, versionAttendue);
+        ResultatEcriture resultat = appliquer(List.of(ecriture), SANS_INSTANTANE);
+        evenement.terminer(id, resultat.estSucces() ? 1 : 0, resultat.estSucces());
+        return resultat;
     }
     
     /**
      * Met à jour un utilisateur existant.
+     * Échoue si le nouvel email appartient déjà à un autre utilisateur.
      * 
      * @param utilisateur l'utilisateur avec les nouvelles données
      * @return true si la mise à jour est réussie, false sinon
      */
     public boolean modifier(Utilisateur utilisateur) {
-        if (utilisateur == null || !utilisateur.estValide()) {
-            return false;
-        }
-        
-        for (int i = 0; i < utilisateurs.size(); i++) {
-            if (utilisateurs.get(i).getId() == utilisateur.getId()) {
-                utilisateurs.set(i, utilisateur);
-                return true;
-            }
+        return modifier(utilisateur, VERSION_QUELCONQUE).estSucces();
+    }
+    
+    /**
+     * Met à jour un utilisateur seulement s'il est encore à la version attendue.
+     * En cas de succès, l'utilisateur fourni reçoit la nouvelle version.
+     * 
+     * @param utilisateur l'utilisateur avec les nouvelles données
+     * @param versionAttendue la version lue par l'appelant, ou {@link #VERSION_QUELCONQUE}
+     * @return SUCCES, CONFLIT si l'utilisateur a changé de version, INTROUVABLE,
+     *         INVALIDE ou EMAIL_DEJA_UTILISE
+     */
+    public ResultatEcriture modifier(Utilisateur utilisateur, long versionAttendue) {
+        return modifier(utilisateur, utilisateur, versionAttendue);
+    }
+    
+    /**
+     * Remplace un utilisateur par une valeur dérivée d'une lecture (voir
+     * {@link UtilisateurImmuable#modifier()}), seulement s'il est encore à la version attendue.
+     * 
+     * @param utilisateur la nouvelle valeur de l'utilisateur
+     * @param versionAttendue la version lue par l'appelant, ou {@link #VERSION_QUELCONQUE}
+     * @return SUCCES, CONFLIT si l'utilisateur a changé de version, INTROUVABLE,
+     *         INVALIDE ou EMAIL_DEJA_UTILISE
+     */
+    public ResultatEcriture modifier(UtilisateurImmuable utilisateur, long versionAttendue) {
+        return modifier(utilisateur, null, versionAttendue);
+    }
+    
+    private ResultatEcriture modifier(DonneesUtilisateur donnees, Utilisateur saisie, long versionAttendue) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("modifier");
+        ResultatEcriture resultat = ResultatEcriture.INVALIDE;
+        if (donnees != null && donnees.estValide()) {
+            Ecriture ecriture = new Ecriture(donnees.getId(), donnees, saisie, false, versionAttendue);
+            resultat = appliquer(List.of(ecriture), SANS_INSTANTANE);
         }
-        return false;
+        evenement.terminer(donnees != null ? donnees.getId() : 0,
+                resultat.estSucces() ? 1 : 0, resultat.estSucces());
+        return resultat;
     }
     
     /**
@@ -94,10 +312,11 @@ public class UtilisateurDAO {
      * @param id l'ID de l'utilisateur à rechercher
      * @return un Optional contenant l'utilisateur s'il est trouvé
      */
-    public Optional<Utilisateur> trouverParId(int id) {
-        return utilisateurs.stream()
-                .filter(u -> u.getId() == id)
-                .findFirst();
+    public Optional<UtilisateurImmuable> trouverParId(int id) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("trouverParId");
+        Optional<UtilisateurImmuable> resultat = Optional.ofNullable(valeur(derniereValidee(id)));
+        evenement.terminer(id, resultat.isPresent() ? 1 : 0, resultat.isPresent());
+        return resultat;
     }
     
     /**
@@ -105,20 +324,299 @@ public class UtilisateurDAO {
      * 
      * @return la liste de tous les utilisateurs
      */
-    public List<Utilisateur> listerTous() {
-        return new ArrayList<>(utilisateurs);
+    public List<UtilisateurImmuable> listerTous() {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("listerTous");
+        List<UtilisateurImmuable> resultats = collecter(u -> true);
+        evenement.terminer(0, resultats.size(), true);
+        return resultats;
+    }
+    
+    /**
+     * Récupère une page d'utilisateurs, triés par ID.
+     * 
+     * @param debut l'index du premier utilisateur de la page
+     * @param taille le nombre maximal d'utilisateurs de la page
+     * @return la liste des utilisateurs de la page
+     */
+    public List<UtilisateurImmuable> listerPage(int debut, int taille) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("listerPage");
+        List<UtilisateurImmuable> resultats = selectionner(0, u -> true, Math.max(debut, 0), Math.max(taille, 0));
+        evenement.terminer(0, resultats.size(), true);
+        return resultats;
+    }
+    
+    /**
+     * Récupère les utilisateurs qui suivent un ID, triés par ID. Contrairement à
+     * {@link #listerPage(int, int)}, le coût ne dépend pas de la position de la page :
+     * on parcourt tout le stockage par pages successives en repartant du dernier ID lu.
+     * 
+     * @param idPrecedent le dernier ID de la page précédente (0 pour la première page)
+     * @param taille le nombre maximal d'utilisateurs de la page
+     * @return la liste des utilisateurs de la page
+     */
+    public List<UtilisateurImmuable> listerApres(int idPrecedent, int taille) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("listerApres");
+        List<UtilisateurImmuable> resultats = selectionner(idPrecedent, u -> true, 0, Math.max(taille, 0));
+        evenement.terminer(0, resultats.size(), true);
+        return resultats;
+    }
+    
+    /**
+     * Retourne les IDs de tous les utilisateurs, triés selon un critère (ordre croissant,
+     * départagé par ID). Les index triés sont tenus à jour à chaque écriture : la liste
+     * est obtenue par un simple parcours, sans comparaison, et un tri décroissant revient
+     * à la lire à l'envers.
+     * 
+     * @param critere le critère de tri
+     * @return les IDs triés
+     */
+    public int[] listerIdsTries(CritereTri critere) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("listerIdsTries");
+        int[] ids;
+        if (critere == CritereTri.ID) {
+            ids = new int[compter()];
+            int taille = 0;
+            for (Iterator<Map.Entry<Integer, ChaineVersions>> parcours = parcourir(0); parcours.hasNext();) {
+                Map.Entry<Integer, ChaineVersions> entree = parcours.next();
+                if (valeur(entree.getValue().derniereValidee()) == null) {
+                    continue;
+                }
+                if (taille == ids.length) {
+                    ids = Arrays.copyOf(ids, Math.max(16, taille * 2));
+                }
+                ids[taille++] = entree.getKey();
+            }
+            ids = Arrays.copyOf(ids, taille);
+        } else {
+            ids = indexesTri.get(critere).ids(compter());
+        }
+        evenement.terminer(0, ids.length, true);
+        return ids;
+    }
+    
+    /**
+     * Compte les utilisateurs enregistrés.
+     * 
+     * @return le nombre d'utilisateurs
+     */
+    public int compter() {
+        int nombre = 0;
+        for (Partition partition : partitions) {
+            nombre += partition.nombreUtilisateurs.get();
+        }
+        return nombre;
+    }
+    
+    /**
+     * Retourne la version des données, incrémentée à chaque ajout, modification
+     * ou suppression. Deux lectures qui renvoient la même version ont vu les mêmes données.
+     * 
+     * @return la version courante des données
+     */
+    public long getVersionDonnees() {
+        return horloge.get();
+    }
+    
+    @Override
+    public long getSequence() {
+        return sequenceStable.get();
+    }
+    
+    @Override
+    public long[] lireEmpreintes(int niveau, int[] noeuds) {
+        return empreintes.enfants(niveau, noeuds);
+    }
+    
+    @Override
+    public LotModifications lire(int[] ids) {
+        Object lecteur = new Object();
+        long instantane = ouvrirInstantane(lecteur);
+        try {
+            List<Modification> modifications = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                ChaineVersions chaine = repertoire.lire(id);
+                Version version = chaine != null ? chaine.visible(instantane) : null;
+                modifications.add(version != null
+                        ? new Modification(id, version.commit.horodatage, version.valeur)
+                        : new Modification(id, 0, null));
+            }
+            return new LotModifications(instantane, modifications);
+        } finally {
+            fermerInstantane(lecteur);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Seuls les utilisateurs dont la dernière écriture suit la séquence sont parcourus,
+     * grâce à l'index des dernières écritures par séquence.
+     */
+    @Override
+    public LotModifications exporterDepuis(long sequence) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("exporterDepuis");
+        Object lecteur = new Object();
+        long instantane = ouvrirInstantane(lecteur);
+        try {
+            // Les commits visibles dans l'instantané doivent tous être indexés
+            attendreIndexation(instantane);
+            List<Modification> modifications = new ArrayList<>();
+            Set<Integer> vus = new HashSet<>();
+            // Une marque postérieure à l'instantané peut masquer une écriture antérieure
+            // du même utilisateur : on lit toutes les marques après la séquence
+            for (Partition partition : partitions) {
+                for (Marque marque : partition.marques.tailSet(new Marque(sequence, Integer.MAX_VALUE), false)) {
+                    Version version = repertoire.lire(marque.id).visible(instantane);
+                    if (version == null || version.commit.horodatage <= sequence
+                            || (sequence == 0 && version.valeur == null) || !vus.add(marque.id)) {
+                        continue;
+                    }
+                    modifications.add(new Modification(marque.id, version.commit.horodatage, version.valeur));
+                }
+            }
+            evenement.terminer(0, modifications.size(), true);
+            return new LotModifications(instantane, modifications);
+        } finally {
+            fermerInstantane(lecteur);
+        }
+    }
+    
+    /**
+     * Applique des modifications venues d'un autre répertoire, en un seul commit : les
+     * utilisateurs sont créés, remplacés ou supprimés avec les IDs d'origine, et ceux
+     * déjà identiques sont ignorés.
+     * 
+     * @param modifications les modifications, par exemple d'un {@link LotModifications}
+     * @return SUCCES, EMAIL_DEJA_UTILISE si un email appartient à un autre utilisateur
+     *         local, ou CONFLIT/INVALIDE/INTROUVABLE si une écriture locale concurrente
+     *         a touché les mêmes utilisateurs
+     */
+    public ResultatEcriture importer(Collection<Modification> modifications) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("importer");
+        Map<Integer, Ecriture> ecritures = new LinkedHashMap<>();
+        for (Modification modification : modifications) {
+            int id = modification.getId();
+            UtilisateurImmuable courant = valeur(derniereValidee(id));
+            UtilisateurImmuable importe = modification.getUtilisateur();
+            if (id <= 0 || ArbreEmpreintes.empreinte(courant) == ArbreEmpreintes.empreinte(importe)) {
+                ecritures.remove(id);
+                continue;
+            }
+            if (courant == null) {
+                allocateurIds.signalerUtilise(id);
+            }
+            ecritures.put(id, new Ecriture(id, importe, null, courant == null, VERSION_QUELCONQUE));
+        }
+        ResultatEcriture resultat = ecritures.isEmpty() ? ResultatEcriture.SUCCES
+                : appliquer(new ArrayList<>(ecritures.values()), SANS_INSTANTANE);
+        evenement.terminer(0, resultat.estSucces() ? ecritures.size() : 0, resultat.estSucces());
+        return resultat;
     }
     
     /**
-     * Recherche des utilisateurs par nom.
+     * Recherche des utilisateurs par nom, sans tenir compte de la casse ni des accents.
      * 
      * @param nom le nom à rechercher
      * @return la liste des utilisateurs correspondants
      */
-    public List<Utilisateur> rechercherParNom(String nom) {
-        return utilisateurs.stream()
-                .filter(u -> u.getNom().toLowerCase().contains(nom.toLowerCase()))
-                .toList();
+    public List<UtilisateurImmuable> rechercherParNom(String nom) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("rechercherParNom");
+        String cle = CleRecherche.normaliser(nom);
+        List<UtilisateurImmuable> resultats = collecter(u -> u.getNomCle().contains(cle));
+        evenement.terminer(0, resultats.size(), true);
+        return resultats;
+    }
+    
+    /**
+     * Recherche les meilleurs utilisateurs pour un nom, sans tenir compte de la casse ni
+     * des accents. Les résultats sont classés : nom identique, puis nom commençant par la
+     * recherche, puis nom la contenant ; à rang égal, par nom puis par ID.
+     * 
+     * Les noms sont parcourus dans l'ordre du classement via l'index trié des noms, et le
+     * parcours s'arrête dès que les {@code limite} meilleurs résultats sont certains : une
+     * recherche large ne coûte que O(limite) en mémoire.
+     * 
+     * @param nom le nom à rechercher
+     * @param limite le nombre maximal de résultats
+     * @return les meilleurs utilisateurs, du mieux classé au moins bien classé
+     */
+    public List<UtilisateurImmuable> rechercherParNom(String nom, int limite) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("rechercherParNomClasse");
+        String cle = CleRecherche.normaliser(nom);
+        MeilleursResultats meilleurs = new MeilleursResultats(limite);
+        
+        // Le nom identique est le premier de la plage des préfixes
+        boolean suite = collecter(meilleurs, indexNoms.parPrefixe(cle), cle, true);
+        if (suite) {
+            collecter(meilleurs, indexNoms.tous(), cle, false);
+        }
+        
+        List<UtilisateurImmuable> resultats = meilleurs.trier();
+        evenement.terminer(0, resultats.size(), true);
+        return resultats;
+    }
+    
+    /**
+     * Propose aux meilleurs résultats les utilisateurs des noms parcourus, dans l'ordre.
+     * 
+     * @param prefixes vrai pour la plage des noms commençant par la clé, faux pour les noms
+     *                 qui la contiennent ailleurs qu'au début
+     * @return faux si le parcours s'est arrêté parce qu'aucun nom suivant ne peut plus entrer
+     */
+    private boolean collecter(MeilleursResultats meilleurs, Map<String, Set<Integer>> noms, String cle,
+                              boolean prefixes) {
+        for (Map.Entry<String, Set<Integer>> entree : noms.entrySet()) {
+            String nomCle = entree.getKey();
+            int rang;
+            if (prefixes) {
+                rang = nomCle.equals(cle) ? MeilleursResultats.RANG_EXACT : MeilleursResultats.RANG_PREFIXE;
+            } else if (!nomCle.startsWith(cle) && nomCle.contains(cle)) {
+                rang = MeilleursResultats.RANG_SOUS_CHAINE;
+            } else {
+                continue;
+            }
+            if (!meilleurs.peutEntrer(rang, nomCle)) {
+                return false;
+            }
+            for (int id : entree.getValue()) {
+                // L'index peut être en retard sur un commit : ne garder que les noms encore à jour
+                UtilisateurImmuable utilisateur = valeur(derniereValidee(id));
+                if (utilisateur != null && nomCle.equals(utilisateur.getNomCle())) {
+                    meilleurs.proposer(rang, utilisateur);
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Recherche des utilisateurs dont le nom est proche de celui donné, à quelques fautes
+     * de frappe près : au plus {@code distanceMax} lettres insérées, supprimées ou remplacées,
+     * sans tenir compte de la casse ni des accents.
+     * 
+     * @param nom le nom à rechercher
+     * @param distanceMax la distance d'édition maximale
+     * @return les utilisateurs correspondants, du plus proche au plus éloigné, puis par nom et ID
+     */
+    public List<UtilisateurImmuable> rechercherParNomApproche(String nom, int distanceMax) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("rechercherParNomApproche");
+        String cle = CleRecherche.normaliser(nom);
+        // Regroupés par distance, déjà calculée par l'index : seul l'ordre dans un groupe reste à trier
+        NavigableMap<Integer, List<UtilisateurImmuable>> parDistance = new TreeMap<>();
+        for (IndexNoms.Correspondance correspondance : indexNoms.rechercher(cle, distanceMax)) {
+            // L'index peut être en retard sur un commit : ne garder que les noms encore à jour
+            UtilisateurImmuable utilisateur = valeur(derniereValidee(correspondance.id));
+            if (utilisateur != null && utilisateur.getNomCle().equals(correspondance.nomCle)) {
+                parDistance.computeIfAbsent(correspondance.distance, d -> new ArrayList<>()).add(utilisateur);
+            }
+        }
+        List<UtilisateurImmuable> resultats = new ArrayList<>();
+        for (List<UtilisateurImmuable> groupe : parDistance.values()) {
+            groupe.sort(Comparator.comparing(UtilisateurImmuable::getNom).thenComparingInt(UtilisateurImmuable::getId));
+            resultats.addAll(groupe);
+        }
+        evenement.terminer(0, resultats.size(), true);
+        return resultats;
     }
     
     /**
@@ -127,9 +625,566 @@ public class UtilisateurDAO {
      * @param email l'email à rechercher
      * @return la liste des utilisateurs correspondants
      */
-    public List<Utilisateur> rechercherParEmail(String email) {
-        return utilisateurs.stream()
-                .filter(u -> u.getEmail().equalsIgnoreCase(email))
-                .toList();
+    public List<UtilisateurImmuable> rechercherParEmail(String email) {
+        EvenementOperationDAO evenement = EvenementOperationDAO.debuter("rechercherParEmail");
+        Integer id = email != null ? idsParEmail.get(cleEmail(email)) : null;
+        UtilisateurImmuable utilisateur = id != null ? valeur(derniereValidee(id)) : null;
+        List<UtilisateurImmuable> resultats = utilisateur != null ? List.of(utilisateur) : List.of();
+        evenement.terminer(0, resultats.size(), true);
+        return resultats;
+    }
+    
+    /**
+     * Parcourt, dans l'ordre des IDs et à partir d'un ID exclu, un instantané pris au
+     * début du parcours. Les partitions sont fusionnées au fil de la lecture : une page
+     * ne lit que ce qu'elle retourne.
+     */
+    private List<UtilisateurImmuable> selectionner(int idPrecedent, Predicate<UtilisateurImmuable> filtre,
+                                           int debut, int taille) {
+        Object lecteur = new Object();
+        long instantane = ouvrirInstantane(lecteur);
+        try {
+            List<UtilisateurImmuable> resultats = new ArrayList<>();
+            int ignores = 0;
+            for (Iterator<Map.Entry<Integer, ChaineVersions>> parcours = parcourir(idPrecedent);
+                 parcours.hasNext() && resultats.size() < taille;) {
+                UtilisateurImmuable utilisateur = valeur(parcours.next().getValue().visible(instantane));
+                if (utilisateur == null || !filtre.test(utilisateur)) {
+                    continue;
+                }
+                if (ignores < debut) {
+                    ignores++;
+                } else {
+                    resultats.add(utilisateur);
+                }
+            }
+            return resultats;
+        } finally {
+            fermerInstantane(lecteur);
+        }
+    }
+    
+    /**
+     * Sélectionne tous les utilisateurs qui vérifient un filtre dans un instantané pris
+     * maintenant, en répartissant le parcours des partitions entre les cœurs.
+     */
+    private List<UtilisateurImmuable> collecter(Predicate<UtilisateurImmuable> filtre) {
+        Object lecteur = new Object();
+        long instantane = ouvrirInstantane(lecteur);
+        try {
+            return collecter(instantane, filtre);
+        } finally {
+            fermerInstantane(lecteur);
+        }
+    }
+    
+    /**
+     * Parcourt chaque partition séparément, en parallèle au-delà de {@value #SEUIL_PARALLELE}
+     * utilisateurs, puis fusionne les résultats partiels, déjà triés, dans l'ordre des IDs.
+     */
+    private List<UtilisateurImmuable> collecter(long instantane, Predicate<UtilisateurImmuable> filtre) {
+        IntStream indices = IntStream.range(0, partitions.length);
+        if (partitions.length > 1 && compter() >= SEUIL_PARALLELE) {
+            indices = indices.parallel();
+        }
+        List<Iterator<UtilisateurImmuable>> partiels = indices
+                .mapToObj(i -> partitions[i].selectionner(instantane, filtre).iterator())
+                .collect(Collectors.toList());
+        List<UtilisateurImmuable> resultats = new ArrayList<>();
+        FusionTriee.fusionner(partiels, UtilisateurImmuable::getId).forEachRemaining(resultats::add);
+        return resultats;
+    }
+    
+    /**
+     * Parcourt les chaînes de toutes les partitions dans l'ordre des IDs, après un ID exclu.
+     */
+    private Iterator<Map.Entry<Integer, ChaineVersions>> parcourir(int idPrecedent) {
+        List<Iterator<Map.Entry<Integer, ChaineVersions>>> parcours = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            parcours.add(partition.chaines.tailMap(idPrecedent, false).entrySet().iterator());
+        }
+        return FusionTriee.fusionner(parcours, Map.Entry::getKey);
+    }
+    
+    /**
+     * Retourne la partition d'un ID : hachage de Fibonacci, qui disperse les IDs consécutifs.
+     */
+    private Partition partition(int id) {
+        return partitions[((id * 0x9E3779B9) >>> 16) & masquePartitions];
+    }
+    
+    private Version derniereValidee(int id) {
+        ChaineVersions chaine = repertoire.lire(id);
+        return chaine != null ? chaine.derniereValidee() : null;
+    }
+    
+    private static UtilisateurImmuable valeur(Version version) {
+        return version != null ? version.valeur : null;
+    }
+    
+    /**
+     * Enregistre un lecteur actif : les versions lisibles depuis son instantané ne seront
+     * pas élaguées avant {@link #fermerInstantane(Object)}.
+     * 
+     * @param lecteur l'objet identifiant le lecteur
+     * @return l'horodatage de l'instantané
+     */
+    long ouvrirInstantane(Object lecteur) {
+        while (true) {
+            long instantane = horloge.get();
+            instantanesActifs.put(lecteur, instantane);
+            // Un commit passé entre la lecture de l'horloge et l'enregistrement a pu
+            // élaguer sans voir ce lecteur : recommencer avec l'horloge à jour
+            if (horloge.get() == instantane) {
+                return instantane;
+            }
+        }
+    }
+    
+    void fermerInstantane(Object lecteur) {
+        instantanesActifs.remove(lecteur);
+    }
+    
+    /**
+     * Lit un utilisateur tel qu'il était à un instantané.
+     */
+    UtilisateurImmuable lireInstantane(int id, long instantane) {
+        ChaineVersions chaine = repertoire.lire(id);
+        return chaine != null ? valeur(chaine.visible(instantane)) : null;
+    }
+    
+    /**
+     * Liste les utilisateurs tels qu'ils étaient à un instantané.
+     */
+    List<UtilisateurImmuable> listerInstantane(long instantane) {
+        return collecter(instantane, u -> true);
+    }
+    
+    /**
+     * Assigne un ID à un nouvel utilisateur si nécessaire. L'ID est reporté sur la saisie.
+     * 
+     * @return l'ID de l'utilisateur
+     */
+    int attribuerId(Utilisateur utilisateur) {
+        if (utilisateur.getId() != 0) {
+            allocateurIds.signalerUtilise(utilisateur.getId());
+            return utilisateur.getId();
+        }
+        int id = allocateurIds.allouer();
+        utilisateur.setId(id);
+        return id;
+    }
+    
+    /**
+     * Rend un ID attribué à un utilisateur qui n'a pas été enregistré ; la saisie perd
+     * cet ID, qui peut désormais en désigner un autre.
+     */
+    void rendreId(int id, Utilisateur utilisateur) {
+        if (utilisateur.getId() == id) {
+            utilisateur.setId(0);
+        }
+        allocateurIds.rendre(id);
+    }
+    
+    /**
+     * Applique des écritures de façon atomique.
+     * 
+     * Les nouvelles versions sont d'abord installées, invisibles, en tête de leurs chaînes,
+     * puis les nouveaux emails sont réservés. La publication de l'horodatage du commit rend
+     * ensuite toutes les versions visibles d'un coup. Au moindre échec, tout est défait.
+     * 
+     * @param ecritures les écritures, au plus une par utilisateur
+     * @param instantane l'instantané lu par la transaction : conflit si un utilisateur écrit
+     *                   a été validé depuis (le premier commit gagne) ; SANS_INSTANTANE pour
+     *                   une écriture simple
+     * @return le résultat du commit
+     */
+    ResultatEcriture appliquer(List<Ecriture> ecritures, long instantane) {
+        if (instantane == SANS_INSTANTANE && ecritures.size() > 1) {
+            // Sans instantané, une écriture attend les commits en cours sur son utilisateur
+            // en gardant les versions déjà installées : installer dans l'ordre des IDs
+            // exclut toute attente circulaire entre deux lots
+            ecritures = new ArrayList<>(ecritures);
+            ecritures.sort(Comparator.comparingInt(ecriture -> ecriture.id));
+        }
+        Commit commit = new Commit();
+        List<Installation> installations = new ArrayList<>(ecritures.size());
+        List<Reservation> reservations = new ArrayList<>();
+        
+        ResultatEcriture resultat = ResultatEcriture.SUCCES;
+        for (Ecriture ecriture : ecritures) {
+            resultat = installer(ecriture, commit, instantane, installations);
+            if (!resultat.estSucces()) {
+                break;
+            }
+        }
+        if (resultat.estSucces()) {
+            resultat = reserverEmails(installations, reservations);
+        }
+        if (!resultat.estSucces()) {
+            annuler(commit, installations, reservations);
+            return resultat;
+        }
+        
+        // Publication : toutes les versions du commit deviennent visibles ensemble
+        commit.horodatageEnCours = true;
+        commit.horodatage = horloge.incrementAndGet();
+        
+        long plusAncien = plusAncienInstantane();
+        for (Installation installation : installations) {
+            if (installation.libereEmail()) {
+                idsParEmail.remove(installation.avant.getEmailMinuscule(), installation.id);
+            }
+            if (installation.avant == null) {
+                partition(installation.id).nombreUtilisateurs.incrementAndGet();
+            } else if (installation.version.valeur == null) {
+                partition(installation.id).nombreUtilisateurs.decrementAndGet();
+            }
+            installation.chaine.elaguer(plusAncien);
+            indexer(installation.chaine, installation.id);
+        }
+        terminerIndexation(commit.horodatage);
+        
+        // Les saisies ne reçoivent leur version qu'une fois le commit acquis
+        for (int i = 0; i < ecritures.size(); i++) {
+            Utilisateur saisie = ecritures.get(i).saisie;
+            if (saisie != null) {
+                saisie.setVersion(installations.get(i).version.valeur.getVersion());
+            }
+        }
+        return ResultatEcriture.SUCCES;
+    }
+    
+    /**
+     * Fait avancer la séquence stable : les commits finissent dans le désordre, elle ne
+     * passe un commit que lorsque tous les précédents sont indexés aussi.
+     */
+    private void terminerIndexation(long horodatage) {
+        commitsIndexes.add(horodatage);
+        long stable = sequenceStable.get();
+        // Un seul thread retire stable + 1, et il est le seul à pouvoir avancer la séquence
+        while (commitsIndexes.remove(stable + 1)) {
+            sequenceStable.set(++stable);
+        }
+        // La séquence est publiée avant la lecture du compteur : un export qui s'inscrit
+        // après cette lecture voit la nouvelle séquence sans avoir à être réveillé
+        if (exportsEnAttente.get() > 0) {
+            synchronized (indexationTerminee) {
+                indexationTerminee.notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Attend que tous les commits jusqu'à un horodatage soient indexés. L'attente ne
+     * couvre que des commits déjà publiés, qui finissent leur indexation sans rien
+     * attendre ; une interruption est donc reportée à la fin de l'attente.
+     */
+    private void attendreIndexation(long horodatage) {
+        if (sequenceStable.get() >= horodatage) {
+            return;
+        }
+        boolean interrompu = false;
+        exportsEnAttente.incrementAndGet();
+        try {
+            synchronized (indexationTerminee) {
+                while (sequenceStable.get() < horodatage) {
+                    try {
+                        indexationTerminee.wait();
+                    } catch (InterruptedException e) {
+                        interrompu = true;
+                    }
+                }
+            }
+        } finally {
+            exportsEnAttente.decrementAndGet();
+            if (interrompu) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Met les index secondaires (noms, tris, empreintes, séquences) en accord avec la dernière version validée
+     * d'un utilisateur. Les mises à jour d'un même utilisateur sont sérialisées par sa
+     * chaîne : la dernière exécutée lit l'état le plus récent, même si deux commits
+     * finissent dans le désordre.
+     */
+    private void indexer(ChaineVersions chaine, int id) {
+        synchronized (chaine) {
+            Version derniere = chaine.derniereValidee();
+            UtilisateurImmuable courant = valeur(derniere);
+            UtilisateurImmuable ancien = chaine.indexe;
+            if (courant == ancien) {
+                return;
+            }
+            
+            // Nouvelle marque avant le retrait de l'ancienne : un export concurrent voit
+            // l'utilisateur au moins une fois
+            long sequence = derniere.commit.horodatage;
+            ConcurrentSkipListSet<Marque> marques = partition(id).marques;
+            marques.add(new Marque(sequence, id));
+            if (chaine.sequenceIndexee > 0) {
+                marques.remove(new Marque(chaine.sequenceIndexee, id));
+            }
+            chaine.sequenceIndexee = sequence;
+            empreintes.remplacer(id, ancien, courant);
+            
+            String ancienNom = ancien != null ? ancien.getNomCle() : null;
+            String nouveauNom = courant != null ? courant.getNomCle() : null;
+            if (!Objects.equals(ancienNom, nouveauNom)) {
+                if (ancienNom != null) {
+                    indexNoms.retirer(ancienNom, id);
+                }
+                if (nouveauNom != null) {
+                    indexNoms.ajouter(nouveauNom, id);
+                }
+            }
+            
+            for (Map.Entry<CritereTri, IndexTri> index : indexesTri.entrySet()) {
+                String ancienneCle = ancien != null ? index.getKey().cle(ancien) : null;
+                String nouvelleCle = courant != null ? index.getKey().cle(courant) : null;
+                if (!Objects.equals(ancienneCle, nouvelleCle)) {
+                    if (ancienneCle != null) {
+                        index.getValue().retirer(ancienneCle, id);
+                    }
+                    if (nouvelleCle != null) {
+                        index.getValue().ajouter(nouvelleCle, id);
+                    }
+                }
+            }
+            chaine.indexe = courant;
+        }
+    }
+    
+    /**
+     * Attend la fin d'un commit en cours : d'abord activement, le commit étant souvent
+     * sur le point d'être publié, puis en cédant le processeur, puis en suspendant le
+     * thread de plus en plus longtemps. Quand les écrivains sont plus nombreux que les
+     * cœurs, le commit attendu peut ne pas avoir de cœur pour se terminer.
+     * 
+     * @param attentes le nombre d'attentes déjà faites pour ce commit
+     */
+    private static void attendreCommit(int attentes) {
+        if (attentes < ATTENTES_ACTIVES) {
+            Thread.onSpinWait();
+        } else if (attentes < ATTENTES_ACTIVES + ATTENTES_CEDEES) {
+            Thread.yield();
+        } else {
+            int suspensions = Math.min(attentes - ATTENTES_ACTIVES - ATTENTES_CEDEES, 10);
+            LockSupport.parkNanos(Math.min(1_000L << suspensions, SUSPENSION_MAX_NANOS));
+        }
+    }
+    
+    /**
+     * Installe la version d'une écriture en tête de la chaîne de l'utilisateur.
+     */
+    private ResultatEcriture installer(Ecriture ecriture, Commit commit, long instantane,
+                                       List<Installation> installations) {
+        ChaineVersions chaine = repertoire.lire(ecriture.id);
+        if (chaine == null) {
+            if (!ecriture.insertion) {
+                return ResultatEcriture.INTROUVABLE;
+            }
+            if (ecriture.id <= 0) {
+                return ResultatEcriture.INVALIDE;
+            }
+            // Le répertoire désigne la chaîne de l'ID ; l'index ordonné reçoit la même
+            chaine = repertoire.placerSiAbsente(ecriture.id, new ChaineVersions(null));
+            partition(ecriture.id).chaines.putIfAbsent(ecriture.id, chaine);
+        }
+        
+        int attentes = 0;
+        while (true) {
+            Version tete = chaine.tete();
+            if (tete != null) {
+                long horodatage = tete.commit.horodatageStable();
+                if (horodatage <= 0) {
+                    // Autre commit en cours sur cet utilisateur : une écriture sans instantané
+                    // attend qu'il se termine (un lot installe dans l'ordre des IDs, l'attente
+                    // ne peut donc pas boucler) ; une transaction abandonne
+                    if (instantane == SANS_INSTANTANE) {
+                        attendreCommit(attentes++);
+                        continue;
+                    }
+                    return ResultatEcriture.CONFLIT;
+                }
+                if (instantane != SANS_INSTANTANE && horodatage > instantane) {
+                    return ResultatEcriture.CONFLIT;
+                }
+            }
+            
+            UtilisateurImmuable courant = valeur(tete);
+            if (ecriture.insertion && courant != null) {
+                return ResultatEcriture.INVALIDE;
+            }
+            if (!ecriture.insertion && courant == null) {
+                return ResultatEcriture.INTROUVABLE;
+            }
+            if (ecriture.versionAttendue != VERSION_QUELCONQUE && courant.getVersion() != ecriture.versionAttendue) {
+                return ResultatEcriture.CONFLIT;
+            }
+            
+            UtilisateurImmuable valeur = null;
+            if (ecriture.nouvelle != null) {
+                long version = courant != null ? courant.getVersion() + 1 : 1;
+                valeur = ecriture.nouvelle.modifier().version(version).construire();
+            }
+            Version nouvelle = new Version(valeur, commit, tete);
+            if (chaine.installer(tete, nouvelle)) {
+                installations.add(new Installation(ecriture.id, chaine, nouvelle, courant));
+                return ResultatEcriture.SUCCES;
+            }
+        }
+    }
+    
+    /**
+     * Réserve les nouveaux emails des versions installées. Un email libéré par une autre
+     * écriture du même commit peut être repris, ce qui permet d'échanger deux emails.
+     */
+    private ResultatEcriture reserverEmails(List<Installation> installations, List<Reservation> reservations) {
+        Set<String> liberes = new HashSet<>();
+        for (Installation installation : installations) {
+            if (installation.libereEmail()) {
+                liberes.add(installation.avant.getEmailMinuscule());
+            }
+        }
+        
+        for (Installation installation : installations) {
+            UtilisateurImmuable apres = installation.version.valeur;
+            if (apres == null || !installation.changeEmail()) {
+                continue;
+            }
+            String cle = apres.getEmailMinuscule();
+            Integer detenteur = idsParEmail.putIfAbsent(cle, installation.id);
+            if (detenteur == null) {
+                reservations.add(new Reservation(cle, installation.id, null));
+            } else if (liberes.contains(cle) && idsParEmail.replace(cle, detenteur, installation.id)) {
+                reservations.add(new Reservation(cle, installation.id, detenteur));
+            } else {
+                return ResultatEcriture.EMAIL_DEJA_UTILISE;
+            }
+        }
+        return ResultatEcriture.SUCCES;
+    }
+    
+    private void annuler(Commit commit, List<Installation> installations, List<Reservation> reservations) {
+        commit.horodatage = Commit.ANNULE;
+        for (int i = reservations.size() - 1; i >= 0; i--) {
+            Reservation reservation = reservations.get(i);
+            if (reservation.detenteurPrecedent == null) {
+                idsParEmail.remove(reservation.cle, reservation.id);
+            } else {
+                idsParEmail.replace(reservation.cle, reservation.id, reservation.detenteurPrecedent);
+            }
+        }
+        for (Installation installation : installations) {
+            installation.chaine.desinstaller(installation.version);
+        }
+    }
+    
+    /**
+     * Retourne l'instantané du plus ancien lecteur actif, ou l'horloge s'il n'y en a pas.
+     */
+    private long plusAncienInstantane() {
+        long plusAncien = horloge.get();
+        for (long instantane : instantanesActifs.values()) {
+            plusAncien = Math.min(plusAncien, instantane);
+        }
+        return plusAncien;
+    }
+    
+    /**
+     * Normalise un email pour l'index d'unicité (insensible à la casse).
+     */
+    private static String cleEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Version installée par un commit en cours.
+     */
+    private static final class Installation {
+        final int id;
+        final ChaineVersions chaine;
+        final Version version;
+        /** Utilisateur remplacé, ou null pour une insertion. */
+        final UtilisateurImmuable avant;
+        
+        Installation(int id, ChaineVersions chaine, Version version, UtilisateurImmuable avant) {
+            this.id = id;
+            this.chaine = chaine;
+            this.version = version;
+            this.avant = avant;
+        }
+        
+        boolean changeEmail() {
+            UtilisateurImmuable apres = version.valeur;
+            return avant == null || apres == null || !avant.getEmailMinuscule().equals(apres.getEmailMinuscule());
+        }
+        
+        boolean libereEmail() {
+            return avant != null && changeEmail();
+        }
+    }
+    
+    /**
+     * Partition du stockage : chaînes triées par ID, compteur et dernières écritures de
+     * ses utilisateurs. Les écritures ne touchent que la partition de leur utilisateur.
+     */
+    private static final class Partition {
+        final ConcurrentSkipListMap<Integer, ChaineVersions> chaines = new ConcurrentSkipListMap<>();
+        final AtomicInteger nombreUtilisateurs = new AtomicInteger();
+        /** Dernière écriture indexée de chaque utilisateur, ordonnée par séquence. */
+        final ConcurrentSkipListSet<Marque> marques = new ConcurrentSkipListSet<>();
+        
+        /**
+         * Sélectionne les utilisateurs de la partition visibles dans un instantané, par ID.
+         */
+        List<UtilisateurImmuable> selectionner(long instantane, Predicate<UtilisateurImmuable> filtre) {
+            List<UtilisateurImmuable> resultats = new ArrayList<>();
+            for (ChaineVersions chaine : chaines.values()) {
+                UtilisateurImmuable utilisateur = valeur(chaine.visible(instantane));
+                if (utilisateur != null && filtre.test(utilisateur)) {
+                    resultats.add(utilisateur);
+                }
+            }
+            return resultats;
+        }
+    }
+    
+    /**
+     * Dernière écriture indexée d'un utilisateur, ordonnée par séquence puis par ID.
+     */
+    private static final class Marque implements Comparable<Marque> {
+        final long sequence;
+        final int id;
+        
+        Marque(long sequence, int id) {
+            this.sequence = sequence;
+            this.id = id;
+        }
+        
+        @Override
+        public int compareTo(Marque autre) {
+            int comparaison = Long.compare(sequence, autre.sequence);
+            return comparaison != 0 ? comparaison : Integer.compare(id, autre.id);
+        }
+    }
+    
+    /**
+     * Email réservé par un commit en cours, à rendre en cas d'annulation.
+     */
+    private static final class Reservation {
+        final String cle;
+        final int id;
+        /** ID qui détenait l'email avant un échange, ou null. */
+        final Integer detenteurPrecedent;
+        
+        Reservation(String cle, int id, Integer detenteurPrecedent) {
+            this.cle = cle;
+            this.id = id;
+            this.detenteurPrecedent = detenteurPrecedent;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package main.model;
+
+import java.text.Normalizer;
+
+/**
+ * Normalisation des textes pour la recherche : insensible à la casse et aux accents.
+ * 
+ * « Béatrice », « BEATRICE » et « beatrice » ont la même clé. La décomposition
+ * Unicode (NFD) sépare chaque lettre accentuée de ses accents, qui sont ensuite
+ * retirés ; les ligatures françaises (œ, æ) et ß sont développées.
+ */
+public final class CleRecherche {
+    
+    private CleRecherche() {
+    }
+    
+    /**
+     * Calcule la clé de recherche d'un texte.
+     * 
+     * @param texte le texte à normaliser (peut être null)
+     * @return la clé, sans accents et en minuscules ; null si le texte est null
+     */
+    public static String normaliser(String texte) {
+        if (texte == null) {
+            return null;
+        }
+        if (estDejaNormalise(texte)) {
+            return texte;
+        }
+        
+        String decompose = Normalizer.normalize(texte, Normalizer.Form.NFD);
+        StringBuilder cle = new StringBuilder(decompose.length());
+        for (int i = 0; i < decompose.length(); i++) {
+            char c = decompose.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            switch (Character.toLowerCase(c)) {
+                case 'œ':
+                    cle.append("oe");
+                    break;
+                case 'æ':
+                    cle.append("ae");
+                    break;
+                case 'ß':
+                    cle.append("ss");
+                    break;
+                default:
+                    cle.append(Character.toLowerCase(c));
+            }
+        }
+        return cle.toString();
+    }
+    
+    /**
+     * Cas courant : texte ASCII sans majuscule, qui est sa propre clé (aucune allocation).
+     */
+    private static boolean estDejaNormalise(String texte) {
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package main.model;
+
+/**
+ * Données d'un utilisateur en lecture seule, communes à la saisie modifiable
+ * ({@link Utilisateur}) et à la valeur enregistrée ({@link UtilisateurImmuable}).
+ * 
+ * Deux données d'utilisateur sont égales si elles ont le même ID, quelle que soit
+ * leur classe.
+ */
+public interface DonneesUtilisateur {
+    
+    int getId();
+    
+    String getNom();
+    
+    String getPrenom();
+    
+    String getEmail();
+    
+    String getRole();
+    
+    /**
+     * @return le numéro de version, incrémenté à chaque modification enregistrée
+     */
+    long getVersion();
+    
+    /**
+     * Vérifie si l'utilisateur est valide, selon les règles de {@link ValidateurUtilisateur}.
+     * 
+     * @return true si l'utilisateur a un nom, un prénom et un rôle non vides et un email valide, false sinon
+     */
+    default boolean estValide() {
+        return ValidateurUtilisateur.estValide(getNom(), getPrenom(), getEmail(), getRole());
+    }
+}
\ No newline at end of file
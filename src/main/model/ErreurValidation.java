@@ -0,0 +1,58 @@
+package main.model;
+
+/**
+ * Erreur de validation d'un champ d'utilisateur : la ligne concernée dans son lot
+ * (0 pour une saisie isolée), le champ et le motif du refus.
+ */
+public final class ErreurValidation {
+    
+    /** Champs validés d'un utilisateur. */
+    public enum Champ {
+        NOM, PRENOM, EMAIL, ROLE
+    }
+    
+    /** Motifs de refus d'un champ. */
+    public enum Motif {
+        /** Champ absent ou blanc. */
+        VIDE,
+        /** Email mal formé. */
+        FORMAT_INVALIDE,
+        /** Email déjà présent plus haut dans le même lot. */
+        DOUBLON_DANS_LOT,
+        /** Email déjà attribué à un utilisateur enregistré. */
+        DEJA_UTILISE
+    }
+    
+    private final int ligne;
+    private final Champ champ;
+    private final Motif motif;
+    private final String message;
+    
+    public ErreurValidation(int ligne, Champ champ, Motif motif, String message) {
+        this.ligne = ligne;
+        this.champ = champ;
+        this.motif = motif;
+        this.message = message;
+    }
+    
+    public int getLigne() {
+        return ligne;
+    }
+    
+    public Champ getChamp() {
+        return champ;
+    }
+    
+    public Motif getMotif() {
+        return motif;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    @Override
+    public String toString() {
+        return "ligne " + ligne + ", " + champ + " : " + message;
+    }
+}
\ No newline at end of file
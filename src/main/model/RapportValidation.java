@@ -0,0 +1,63 @@
+package main.model;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Résultat de la validation d'un lot d'utilisateurs : toutes les erreurs, par ligne
+ * puis par champ, et les lignes refusées.
+ */
+public final class RapportValidation {
+    private final int nombreLignes;
+    private final List<ErreurValidation> erreurs;
+    private final BitSet lignesInvalides;
+    
+    RapportValidation(int nombreLignes, List<ErreurValidation> erreurs, BitSet lignesInvalides) {
+        this.nombreLignes = nombreLignes;
+        this.erreurs = Collections.unmodifiableList(erreurs);
+        this.lignesInvalides = lignesInvalides;
+    }
+    
+    /**
+     * Indique si tout le lot est valide.
+     * 
+     * @return true si aucune ligne n'a d'erreur
+     */
+    public boolean estValide() {
+        return erreurs.isEmpty();
+    }
+    
+    /**
+     * Indique si une ligne du lot est valide.
+     * 
+     * @param ligne la position de l'utilisateur dans le lot
+     * @return true si la ligne n'a pas d'erreur
+     */
+    public boolean estLigneValide(int ligne) {
+        return !lignesInvalides.get(ligne);
+    }
+    
+    public int getNombreLignes() {
+        return nombreLignes;
+    }
+    
+    public int getNombreLignesInvalides() {
+        return lignesInvalides.cardinality();
+    }
+    
+    /**
+     * Retourne les erreurs, triées par ligne puis dans l'ordre des champs.
+     * 
+     * @return la liste non modifiable des erreurs
+     */
+    public List<ErreurValidation> getErreurs() {
+        return erreurs;
+    }
+    
+    @Override
+    public String toString() {
+        return "RapportValidation{lignes=" + nombreLignes + ", invalides=" + getNombreLignesInvalides()
+                + ", erreurs=" + erreurs.size() + "}";
+    }
+}
\ No newline at end of file
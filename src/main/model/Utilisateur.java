@@ -3,13 +3,17 @@ package main.model;
 /**
  * Classe qui represente un utilisateur dans le système.
  * Contient les informations d'un utilisateur.
+ * 
+ * Cette classe modifiable sert à la saisie : le DAO y reporte l'ID attribué et la
+ * version enregistrée. Les lectures retournent des {@link UtilisateurImmuable}.
  */
-public class Utilisateur {
+public class Utilisateur implements DonneesUtilisateur {
     private int id;
     private String nom;
     private String prenom;
     private String email;
     private String role;
+    private long version;
     
     /**
      * Constructeur pour créer un nouvel utilisateur
@@ -28,33 +32,45 @@ public class Utilisateur {
         this.role = role;
     }
     
+    /**
+     * Constructeur pour recréer un utilisateur avec sa version connue
+     * 
+     * @param id l'identifiant unique de l'utilisateur
+     * @param nom le nom de famille de l'utilisateur
+     * @param prenom le prénom de l'utilisateur
+     * @param email l'adresse email de l'utilisateur
+     * @param role le rôle de l'utilisateur dans le système
+     * @param version le numéro de version, incrémenté à chaque modification enregistrée
+     */
+    public Utilisateur(int id, String nom, String prenom, String email, String role, long version) {
+        this(id, nom, prenom, email, role);
+        this.version = version;
+    }
+    
     // Getters et Setters
+    @Override
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
     
+    @Override
     public String getNom() { return nom; }
     public void setNom(String nom) { this.nom = nom; }
     
+    @Override
     public String getPrenom() { return prenom; }
     public void setPrenom(String prenom) { this.prenom = prenom; }
     
+    @Override
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
     
+    @Override
     public String getRole() { return role; }
     public void setRole(String role) { this.role = role; }
     
-    /**
-     * Vérifie si l'utilisateur est valide.
-     * 
-     * @return true si l'utilisateur a un nom non vide et un email valide, false sinon
-     */
-    public boolean estValide() {
-        return nom != null && !nom.trim().isEmpty() &&
-               prenom != null && !prenom.trim().isEmpty() &&
-               email != null && email.matches("^[A-Za-z0-9+_.-]+@(.+)$") &&
-               role != null && !role.trim().isEmpty();
-    }
+    @Override
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
     
     @Override
     public String toString() {
@@ -65,9 +81,9 @@ public class Utilisateur {
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        Utilisateur that = (Utilisateur) obj;
-        return id == that.id;
+        // Une saisie et la valeur enregistrée du même utilisateur sont égales
+        if (!(obj instanceof DonneesUtilisateur)) return false;
+        return id == ((DonneesUtilisateur) obj).getId();
     }
     
     @Override
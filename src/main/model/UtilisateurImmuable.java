@@ -0,0 +1,184 @@
+package main.model;
+
+import java.util.Locale;
+
+/**
+ * Utilisateur immuable, utilisé pour les lectures.
+ * 
+ * Le DAO stocke et retourne des instances immuables : tous leurs champs sont finaux,
+ * elles peuvent donc être partagées entre threads, mises en cache ou placées dans un
+ * instantané sans copie défensive. Pour modifier un utilisateur, on construit une
+ * nouvelle valeur avec {@link #modifier()}, ou on passe par une saisie {@link Utilisateur}.
+ * 
+ * L'email en minuscules et la clé de recherche du nom (minuscules sans accents, voir
+ * {@link CleRecherche}) sont calculés une seule fois à la construction, c'est-à-dire
+ * à l'ajout ou à la modification, pour que les recherches n'aient pas à les recalculer.
+ */
+public final class UtilisateurImmuable implements DonneesUtilisateur {
+    private final int id;
+    private final String nom;
+    private final String prenom;
+    private final String email;
+    private final String role;
+    private final long version;
+    private final String emailMinuscule;
+    private final String nomCle;
+    
+    private UtilisateurImmuable(Builder builder) {
+        this.id = builder.id;
+        this.nom = builder.nom;
+        this.prenom = builder.prenom;
+        this.email = builder.email;
+        this.role = builder.role;
+        this.version = builder.version;
+        this.emailMinuscule = minuscules(builder.email);
+        this.nomCle = CleRecherche.normaliser(builder.nom);
+    }
+    
+    /**
+     * Retourne une version immuable d'un utilisateur, sans copie s'il l'est déjà.
+     * 
+     * @param utilisateur l'utilisateur
+     * @return l'utilisateur immuable équivalent
+     */
+    public static UtilisateurImmuable de(DonneesUtilisateur utilisateur) {
+        if (utilisateur instanceof UtilisateurImmuable) {
+            return (UtilisateurImmuable) utilisateur;
+        }
+        return depuis(utilisateur).construire();
+    }
+    
+    /**
+     * Crée un builder vide.
+     * 
+     * @return le builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * Crée un builder initialisé avec les données d'un utilisateur.
+     * 
+     * @param utilisateur l'utilisateur à recopier
+     * @return le builder
+     */
+    public static Builder depuis(DonneesUtilisateur utilisateur) {
+        return new Builder()
+                .id(utilisateur.getId())
+                .nom(utilisateur.getNom())
+                .prenom(utilisateur.getPrenom())
+                .email(utilisateur.getEmail())
+                .role(utilisateur.getRole())
+                .version(utilisateur.getVersion());
+    }
+    
+    /**
+     * Crée un builder initialisé avec cet utilisateur, pour en dériver une version modifiée.
+     * 
+     * @return le builder
+     */
+    public Builder modifier() {
+        return depuis(this);
+    }
+    
+    @Override
+    public int getId() { return id; }
+    
+    @Override
+    public String getNom() { return nom; }
+    
+    @Override
+    public String getPrenom() { return prenom; }
+    
+    @Override
+    public String getEmail() { return email; }
+    
+    @Override
+    public String getRole() { return role; }
+    
+    @Override
+    public long getVersion() { return version; }
+    
+    public String getEmailMinuscule() { return emailMinuscule; }
+    
+    public String getNomCle() { return nomCle; }
+    
+    @Override
+    public String toString() {
+        return String.format("Utilisateur{id=%d, nom='%s', prenom='%s', email='%s', role='%s'}",
+                           id, nom, prenom, email, role);
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        // Une saisie et la valeur enregistrée du même utilisateur sont égales
+        if (!(obj instanceof DonneesUtilisateur)) return false;
+        return id == ((DonneesUtilisateur) obj).getId();
+    }
+    
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+    
+    private static String minuscules(String chaine) {
+        // toLowerCase retourne la même instance si la chaîne est déjà en minuscules
+        return chaine != null ? chaine.toLowerCase(Locale.ROOT) : null;
+    }
+    
+    /**
+     * Builder d'utilisateurs immuables.
+     */
+    public static final class Builder {
+        private int id;
+        private String nom;
+        private String prenom;
+        private String email;
+        private String role;
+        private long version;
+        
+        private Builder() {
+        }
+        
+        public Builder id(int id) {
+            this.id = id;
+            return this;
+        }
+        
+        public Builder nom(String nom) {
+            this.nom = nom;
+            return this;
+        }
+        
+        public Builder prenom(String prenom) {
+            this.prenom = prenom;
+            return this;
+        }
+        
+        public Builder email(String email) {
+            this.email = email;
+            return this;
+        }
+        
+        public Builder role(String role) {
+            this.role = role;
+            return this;
+        }
+        
+        public Builder version(long version) {
+            this.version = version;
+            return this;
+        }
+        
+        /**
+         * Construit l'utilisateur immuable.
+         * 
+         * @return le nouvel utilisateur
+         */
+        public UtilisateurImmuable construire() {
+            return new UtilisateurImmuable(this);
+        }
+    }
+}
\ No newline at end of file
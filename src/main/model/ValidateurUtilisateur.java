@@ -0,0 +1,176 @@
+package main.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import main.model.ErreurValidation.Champ;
+import main.model.ErreurValidation.Motif;
+
+/**
+ * Règles de validation des utilisateurs, communes à la saisie, au service et aux imports.
+ * 
+ * Un lot est validé en deux passes parallèles : la première vérifie les champs de
+ * chaque ligne et retient, pour chaque email, la première ligne qui l'utilise ; la
+ * seconde signale les lignes suivantes comme doublons. Le résultat ne dépend donc pas
+ * de l'ordre d'exécution des threads.
+ */
+public final class ValidateurUtilisateur {
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    /** Taille de lot en dessous de laquelle le parallélisme coûte plus qu'il ne rapporte. */
+    private static final int SEUIL_PARALLELE = 2048;
+    
+    private ValidateurUtilisateur() {
+    }
+    
+    /**
+     * Vérifie si un email est bien formé.
+     * 
+     * @param email l'email à vérifier (peut être null)
+     * @return true si l'email est valide, false sinon
+     */
+    public static boolean estEmailValide(String email) {
+        return email != null && EMAIL.matcher(email).matches();
+    }
+    
+    /**
+     * Vérifie si un champ texte est renseigné.
+     * 
+     * @param valeur le texte à vérifier (peut être null)
+     * @return true si le texte contient autre chose que des espaces
+     */
+    public static boolean estRenseigne(String valeur) {
+        return valeur != null && !valeur.trim().isEmpty();
+    }
+    
+    /**
+     * Vérifie si une saisie respecte toutes les règles, sans construire d'erreurs.
+     * 
+     * @return true si tous les champs sont valides
+     */
+    public static boolean estValide(String nom, String prenom, String email, String role) {
+        return estRenseigne(nom) && estRenseigne(prenom) && estEmailValide(email) && estRenseigne(role);
+    }
+    
+    /**
+     * Valide une saisie isolée.
+     * 
+     * @return les erreurs, dans l'ordre des champs ; vide si la saisie est valide
+     */
+    public static List<ErreurValidation> valider(String nom, String prenom, String email, String role) {
+        List<ErreurValidation> erreurs = validerChamps(0, nom, prenom, email, role);
+        return erreurs != null ? erreurs : List.of();
+    }
+    
+    /**
+     * Valide un lot d'utilisateurs, y compris les emails en double dans le lot.
+     * 
+     * @param lot les utilisateurs à valider
+     * @return le rapport de validation
+     */
+    public static RapportValidation validerLot(List<? extends DonneesUtilisateur> lot) {
+        return validerLot(lot, email -> false);
+    }
+    
+    /**
+     * Valide un lot d'utilisateurs, y compris les emails en double dans le lot et
+     * ceux déjà attribués ailleurs.
+     * 
+     * @param lot les utilisateurs à valider
+     * @param emailDejaUtilise indique si un email bien formé est déjà attribué ;
+     *        appelé en parallèle, il doit supporter l'accès concurrent
+     * @return le rapport de validation
+     */
+    public static RapportValidation validerLot(List<? extends DonneesUtilisateur> lot, Predicate<String> emailDejaUtilise) {
+        List<? extends DonneesUtilisateur> lignes = lot instanceof RandomAccess ? lot : new ArrayList<>(lot);
+        int taille = lignes.size();
+        // Chaque ligne n'est écrite que par le thread qui la traite
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<ErreurValidation>[] erreursParLigne = new List[taille];
+        String[] clesEmail = new String[taille];
+        ConcurrentHashMap<String, Integer> premieresLignes = new ConcurrentHashMap<>();
+        
+        indices(taille).forEach(ligne -> {
+            DonneesUtilisateur u = lignes.get(ligne);
+            String email = u != null ? u.getEmail() : null;
+            List<ErreurValidation> erreurs = u != null
+                    ? validerChamps(ligne, u.getNom(), u.getPrenom(), email, u.getRole())
+                    : validerChamps(ligne, null, null, null, null);
+            if (estEmailValide(email)) {
+                String cle = email.trim().toLowerCase(Locale.ROOT);
+                clesEmail[ligne] = cle;
+                premieresLignes.merge(cle, ligne, Math::min);
+            }
+            erreursParLigne[ligne] = erreurs;
+        });
+        
+        indices(taille).forEach(ligne -> {
+            String cle = clesEmail[ligne];
+            if (cle == null) {
+                return;
+            }
+            int premiere = premieresLignes.get(cle);
+            ErreurValidation erreur = null;
+            if (premiere != ligne) {
+                erreur = new ErreurValidation(ligne, Champ.EMAIL, Motif.DOUBLON_DANS_LOT,
+                        "email déjà présent ligne " + premiere);
+            } else if (emailDejaUtilise.test(cle)) {
+                erreur = new ErreurValidation(ligne, Champ.EMAIL, Motif.DEJA_UTILISE, "email déjà utilisé");
+            }
+            if (erreur != null) {
+                erreursParLigne[ligne] = ajouter(erreursParLigne[ligne], erreur);
+            }
+        });
+        
+        List<ErreurValidation> erreurs = new ArrayList<>();
+        BitSet lignesInvalides = new BitSet(taille);
+        for (int ligne = 0; ligne < taille; ligne++) {
+            if (erreursParLigne[ligne] != null) {
+                erreurs.addAll(erreursParLigne[ligne]);
+                lignesInvalides.set(ligne);
+            }
+        }
+        return new RapportValidation(taille, erreurs, lignesInvalides);
+    }
+    
+    private static IntStream indices(int taille) {
+        IntStream indices = IntStream.range(0, taille);
+        return taille >= SEUIL_PARALLELE ? indices.parallel() : indices;
+    }
+    
+    /**
+     * Vérifie les champs d'une ligne ; retourne null si elle est valide, pour ne rien
+     * allouer dans le cas courant.
+     */
+    private static List<ErreurValidation> validerChamps(int ligne, String nom, String prenom, String email, String role) {
+        List<ErreurValidation> erreurs = null;
+        if (!estRenseigne(nom)) {
+            erreurs = ajouter(erreurs, new ErreurValidation(ligne, Champ.NOM, Motif.VIDE, "nom obligatoire"));
+        }
+        if (!estRenseigne(prenom)) {
+            erreurs = ajouter(erreurs, new ErreurValidation(ligne, Champ.PRENOM, Motif.VIDE, "prénom obligatoire"));
+        }
+        if (!estRenseigne(email)) {
+            erreurs = ajouter(erreurs, new ErreurValidation(ligne, Champ.EMAIL, Motif.VIDE, "email obligatoire"));
+        } else if (!estEmailValide(email)) {
+            erreurs = ajouter(erreurs, new ErreurValidation(ligne, Champ.EMAIL, Motif.FORMAT_INVALIDE,
+                    "format d'email invalide : " + email));
+        }
+        if (!estRenseigne(role)) {
+            erreurs = ajouter(erreurs, new ErreurValidation(ligne, Champ.ROLE, Motif.VIDE, "rôle obligatoire"));
+        }
+        return erreurs;
+    }
+    
+    private static List<ErreurValidation> ajouter(List<ErreurValidation> erreurs, ErreurValidation erreur) {
+        List<ErreurValidation> resultat = erreurs != null ? erreurs : new ArrayList<>(2);
+        resultat.add(erreur);
+        return resultat;
+    }
+}
\ No newline at end of file
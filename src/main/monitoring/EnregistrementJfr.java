@@ -0,0 +1,65 @@
+package main.monitoring;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Démarre un enregistrement JFR des événements de l'application lorsque la
+ * propriété système {@code usermanager.jfr} indique un fichier de destination.
+ * 
+ * Exemple : {@code java -Dusermanager.jfr=usermanager.jfr -cp bin main.Main}
+ */
+public final class EnregistrementJfr {
+    /** Propriété système contenant le chemin du fichier .jfr à produire. */
+    public static final String PROPRIETE_FICHIER = "usermanager.jfr";
+    
+    private EnregistrementJfr() {
+    }
+    
+    /**
+     * Démarre l'enregistrement si la propriété système est renseignée.
+     * L'enregistrement est écrit dans le fichier à l'arrêt de la JVM.
+     * 
+     * @return l'enregistrement démarré, ou null si JFR n'est pas configuré
+     */
+    public static Recording demarrerSiConfigure() {
+        String fichier = System.getProperty(PROPRIETE_FICHIER);
+        if (fichier == null || fichier.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return demarrer(Paths.get(fichier.trim()));
+        } catch (IOException | ParseException e) {
+            System.err.println("Impossible de démarrer l'enregistrement JFR : " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Démarre un enregistrement basé sur la configuration JFR "default",
+     * avec tous les événements de l'application activés sans seuil.
+     * 
+     * @param destination le fichier .jfr à produire
+     * @return l'enregistrement démarré
+     * @throws IOException si la destination n'est pas accessible
+     * @throws ParseException si la configuration JFR par défaut est illisible
+     */
+    public static Recording demarrer(Path destination) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("UserManagerApp");
+        recording.enable(EvenementOperationDAO.class).withoutThreshold();
+        recording.enable(EvenementRecherche.class).withoutThreshold();
+        recording.enable(EvenementRafraichissementTable.class).withoutThreshold();
+        recording.enable(EvenementValidation.class).withoutThreshold();
+        recording.setToDisk(true);
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        recording.start();
+        return recording;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package main.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événement JFR émis pour chaque opération du DAO (ajout, suppression, recherche...).
+ * Désactivé par défaut : il n'est enregistré que si la configuration JFR l'active.
+ */
+@Name("usermanager.OperationDAO")
+@Label("Opération DAO")
+@Description("Durée et résultat d'une opération sur le stockage des utilisateurs")
+@Category({"UserManagerApp", "DAO"})
+@Enabled(false)
+@StackTrace(false)
+public class EvenementOperationDAO extends Event {
+    @Label("Opération")
+    public String operation;
+    
+    @Label("Identifiant")
+    public int identifiant;
+    
+    @Label("Nombre de résultats")
+    public int nombreResultats;
+    
+    @Label("Succès")
+    public boolean succes;
+    
+    /**
+     * Crée et démarre un événement pour l'opération donnée.
+     * 
+     * @param operation le nom de l'opération DAO
+     * @return l'événement démarré
+     */
+    public static EvenementOperationDAO debuter(String operation) {
+        EvenementOperationDAO evenement = new EvenementOperationDAO();
+        evenement.operation = operation;
+        evenement.begin();
+        return evenement;
+    }
+    
+    /**
+     * Termine l'événement et l'enregistre si JFR le demande.
+     * 
+     * @param identifiant l'ID concerné (0 si l'opération porte sur plusieurs utilisateurs)
+     * @param nombreResultats le nombre d'utilisateurs retournés ou modifiés
+     * @param succes true si l'opération a réussi
+     */
+    public void terminer(int identifiant, int nombreResultats, boolean succes) {
+        end();
+        if (shouldCommit()) {
+            this.identifiant = identifiant;
+            this.nombreResultats = nombreResultats;
+            this.succes = succes;
+            commit();
+        }
+    }
+}
\ No newline at end of file
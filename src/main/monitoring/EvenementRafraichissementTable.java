@@ -0,0 +1,47 @@
+package main.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événement JFR émis à chaque reconstruction de la table des utilisateurs dans l'interface.
+ */
+@Name("usermanager.RafraichissementTable")
+@Label("Rafraîchissement de la table")
+@Description("Nombre de lignes affichées et durée de la reconstruction de la table")
+@Category({"UserManagerApp", "Interface"})
+@Enabled(false)
+@StackTrace(false)
+public class EvenementRafraichissementTable extends Event {
+    @Label("Lignes")
+    public int lignes;
+    
+    /**
+     * Crée et démarre un événement de rafraîchissement.
+     * 
+     * @return l'événement démarré
+     */
+    public static EvenementRafraichissementTable debuter() {
+        EvenementRafraichissementTable evenement = new EvenementRafraichissementTable();
+        evenement.begin();
+        return evenement;
+    }
+    
+    /**
+     * Termine l'événement et l'enregistre si JFR le demande.
+     * 
+     * @param lignes le nombre de lignes affichées
+     */
+    public void terminer(int lignes) {
+        end();
+        if (shouldCommit()) {
+            this.lignes = lignes;
+            commit();
+        }
+    }
+}
\ No newline at end of file
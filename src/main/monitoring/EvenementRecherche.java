@@ -0,0 +1,52 @@
+package main.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événement JFR émis pour chaque recherche d'utilisateurs faite par le service.
+ */
+@Name("usermanager.Recherche")
+@Label("Recherche d'utilisateurs")
+@Description("Terme recherché, nombre de résultats et durée de la recherche")
+@Category({"UserManagerApp", "Service"})
+@Enabled(false)
+@StackTrace(false)
+public class EvenementRecherche extends Event {
+    @Label("Terme")
+    public String terme;
+    
+    @Label("Nombre de résultats")
+    public int nombreResultats;
+    
+    /**
+     * Crée et démarre un événement de recherche.
+     * 
+     * @param terme le terme recherché
+     * @return l'événement démarré
+     */
+    public static EvenementRecherche debuter(String terme) {
+        EvenementRecherche evenement = new EvenementRecherche();
+        evenement.terme = terme;
+        evenement.begin();
+        return evenement;
+    }
+    
+    /**
+     * Termine l'événement et l'enregistre si JFR le demande.
+     * 
+     * @param nombreResultats le nombre d'utilisateurs trouvés
+     */
+    public void terminer(int nombreResultats) {
+        end();
+        if (shouldCommit()) {
+            this.nombreResultats = nombreResultats;
+            commit();
+        }
+    }
+}
\ No newline at end of file
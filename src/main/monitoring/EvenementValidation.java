@@ -0,0 +1,47 @@
+package main.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événement JFR émis pour chaque validation d'email par expression régulière.
+ */
+@Name("usermanager.Validation")
+@Label("Validation d'email")
+@Description("Durée et résultat de la validation d'un email par expression régulière")
+@Category({"UserManagerApp", "Service"})
+@Enabled(false)
+@StackTrace(false)
+public class EvenementValidation extends Event {
+    @Label("Valide")
+    public boolean valide;
+    
+    /**
+     * Crée et démarre un événement de validation.
+     * 
+     * @return l'événement démarré
+     */
+    public static EvenementValidation debuter() {
+        EvenementValidation evenement = new EvenementValidation();
+        evenement.begin();
+        return evenement;
+    }
+    
+    /**
+     * Termine l'événement et l'enregistre si JFR le demande.
+     * 
+     * @param valide le résultat de la validation
+     */
+    public void terminer(boolean valide) {
+        end();
+        if (shouldCommit()) {
+            this.valide = valide;
+            commit();
+        }
+    }
+}
\ No newline at end of file
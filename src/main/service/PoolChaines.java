@@ -0,0 +1,91 @@
+package main.service;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool de canonicalisation des chaînes répétées (rôles, noms, prénoms).
+ * 
+ * Deux chaînes égales passées au pool ressortent sous la même instance, ce qui évite de
+ * garder en mémoire un exemplaire du même rôle ou du même nom par utilisateur.
+ * 
+ * Le pool est borné : c'est une table de taille fixe, associative par paires d'entrées,
+ * où une nouvelle chaîne remplace la plus ancienne du couple en cas de collision. Les
+ * entrées sont des références faibles : une chaîne qui n'est plus utilisée par aucun
+ * utilisateur peut être récupérée par le GC. Les accès sont sans verrou ; une course entre
+ * deux threads peut au pire produire deux instances d'une même chaîne, jamais une erreur.
+ */
+public final class PoolChaines {
+    /** Pool partagé par le service et les imports. */
+    public static final PoolChaines COMMUN = new PoolChaines(1 << 14);
+    
+    private final AtomicReferenceArray<WeakReference<String>> entrees;
+    private final int masque;
+    
+    /**
+     * Crée un pool pouvant retenir au plus {@code capacite} chaînes.
+     * 
+     * @param capacite la capacité, arrondie à la puissance de deux supérieure (au moins 2)
+     */
+    public PoolChaines(int capacite) {
+        int taille = Integer.highestOneBit(Math.max(capacite - 1, 1)) << 1;
+        this.entrees = new AtomicReferenceArray<>(taille);
+        this.masque = taille - 1;
+    }
+    
+    /**
+     * Retourne l'instance canonique d'une chaîne.
+     * 
+     * @param chaine la chaîne à canonicaliser (peut être null)
+     * @return une chaîne égale, partagée si elle est déjà dans le pool
+     */
+    public String canoniser(String chaine) {
+        if (chaine == null) {
+            return null;
+        }
+        int h = chaine.hashCode();
+        int premier = (h ^ (h >>> 16)) & masque & ~1;
+        
+        // Deux entrées possibles par chaîne : premier et premier + 1
+        int libre = -1;
+        for (int i = premier; i <= premier + 1; i++) {
+            WeakReference<String> reference = entrees.get(i);
+            String existante = reference != null ? reference.get() : null;
+            if (existante == null) {
+                libre = libre < 0 ? i : libre;
+            } else if (existante.equals(chaine)) {
+                return existante;
+            }
+        }
+        
+        // Absente : occuper une entrée vide, sinon remplacer la plus ancienne (la seconde,
+        // la première étant décalée pour garder la plus récente en tête)
+        WeakReference<String> nouvelle = new WeakReference<>(chaine);
+        if (libre >= 0) {
+            entrees.set(libre, nouvelle);
+        } else {
+            entrees.set(premier + 1, entrees.get(premier));
+            entrees.set(premier, nouvelle);
+        }
+        return chaine;
+    }
+    
+    /**
+     * Canonicalise une chaîne après en avoir retiré les espaces de début et de fin.
+     * 
+     * @param chaine la chaîne saisie (peut être null)
+     * @return la chaîne sans espaces superflus, partagée si possible
+     */
+    public String canoniserSansEspaces(String chaine) {
+        return chaine != null ? canoniser(chaine.trim()) : null;
+    }
+    
+    /**
+     * Retourne la capacité du pool.
+     * 
+     * @return le nombre maximal de chaînes retenues
+     */
+    public int getCapacite() {
+        return masque + 1;
+    }
+}
\ No newline at end of file
@@ -1,23 +1,61 @@
 package main.service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import main.audit.JournalAudit;
+import main.audit.OperationAudit;
+import main.dao.CritereTri;
+import main.dao.ResultatEcriture;
+import main.dao.Transaction;
 import main.dao.UtilisateurDAO;
+import main.model.RapportValidation;
+import main.model.DonneesUtilisateur;
 import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+import main.model.ValidateurUtilisateur;
+import main.monitoring.EvenementRecherche;
+import main.monitoring.EvenementValidation;
 
 /**
  * Service pour gérer les opérations métier sur les utilisateurs.
  * Fait le lien entre l'interface utilisateur et le DAO.
  */
 public class ServiceUtilisateur {
+    /** Nombre de tentatives d'une transaction en conflit avant abandon. */
+    private static final int ESSAIS_TRANSACTION = 5;
+    /** Pool partagé des rôles, noms et prénoms. */
+    private static final PoolChaines POOL = PoolChaines.COMMUN;
+    /** Nombre maximal de fautes de frappe tolérées par la recherche approchée. */
+    private static final int DISTANCE_APPROCHE_MAX = 2;
+    
     private UtilisateurDAO utilisateurDAO;
+    /** Journal d'audit des modifications, null si l'audit n'est pas activé. */
+    private final JournalAudit journal;
+    private final Supplier<String> auteur;
     
     /**
-     * Constructeur qui initialise le DAO.
+     * Constructeur qui initialise le DAO. Les modifications sont journalisées si la
+     * propriété système {@value JournalAudit#PROPRIETE_REPERTOIRE} est renseignée.
      */
     public ServiceUtilisateur() {
+        this(JournalAudit.ouvrirSiConfigure(), () -> System.getProperty("user.name"));
+    }
+    
+    /**
+     * Constructeur qui journalise les modifications dans le journal fourni.
+     * 
+     * @param journal le journal d'audit, ou null pour ne rien journaliser
+     * @param auteur fournit l'auteur de chaque modification
+     */
+    public ServiceUtilisateur(JournalAudit journal, Supplier<String> auteur) {
         this.utilisateurDAO = new UtilisateurDAO();
+        this.journal = journal;
+        this.auteur = auteur;
     }
     
     /**
@@ -30,15 +68,29 @@ public class ServiceUtilisateur {
      * @return true si l'ajout est réussi, false sinon
      */
     public boolean ajouterUtilisateur(String nom, String prenom, String email, String role) {
-        if (nom == null || nom.trim().isEmpty() || 
-            prenom == null || prenom.trim().isEmpty() ||
-            email == null || !estEmailValide(email) ||
-            role == null || role.trim().isEmpty()) {
-            return false;
+        return creerUtilisateur(nom, prenom, email, role).isPresent();
+    }
+    
+    /**
+     * Ajoute un nouvel utilisateur après validation et retourne l'utilisateur créé.
+     * 
+     * @param nom le nom de l'utilisateur
+     * @param prenom le prénom de l'utilisateur
+     * @param email l'email de l'utilisateur
+     * @param role le rôle de l'utilisateur
+     * @return un Optional contenant l'utilisateur créé (avec son ID), vide si l'ajout a échoué
+     */
+    public Optional<Utilisateur> creerUtilisateur(String nom, String prenom, String email, String role) {
+        if (!estSaisieValide(nom, prenom, email, role)) {
+            return Optional.empty();
         }
         
-        Utilisateur utilisateur = new Utilisateur(0, nom.trim(), prenom.trim(), email.trim(), role.trim());
-        return utilisateurDAO.ajouter(utilisateur);
+        Utilisateur utilisateur = nouvelUtilisateur(0, nom, prenom, email, role);
+        if (!utilisateurDAO.ajouter(utilisateur)) {
+            return Optional.empty();
+        }
+        auditer(OperationAudit.AJOUT, utilisateur.getId(), null, utilisateur);
+        return Optional.of(utilisateur);
     }
     
     /**
@@ -48,7 +100,34 @@ public class ServiceUtilisateur {
      * @return true si la suppression est réussie, false sinon
      */
     public boolean supprimerUtilisateur(int id) {
-        return utilisateurDAO.supprimer(id);
+        return supprimerUtilisateur(id, UtilisateurDAO.VERSION_QUELCONQUE).estSucces();
+    }
+    
+    /**
+     * Supprime un utilisateur seulement s'il n'a pas été modifié depuis sa lecture.
+     * 
+     * @param id l'ID de l'utilisateur à supprimer
+     * @param versionAttendue la version de l'utilisateur lue par l'appelant
+     * @return SUCCES, CONFLIT si l'utilisateur a été modifié entre-temps, ou INTROUVABLE
+     */
+    public ResultatEcriture supprimerUtilisateur(int id, long versionAttendue) {
+        if (journal == null) {
+            return utilisateurDAO.supprimer(id, versionAttendue);
+        }
+        while (true) {
+            // Suppression à la version lue : l'image avant journalisée est exactement celle supprimée
+            Optional<UtilisateurImmuable> avant = utilisateurDAO.trouverParId(id);
+            if (avant.isEmpty()) {
+                return ResultatEcriture.INTROUVABLE;
+            }
+            ResultatEcriture resultat = utilisateurDAO.supprimer(id, versionAuditee(avant.get(), versionAttendue));
+            if (resultat.estSucces()) {
+                auditer(OperationAudit.SUPPRESSION, id, avant.get(), null);
+            }
+            if (resultat != ResultatEcriture.CONFLIT || versionAttendue != UtilisateurDAO.VERSION_QUELCONQUE) {
+                return resultat;
+            }
+        }
     }
     
     /**
@@ -62,15 +141,135 @@ public class ServiceUtilisateur {
      * @return true si la modification est réussie, false sinon
      */
     public boolean modifierUtilisateur(int id, String nom, String prenom, String email, String role) {
-        if (nom == null || nom.trim().isEmpty() || 
-            prenom == null || prenom.trim().isEmpty() ||
-            email == null || !estEmailValide(email) ||
-            role == null || role.trim().isEmpty()) {
-            return false;
+        return modifierUtilisateur(id, UtilisateurDAO.VERSION_QUELCONQUE, nom, prenom, email, role).estSucces();
+    }
+    
+    /**
+     * Modifie un utilisateur seulement s'il n'a pas été modifié depuis sa lecture
+     * (compare-and-set sur sa version).
+     * 
+     * @param id l'ID de l'utilisateur à modifier
+     * @param versionAttendue la version de l'utilisateur lue par l'appelant
+     * @param nom le nouveau nom
+     * @param prenom le nouveau prénom
+     * @param email le nouvel email
+     * @param role le nouveau rôle
+     * @return SUCCES, CONFLIT si l'utilisateur a été modifié entre-temps, INTROUVABLE,
+     *         INVALIDE ou EMAIL_DEJA_UTILISE
+     */
+    public ResultatEcriture modifierUtilisateur(int id, long versionAttendue,
+                                                String nom, String prenom, String email, String role) {
+        return modifierUtilisateur(new Utilisateur(id, nom, prenom, email, role), versionAttendue);
+    }
+    
+    /**
+     * Modifie un utilisateur seulement s'il n'a pas été modifié depuis sa lecture. En cas
+     * de succès, la saisie contient exactement l'utilisateur enregistré : champs nettoyés
+     * et nouvelle version.
+     * 
+     * @param utilisateur la saisie complète de l'utilisateur, identifié par son ID
+     * @param versionAttendue la version de l'utilisateur lue par l'appelant
+     * @return SUCCES, CONFLIT si l'utilisateur a été modifié entre-temps, INTROUVABLE,
+     *         INVALIDE ou EMAIL_DEJA_UTILISE
+     */
+    public ResultatEcriture modifierUtilisateur(Utilisateur utilisateur, long versionAttendue) {
+        if (!estSaisieValide(utilisateur.getNom(), utilisateur.getPrenom(), utilisateur.getEmail(), utilisateur.getRole())) {
+            return ResultatEcriture.INVALIDE;
+        }
+        
+        int id = utilisateur.getId();
+        utilisateur.setNom(POOL.canoniserSansEspaces(utilisateur.getNom()));
+        utilisateur.setPrenom(POOL.canoniserSansEspaces(utilisateur.getPrenom()));
+        utilisateur.setEmail(utilisateur.getEmail().trim());
+        utilisateur.setRole(POOL.canoniserSansEspaces(utilisateur.getRole()));
+        if (journal == null) {
+            return utilisateurDAO.modifier(utilisateur, versionAttendue);
+        }
+        while (true) {
+            Optional<UtilisateurImmuable> avant = utilisateurDAO.trouverParId(id);
+            if (avant.isEmpty()) {
+                return ResultatEcriture.INTROUVABLE;
+            }
+            ResultatEcriture resultat = utilisateurDAO.modifier(utilisateur, versionAuditee(avant.get(), versionAttendue));
+            if (resultat.estSucces()) {
+                auditer(OperationAudit.MODIFICATION, id, avant.get(), utilisateur);
+            }
+            if (resultat != ResultatEcriture.CONFLIT || versionAttendue != UtilisateurDAO.VERSION_QUELCONQUE) {
+                return resultat;
+            }
+        }
+    }
+    
+    /**
+     * Version à exiger pour écrire par-dessus l'image avant lue : celle de l'appelant
+     * s'il en a fourni une, sinon celle de l'image, l'écriture étant rejouée en cas de
+     * conflit.
+     */
+    private static long versionAuditee(UtilisateurImmuable avant, long versionAttendue) {
+        return versionAttendue != UtilisateurDAO.VERSION_QUELCONQUE ? versionAttendue : avant.getVersion();
+    }
+    
+    /**
+     * Change le rôle de plusieurs utilisateurs en une seule transaction :
+     * tous changent de rôle, ou aucun. En cas d'écriture concurrente sur l'un
+     * d'eux, la transaction est rejouée quelques fois avant d'abandonner.
+     * 
+     * @param ids les IDs des utilisateurs à modifier
+     * @param role le nouveau rôle
+     * @return SUCCES, CONFLIT si les écritures concurrentes persistent, INTROUVABLE
+     *         si un utilisateur n'existe pas, ou INVALIDE
+     */
+    public ResultatEcriture changerRoleUtilisateurs(Collection<Integer> ids, String role) {
+        if (ids == null || role == null || role.trim().isEmpty()) {
+            return ResultatEcriture.INVALIDE;
         }
         
-        Utilisateur utilisateur = new Utilisateur(id, nom.trim(), prenom.trim(), email.trim(), role.trim());
-        return utilisateurDAO.modifier(utilisateur);
+        ResultatEcriture resultat = ResultatEcriture.CONFLIT;
+        for (int essai = 0; essai < ESSAIS_TRANSACTION && resultat == ResultatEcriture.CONFLIT; essai++) {
+            try (Transaction transaction = utilisateurDAO.demarrerTransaction()) {
+                resultat = changerRole(transaction, ids, POOL.canoniserSansEspaces(role));
+            }
+        }
+        return resultat;
+    }
+    
+    private ResultatEcriture changerRole(Transaction transaction, Collection<Integer> ids, String role) {
+        Map<Integer, UtilisateurImmuable> avant = new LinkedHashMap<>();
+        for (int id : ids) {
+            Optional<UtilisateurImmuable> existant = transaction.trouverParId(id);
+            if (existant.isEmpty()) {
+                return ResultatEcriture.INTROUVABLE;
+            }
+            avant.put(id, existant.get());
+            transaction.modifier(existant.get().modifier().role(role).construire());
+        }
+        ResultatEcriture resultat = transaction.valider();
+        if (resultat.estSucces() && journal != null) {
+            // La transaction a validé sur son instantané : chaque image avant est la version remplacée
+            for (UtilisateurImmuable utilisateur : avant.values()) {
+                auditer(OperationAudit.MODIFICATION, utilisateur.getId(), utilisateur,
+                        utilisateur.modifier().role(role).version(utilisateur.getVersion() + 1).construire());
+            }
+        }
+        return resultat;
+    }
+    
+    /**
+     * Publie une modification dans le journal d'audit, sans attendre son écriture.
+     */
+    private void auditer(OperationAudit operation, int id, DonneesUtilisateur avant, DonneesUtilisateur apres) {
+        if (journal != null) {
+            journal.enregistrer(operation, id, avant, apres, auteur.get());
+        }
+    }
+    
+    /**
+     * Construit un utilisateur à partir d'une saisie : champs sans espaces superflus,
+     * et rôle, nom et prénom partagés avec les autres utilisateurs via le pool de chaînes.
+     */
+    private static Utilisateur nouvelUtilisateur(int id, String nom, String prenom, String email, String role) {
+        return new Utilisateur(id, POOL.canoniserSansEspaces(nom), POOL.canoniserSansEspaces(prenom),
+                email.trim(), POOL.canoniserSansEspaces(role));
     }
     
     /**
@@ -78,17 +277,69 @@ public class ServiceUtilisateur {
      * 
      * @return la liste de tous les utilisateurs
      */
-    public List<Utilisateur> listerTousLesUtilisateurs() {
+    public List<UtilisateurImmuable> listerTousLesUtilisateurs() {
         return utilisateurDAO.listerTous();
     }
     
+    /**
+     * Récupère une page d'utilisateurs, triés par ID.
+     * 
+     * @param debut l'index du premier utilisateur de la page
+     * @param taille le nombre maximal d'utilisateurs de la page
+     * @return la liste des utilisateurs de la page
+     */
+    public List<UtilisateurImmuable> listerPageUtilisateurs(int debut, int taille) {
+        return utilisateurDAO.listerPage(debut, taille);
+    }
+    
+    /**
+     * Récupère les utilisateurs qui suivent un ID, triés par ID, pour parcourir
+     * tous les utilisateurs par pages successives.
+     * 
+     * @param idPrecedent le dernier ID de la page précédente (0 pour la première page)
+     * @param taille le nombre maximal d'utilisateurs de la page
+     * @return la liste des utilisateurs de la page
+     */
+    public List<UtilisateurImmuable> listerUtilisateursApres(int idPrecedent, int taille) {
+        return utilisateurDAO.listerApres(idPrecedent, taille);
+    }
+    
+    /**
+     * Retourne les IDs de tous les utilisateurs triés selon un critère, à partir des
+     * index triés du DAO (aucun tri n'est effectué à l'appel).
+     * 
+     * @param critere le critère de tri
+     * @return les IDs dans l'ordre croissant du critère
+     */
+    public int[] listerIdsTries(CritereTri critere) {
+        return utilisateurDAO.listerIdsTries(critere);
+    }
+    
+    /**
+     * Compte les utilisateurs enregistrés.
+     * 
+     * @return le nombre total d'utilisateurs
+     */
+    public int compterUtilisateurs() {
+        return utilisateurDAO.compter();
+    }
+    
+    /**
+     * Retourne la version des données, qui change à chaque ajout, modification ou suppression.
+     * 
+     * @return la version courante des données
+     */
+    public long getVersionDonnees() {
+        return utilisateurDAO.getVersionDonnees();
+    }
+    
     /**
      * Récupère un utilisateur par son ID.
      * 
      * @param id l'ID de l'utilisateur
      * @return un Optional contenant l'utilisateur s'il est trouvé
      */
-    public Optional<Utilisateur> trouverUtilisateurParId(int id) {
+    public Optional<UtilisateurImmuable> trouverUtilisateurParId(int id) {
         return utilisateurDAO.trouverParId(id);
     }
     
@@ -98,11 +349,87 @@ public class ServiceUtilisateur {
      * @param nom le nom à rechercher
      * @return la liste des utilisateurs correspondants
      */
-    public List<Utilisateur> rechercherUtilisateursParNom(String nom) {
+    public List<UtilisateurImmuable> rechercherUtilisateursParNom(String nom) {
         if (nom == null || nom.trim().isEmpty()) {
             return List.of();
         }
-        return utilisateurDAO.rechercherParNom(nom.trim());
+        EvenementRecherche evenement = EvenementRecherche.debuter(nom);
+        List<UtilisateurImmuable> resultats = utilisateurDAO.rechercherParNom(nom.trim());
+        evenement.terminer(resultats.size());
+        return resultats;
+    }
+    
+    /**
+     * Recherche les meilleurs utilisateurs pour un nom : nom identique, puis nom
+     * commençant par la recherche, puis nom la contenant. Seuls les {@code limite}
+     * premiers sont calculés, même si presque tous les utilisateurs correspondent.
+     * 
+     * @param nom le nom à rechercher
+     * @param limite le nombre maximal de résultats
+     * @return les meilleurs utilisateurs, du mieux classé au moins bien classé
+     */
+    public List<UtilisateurImmuable> rechercherUtilisateursParNom(String nom, int limite) {
+        if (nom == null || nom.trim().isEmpty()) {
+            return List.of();
+        }
+        EvenementRecherche evenement = EvenementRecherche.debuter(nom);
+        List<UtilisateurImmuable> resultats = utilisateurDAO.rechercherParNom(nom.trim(), limite);
+        evenement.terminer(resultats.size());
+        return resultats;
+    }
+    
+    /**
+     * Recherche des utilisateurs par nom en tolérant les fautes de frappe : une faute
+     * pour les noms courts (jusqu'à 4 lettres), deux au-delà.
+     * 
+     * @param nom le nom à rechercher, éventuellement mal orthographié
+     * @return les utilisateurs correspondants, du nom le plus proche au plus éloigné
+     */
+    public List<UtilisateurImmuable> rechercherUtilisateursParNomApproche(String nom) {
+        if (nom == null || nom.trim().isEmpty()) {
+            return List.of();
+        }
+        String terme = nom.trim();
+        return rechercherUtilisateursParNomApproche(terme, terme.length() <= 4 ? 1 : DISTANCE_APPROCHE_MAX);
+    }
+    
+    /**
+     * Recherche des utilisateurs dont le nom est à au plus {@code distanceMax} fautes
+     * de frappe (lettres insérées, supprimées ou remplacées) du nom donné.
+     * 
+     * @param nom le nom à rechercher
+     * @param distanceMax le nombre de fautes tolérées, ramené entre 1 et 2
+     * @return les utilisateurs correspondants, du nom le plus proche au plus éloigné
+     */
+    public List<UtilisateurImmuable> rechercherUtilisateursParNomApproche(String nom, int distanceMax) {
+        if (nom == null || nom.trim().isEmpty()) {
+            return List.of();
+        }
+        EvenementRecherche evenement = EvenementRecherche.debuter(nom);
+        int distance = Math.max(1, Math.min(distanceMax, DISTANCE_APPROCHE_MAX));
+        List<UtilisateurImmuable> resultats = utilisateurDAO.rechercherParNomApproche(nom.trim(), distance);
+        evenement.terminer(resultats.size());
+        return resultats;
+    }
+    
+    /**
+     * Valide un lot d'utilisateurs avant import, en parallèle pour les gros lots :
+     * champs obligatoires, format des emails, emails en double dans le lot et emails
+     * déjà utilisés. Rien n'est enregistré.
+     * 
+     * @param lot les utilisateurs à valider
+     * @return le rapport détaillant les erreurs de chaque ligne
+     */
+    public RapportValidation validerUtilisateurs(List<? extends DonneesUtilisateur> lot) {
+        return ValidateurUtilisateur.validerLot(lot, email -> !utilisateurDAO.rechercherParEmail(email).isEmpty());
+    }
+    
+    /**
+     * Vérifie une saisie selon les règles de {@link ValidateurUtilisateur}.
+     */
+    private boolean estSaisieValide(String nom, String prenom, String email, String role) {
+        return ValidateurUtilisateur.estRenseigne(nom) && ValidateurUtilisateur.estRenseigne(prenom)
+                && estEmailValide(email) && ValidateurUtilisateur.estRenseigne(role);
     }
     
     /**
@@ -112,6 +439,9 @@ public class ServiceUtilisateur {
      * @return true si l'email est valide, false sinon
      */
     private boolean estEmailValide(String email) {
-        return email != null && email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+        EvenementValidation evenement = EvenementValidation.debuter();
+        boolean valide = ValidateurUtilisateur.estEmailValide(email);
+        evenement.terminer(valide);
+        return valide;
     }
 }
\ No newline at end of file
@@ -1,16 +1,24 @@
 package main.ui;
 
-import main.model.Utilisateur;
+import main.dao.CritereTri;
+import main.model.UtilisateurImmuable;
+import main.monitoring.EvenementRafraichissementTable;
 import main.service.ServiceUtilisateur;
 import main.ui.components.ModernButton;
+import main.ui.components.PerformanceMode;
+import main.ui.components.RepaintOverlay;
+import main.ui.components.Theme;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,16 +27,20 @@ import java.util.List;
 public class MainFrame extends JFrame {
     private ServiceUtilisateur serviceUtilisateur;
     private JTable usersTable;
-    private DefaultTableModel tableModel;
+    private UserTableModel tableModel;
     private JTextField searchField;
     private JLabel totalUsersLabel;
+    private JProgressBar loadingBar;
+    private UserLoader currentLoader;
+    // Critère de tri courant, null tant que l'ordre est celui du chargement ou de la recherche
+    private CritereTri sortCriterion;
+    // Résultats de recherche affichés, null quand la table montre tous les utilisateurs
+    private List<UtilisateurImmuable> searchResults;
     
-    // Couleurs modernes
-    private final Color PRIMARY_COLOR = new Color(41, 128, 185);
-    private final Color SUCCESS_COLOR = new Color(39, 174, 96);
-    private final Color WARNING_COLOR = new Color(243, 156, 18);
-    private final Color DANGER_COLOR = new Color(231, 76, 60);
-    private final Color BACKGROUND_COLOR = new Color(245, 246, 250);
+    // Nombre maximal de résultats de recherche affichés
+    private static final int MAX_SEARCH_RESULTS = 200;
+    // Nombre d'utilisateurs chargés en arrière-plan par bloc
+    private static final int LOAD_CHUNK_SIZE = 500;
     
     public MainFrame() {
         this.serviceUtilisateur = new ServiceUtilisateur();
@@ -52,7 +64,7 @@ public class MainFrame extends JFrame {
         // Panel principal avec bordure et fond
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
-        mainPanel.setBackground(BACKGROUND_COLOR);
+        mainPanel.setBackground(Theme.BACKGROUND_COLOR);
         
         // En-tête
         mainPanel.add(createHeaderPanel(), BorderLayout.NORTH);
@@ -64,28 +76,43 @@ public class MainFrame extends JFrame {
         mainPanel.add(createTablePanel(), BorderLayout.SOUTH);
         
         setContentPane(mainPanel);
+        
+        // Mesure des repeintures (F12)
+        RepaintOverlay.install(getRootPane());
     }
     
     private JPanel createHeaderPanel() {
         JPanel headerPanel = new JPanel(new BorderLayout());
-        headerPanel.setBackground(BACKGROUND_COLOR);
+        headerPanel.setBackground(Theme.BACKGROUND_COLOR);
         
         // Titre
         JLabel titleLabel = new JLabel("UserManagerApp");
-        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
-        titleLabel.setForeground(new Color(44, 62, 80));
+        titleLabel.setFont(Theme.TITLE_FONT);
+        titleLabel.setForeground(Theme.TITLE_COLOR);
         
         totalUsersLabel = new JLabel("Total : 0 utilisateur(s)");
-        totalUsersLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        totalUsersLabel.setForeground(new Color(127, 140, 141));
+        totalUsersLabel.setFont(Theme.TEXT_FONT);
+        totalUsersLabel.setForeground(Theme.SECONDARY_TEXT_COLOR);
+        
+        // Barre de progression du chargement, visible pendant le chargement uniquement
+        loadingBar = new JProgressBar();
+        loadingBar.setStringPainted(true);
+        loadingBar.setPreferredSize(new Dimension(220, 18));
+        loadingBar.setVisible(false);
+        
+        JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        statusPanel.setBackground(Theme.BACKGROUND_COLOR);
+        statusPanel.add(totalUsersLabel);
+        statusPanel.add(Box.createHorizontalStrut(15));
+        statusPanel.add(loadingBar);
         
         JPanel titlePanel = new JPanel(new BorderLayout());
-        titlePanel.setBackground(BACKGROUND_COLOR);
+        titlePanel.setBackground(Theme.BACKGROUND_COLOR);
         titlePanel.add(titleLabel, BorderLayout.NORTH);
-        titlePanel.add(totalUsersLabel, BorderLayout.SOUTH);
+        titlePanel.add(statusPanel, BorderLayout.SOUTH);
         
         // Bouton actualiser
-        ModernButton refreshButton = new ModernButton("Actualiser", PRIMARY_COLOR);
+        ModernButton refreshButton = new ModernButton("Actualiser", Theme.PRIMARY_COLOR);
         refreshButton.addActionListener(e -> refreshUsers());
         
         headerPanel.add(titlePanel, BorderLayout.WEST);
@@ -96,18 +123,18 @@ public class MainFrame extends JFrame {
     
     private JPanel createToolbarPanel() {
         JPanel toolbarPanel = new JPanel(new BorderLayout(10, 0));
-        toolbarPanel.setBackground(BACKGROUND_COLOR);
+        toolbarPanel.setBackground(Theme.BACKGROUND_COLOR);
         toolbarPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
         
         // Boutons d'action
         JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
-        buttonsPanel.setBackground(BACKGROUND_COLOR);
+        buttonsPanel.setBackground(Theme.BACKGROUND_COLOR);
         
-        ModernButton addButton = new ModernButton("Ajouter", SUCCESS_COLOR);
-        ModernButton editButton = new ModernButton("Modifier", WARNING_COLOR);
-        ModernButton deleteButton = new ModernButton("Supprimer", DANGER_COLOR);
+        ModernButton addButton = new ModernButton("Ajouter", Theme.SUCCESS_COLOR);
+        ModernButton editButton = new ModernButton("Modifier", Theme.WARNING_COLOR);
+        ModernButton deleteButton = new ModernButton("Supprimer", Theme.DANGER_COLOR);
         
-        addButton.addActionListener(e -> showUserForm(null));
+        addButton.addActionListener(e -> showUserForm(null, -1));
         editButton.addActionListener(e -> editSelectedUser());
         deleteButton.addActionListener(e -> deleteSelectedUser());
         
@@ -117,16 +144,15 @@ public class MainFrame extends JFrame {
         
         // Champ de recherche
         JPanel searchPanel = new JPanel(new BorderLayout());
-        searchPanel.setBackground(BACKGROUND_COLOR);
+        searchPanel.setBackground(Theme.BACKGROUND_COLOR);
         
         searchField = new JTextField(20);
         searchField.setPreferredSize(new Dimension(250, 35));
-        searchField.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(189, 195, 199)),
-            BorderFactory.createEmptyBorder(5, 10, 5, 10)
-        ));
-        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        searchField.setBorder(Theme.FIELD_BORDER);
+        searchField.setFont(Theme.TEXT_FONT);
         searchField.putClientProperty("JTextField.placeholderText", "Rechercher par nom...");
+        // Activé dès l'arrivée du premier bloc d'utilisateurs
+        searchField.setEnabled(false);
         
         searchField.addKeyListener(new KeyAdapter() {
             @Override
@@ -147,28 +173,33 @@ public class MainFrame extends JFrame {
         JPanel tablePanel = new JPanel(new BorderLayout());
         tablePanel.setBackground(Color.WHITE);
         tablePanel.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(189, 195, 199)),
+            BorderFactory.createLineBorder(Theme.BORDER_COLOR),
             BorderFactory.createEmptyBorder(5, 5, 5, 5)
         ));
         
         // Modèle de table
-        String[] columnNames = {"ID", "Prénom", "Nom", "Email", "Rôle"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Rendre la table non éditable
-            }
-        };
+        tableModel = new UserTableModel(serviceUtilisateur);
         
         usersTable = new JTable(tableModel);
         usersTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         usersTable.setRowHeight(30);
-        usersTable.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        usersTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
-        usersTable.getTableHeader().setBackground(new Color(52, 73, 94));
+        usersTable.setFont(Theme.TEXT_FONT);
+        usersTable.getTableHeader().setFont(Theme.BOLD_FONT);
+        usersTable.getTableHeader().setBackground(Theme.HEADER_COLOR);
         usersTable.getTableHeader().setForeground(Color.WHITE);
         usersTable.setShowGrid(true);
-        usersTable.setGridColor(new Color(236, 240, 241));
+        usersTable.setGridColor(Theme.GRID_COLOR);
+        
+        // Tri par clic sur l'en-tête ; un second clic sur la même colonne inverse le sens
+        usersTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = usersTable.columnAtPoint(e.getPoint());
+                if (column != -1) {
+                    sortByColumn(usersTable.convertColumnIndexToModel(column));
+                }
+            }
+        });
         
         // Centrer les colonnes ID et Rôle
         usersTable.getColumnModel().getColumn(0).setPreferredWidth(60);
@@ -177,9 +208,17 @@ public class MainFrame extends JFrame {
         usersTable.getColumnModel().getColumn(3).setPreferredWidth(250);
         usersTable.getColumnModel().getColumn(4).setPreferredWidth(120);
         
-        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
-        centerRenderer.setHorizontalAlignment(JLabel.CENTER);
-
+        TableCellRenderer centerRenderer;
+        if (PerformanceMode.isEnabled()) {
+            // Rendus sans consultation d'UIManager ni allocation par cellule
+            usersTable.setDefaultRenderer(Object.class, new UserCellRenderer(JLabel.LEADING));
+            centerRenderer = new UserCellRenderer(JLabel.CENTER);
+        } else {
+            DefaultTableCellRenderer defaultCenterRenderer = new DefaultTableCellRenderer();
+            defaultCenterRenderer.setHorizontalAlignment(JLabel.CENTER);
+            centerRenderer = defaultCenterRenderer;
+        }
+        
         usersTable.getColumnModel().getColumn(0).setCellRenderer(centerRenderer);
         usersTable.getColumnModel().getColumn(4).setCellRenderer(centerRenderer);
         
@@ -191,55 +230,163 @@ public class MainFrame extends JFrame {
         return tablePanel;
     }
     
+    /**
+     * Lance le chargement des utilisateurs en arrière-plan : la fenêtre s'affiche
+     * immédiatement et les lignes arrivent par blocs. La recherche devient
+     * utilisable dès le premier bloc.
+     */
     private void loadUsers() {
-        refreshUsers();
+        stopLoading();
+        tableModel.clear();
+        sortCriterion = null;
+        searchResults = null;
+        
+        int expectedCount = serviceUtilisateur.compterUtilisateurs();
+        totalUsersLabel.setText("Total : " + expectedCount + " utilisateur(s)");
+        loadingBar.setMaximum(Math.max(expectedCount, 1));
+        loadingBar.setValue(0);
+        loadingBar.setString("Chargement...");
+        loadingBar.setVisible(true);
+        
+        currentLoader = new UserLoader(expectedCount);
+        currentLoader.execute();
+    }
+    
+    private void stopLoading() {
+        if (currentLoader != null) {
+            currentLoader.cancel(false);
+            currentLoader = null;
+        }
+        loadingBar.setVisible(false);
     }
     
     protected void refreshUsers() {
-        List<Utilisateur> users = serviceUtilisateur.listerTousLesUtilisateurs();
-        updateTable(users);
+        loadUsers();
     }
     
     private void searchUsers(String searchTerm) {
         if (searchTerm.isEmpty()) {
             refreshUsers();
         } else {
-            List<Utilisateur> results = serviceUtilisateur.rechercherUtilisateursParNom(searchTerm);
+            // Les résultats remplacent la table : arrêter un chargement en cours
+            stopLoading();
+            // Seuls les meilleurs résultats sont affichés : inutile de classer toutes les correspondances
+            List<UtilisateurImmuable> results = serviceUtilisateur.rechercherUtilisateursParNom(searchTerm, MAX_SEARCH_RESULTS);
             updateTable(results);
         }
     }
     
-    private void updateTable(List<Utilisateur> users) {
-        tableModel.setRowCount(0);
-        
-        for (Utilisateur user : users) {
-            tableModel.addRow(new Object[]{
-                user.getId(),
-                user.getPrenom(),
-                user.getNom(),
-                user.getEmail(),
-                user.getRole()
-            });
+    private void updateTable(List<UtilisateurImmuable> users) {
+        // Une nouvelle recherche repart de l'ordre de pertinence
+        searchResults = users;
+        sortCriterion = null;
+        tableModel.setDescending(false);
+        EvenementRafraichissementTable evenement = EvenementRafraichissementTable.debuter();
+        tableModel.setUsers(users);
+        evenement.terminer(users.size());
+        totalUsersLabel.setText("Total : " + users.size() + " utilisateur(s)");
+    }
+    
+    /**
+     * Ajoute des lignes en fin de table avec un seul événement de modification.
+     */
+    private void appendRows(List<UtilisateurImmuable> users) {
+        EvenementRafraichissementTable evenement = EvenementRafraichissementTable.debuter();
+        tableModel.appendUsers(users);
+        evenement.terminer(users.size());
+    }
+    
+    /**
+     * Trie la table selon une colonne. Tous les utilisateurs sont ordonnés par les index
+     * triés du service, sans tri à l'affichage ; les résultats de recherche, peu nombreux,
+     * sont triés en mémoire. Cliquer de nouveau sur la colonne inverse seulement le sens.
+     */
+    private void sortByColumn(int column) {
+        CritereTri criterion = CritereTri.values()[column];
+        if (criterion == sortCriterion) {
+            tableModel.setDescending(!tableModel.isDescending());
+            return;
         }
         
-        totalUsersLabel.setText("Total : " + users.size() + " utilisateur(s)");
+        EvenementRafraichissementTable evenement = EvenementRafraichissementTable.debuter();
+        if (searchResults != null) {
+            List<UtilisateurImmuable> sorted = new ArrayList<>(searchResults);
+            sorted.sort(criterion.comparateur());
+            tableModel.setUsers(sorted);
+        } else {
+            // L'index couvre tous les utilisateurs : le chargement par blocs devient inutile
+            stopLoading();
+            searchField.setEnabled(true);
+            tableModel.sortBy(criterion);
+            totalUsersLabel.setText("Total : " + tableModel.getRowCount() + " utilisateur(s)");
+        }
+        tableModel.setDescending(false);
+        sortCriterion = criterion;
+        evenement.terminer(tableModel.getRowCount());
     }
     
-    private void showUserForm(Utilisateur user) {
+    private void showUserForm(UtilisateurImmuable user, int row) {
         UserFormDialog dialog = new UserFormDialog(this, user, serviceUtilisateur);
         dialog.setVisible(true);
         
-        // Rafraîchir après fermeture du dialogue
-        if (dialog.isSuccess()) {
+        if (!dialog.isSuccess()) {
+            return;
+        }
+        if (!isRowUpdatePossible() || dialog.getSavedUser() == null) {
+            // Rafraîchir après fermeture du dialogue
+            reloadAfterWrite();
+        } else if (user != null) {
+            // Seule la ligne modifiée est relue et repeinte
+            tableModel.updateRow(row);
+        } else if (currentLoader != null) {
+            // Un ID recyclé peut précéder les blocs déjà chargés : recharger
             refreshUsers();
+        } else {
+            // Les IDs sont recyclés et attribués par tranches : la ligne prend sa place dans
+            // l'ordre des IDs, pas forcément en fin de table
+            EvenementRafraichissementTable evenement = EvenementRafraichissementTable.debuter();
+            tableModel.insertUser(dialog.getSavedUser());
+            evenement.terminer(1);
+            updateTotal();
+        }
+    }
+    
+    /**
+     * Indique si une écriture peut être reportée sur ses seules lignes, sans recharger
+     * la table : la table montre tous les utilisateurs dans l'ordre des IDs, que ni un
+     * ajout ni une modification ne changent.
+     */
+    private boolean isRowUpdatePossible() {
+        return PerformanceMode.isEnabled() && sortCriterion == null && searchResults == null;
+    }
+    
+    /**
+     * Actualise la table après une écriture qui ne peut pas être reportée sur ses seules
+     * lignes. Une vue triée relit l'index trié du service en gardant critère et sens ;
+     * les autres vues sont rechargées.
+     */
+    private void reloadAfterWrite() {
+        if (sortCriterion == null || searchResults != null) {
+            refreshUsers();
+            return;
+        }
+        EvenementRafraichissementTable evenement = EvenementRafraichissementTable.debuter();
+        tableModel.sortBy(sortCriterion);
+        evenement.terminer(tableModel.getRowCount());
+        totalUsersLabel.setText("Total : " + tableModel.getRowCount() + " utilisateur(s)");
+    }
+    
+    private void updateTotal() {
+        if (currentLoader == null) {
+            totalUsersLabel.setText("Total : " + tableModel.getRowCount() + " utilisateur(s)");
         }
     }
     
     private void editSelectedUser() {
         int selectedRow = usersTable.getSelectedRow();
         if (selectedRow != -1) {
-            int userId = (int) tableModel.getValueAt(selectedRow, 0);
-            serviceUtilisateur.trouverUtilisateurParId(userId).ifPresent(this::showUserForm);
+            int userId = tableModel.getUserIdAt(selectedRow);
+            serviceUtilisateur.trouverUtilisateurParId(userId).ifPresent(user -> showUserForm(user, selectedRow));
         } else {
             JOptionPane.showMessageDialog(this,
                 "Veuillez sélectionner un utilisateur à modifier.",
@@ -251,7 +398,7 @@ public class MainFrame extends JFrame {
     private void deleteSelectedUser() {
         int selectedRow = usersTable.getSelectedRow();
         if (selectedRow != -1) {
-            int userId = (int) tableModel.getValueAt(selectedRow, 0);
+            int userId = tableModel.getUserIdAt(selectedRow);
             String userName = tableModel.getValueAt(selectedRow, 1) + " " + tableModel.getValueAt(selectedRow, 2);
             
             int confirm = JOptionPane.showConfirmDialog(this,
@@ -267,7 +414,12 @@ public class MainFrame extends JFrame {
                         "Utilisateur supprimé avec succès.",
                         "Succès",
                         JOptionPane.INFORMATION_MESSAGE);
-                    refreshUsers();
+                    if (isRowUpdatePossible()) {
+                        tableModel.removeRow(selectedRow);
+                        updateTotal();
+                    } else {
+                        reloadAfterWrite();
+                    }
                 } else {
                     JOptionPane.showMessageDialog(this,
                         "Erreur lors de la suppression de l'utilisateur.",
@@ -283,6 +435,61 @@ public class MainFrame extends JFrame {
         }
     }
     
+    /**
+     * Charge les utilisateurs par blocs hors de l'EDT et les publie vers la table.
+     */
+    private class UserLoader extends SwingWorker<Integer, List<UtilisateurImmuable>> {
+        private final int expectedCount;
+        private int loadedCount;
+        
+        UserLoader(int expectedCount) {
+            this.expectedCount = expectedCount;
+        }
+        
+        @Override
+        protected Integer doInBackground() {
+            int lastId = 0;
+            int total = 0;
+            while (!isCancelled()) {
+                List<UtilisateurImmuable> chunk = serviceUtilisateur.listerUtilisateursApres(lastId, LOAD_CHUNK_SIZE);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                publish(chunk);
+                lastId = chunk.get(chunk.size() - 1).getId();
+                total += chunk.size();
+            }
+            return total;
+        }
+        
+        @Override
+        protected void process(List<List<UtilisateurImmuable>> chunks) {
+            // Un chargement remplacé (recherche, actualisation) ne touche plus la table
+            if (currentLoader != this) {
+                return;
+            }
+            for (List<UtilisateurImmuable> chunk : chunks) {
+                appendRows(chunk);
+                loadedCount += chunk.size();
+            }
+            searchField.setEnabled(true);
+            loadingBar.setMaximum(Math.max(expectedCount, loadedCount));
+            loadingBar.setValue(loadedCount);
+            loadingBar.setString("Chargement : " + loadedCount + " / " + Math.max(expectedCount, loadedCount));
+        }
+        
+        @Override
+        protected void done() {
+            if (currentLoader != this) {
+                return;
+            }
+            currentLoader = null;
+            loadingBar.setVisible(false);
+            searchField.setEnabled(true);
+            totalUsersLabel.setText("Total : " + loadedCount + " utilisateur(s)");
+        }
+    }
+    
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             new MainFrame().setVisible(true);
@@ -0,0 +1,104 @@
+package main.ui;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+
+/**
+ * Rendu des cellules de la table des utilisateurs : une seule étiquette, reconfigurée
+ * pour chaque cellule peinte.
+ * 
+ * Contrairement à DefaultTableCellRenderer, les bordures sont lues une fois et non dans
+ * UIManager à chaque cellule, le texte des IDs déjà affichés est réutilisé au lieu d'être
+ * reconverti, et les notifications de changement de propriété (inutiles pour une
+ * étiquette qui ne sert qu'à peindre) sont supprimées.
+ */
+class UserCellRenderer extends JLabel implements TableCellRenderer {
+    private static final Border NO_FOCUS_BORDER = new EmptyBorder(1, 1, 1, 1);
+    // Cache direct des textes d'IDs, indexé par les bits de poids faible de l'ID
+    private static final int ID_CACHE_SIZE = 1024;
+    
+    private final int[] cachedIds = new int[ID_CACHE_SIZE];
+    private final String[] cachedIdTexts = new String[ID_CACHE_SIZE];
+    private Border focusBorder;
+    
+    UserCellRenderer(int horizontalAlignment) {
+        setOpaque(true);
+        setHorizontalAlignment(horizontalAlignment);
+        setBorder(NO_FOCUS_BORDER);
+    }
+    
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        focusBorder = UIManager.getBorder("Table.focusCellHighlightBorder");
+        if (focusBorder == null) {
+            focusBorder = NO_FOCUS_BORDER;
+        }
+    }
+    
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        if (isSelected) {
+            setForeground(table.getSelectionForeground());
+            setBackground(table.getSelectionBackground());
+        } else {
+            setForeground(table.getForeground());
+            setBackground(table.getBackground());
+        }
+        setFont(table.getFont());
+        setBorder(hasFocus ? focusBorder : NO_FOCUS_BORDER);
+        setText(textOf(value));
+        return this;
+    }
+    
+    private String textOf(Object value) {
+        if (value instanceof Integer) {
+            int id = (Integer) value;
+            int slot = id & (ID_CACHE_SIZE - 1);
+            if (cachedIdTexts[slot] == null || cachedIds[slot] != id) {
+                cachedIds[slot] = id;
+                cachedIdTexts[slot] = Integer.toString(id);
+            }
+            return cachedIdTexts[slot];
+        }
+        return value == null ? "" : value.toString();
+    }
+    
+    // L'étiquette n'est jamais affichée elle-même : ni mise en page ni repeinture à déclencher
+    
+    @Override
+    public void invalidate() {
+    }
+    
+    @Override
+    public void validate() {
+    }
+    
+    @Override
+    public void revalidate() {
+    }
+    
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+    }
+    
+    @Override
+    public void repaint(Rectangle r) {
+    }
+    
+    @Override
+    public void repaint() {
+    }
+    
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    }
+    
+    @Override
+    public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {
+    }
+}
\ No newline at end of file
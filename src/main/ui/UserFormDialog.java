@@ -1,22 +1,30 @@
 package main.ui;
 
+import main.dao.ResultatEcriture;
+import main.model.ErreurValidation;
+import main.model.DonneesUtilisateur;
 import main.model.Utilisateur;
+import main.model.ValidateurUtilisateur;
 import main.service.ServiceUtilisateur;
 import main.ui.components.ModernButton;
+import main.ui.components.Theme;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.List;
 
 /**
  * Dialogue pour ajouter ou modifier un utilisateur.
  */
 public class UserFormDialog extends JDialog {
     private ServiceUtilisateur serviceUtilisateur;
-    private Utilisateur user;
+    private DonneesUtilisateur user;
     private boolean success = false;
+    // Utilisateur enregistré, null si la liste doit être rechargée
+    private DonneesUtilisateur savedUser;
     
     // Composants du formulaire
     private JTextField nomField;
@@ -26,11 +34,7 @@ public class UserFormDialog extends JDialog {
     private JButton saveButton;
     private JButton cancelButton;
     
-    // Couleurs
-    private final Color SUCCESS_COLOR = new Color(39, 174, 96);
-    private final Color NEUTRAL_COLOR = new Color(149, 165, 166);
-    
-    public UserFormDialog(Frame parent, Utilisateur user, ServiceUtilisateur serviceUtilisateur) {
+    public UserFormDialog(Frame parent, DonneesUtilisateur user, ServiceUtilisateur serviceUtilisateur) {
         super(parent, true);
         this.user = user;
         this.serviceUtilisateur = serviceUtilisateur;
@@ -74,7 +78,7 @@ public class UserFormDialog extends JDialog {
         
         // ComboBox des rôles
         roleComboBox = new JComboBox<>(new String[]{"Utilisateur", "Admin", "Manager", "Superviseur"});
-        roleComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        roleComboBox.setFont(Theme.TEXT_FONT);
         
         // Ajout des composants au panel
         formPanel.add(prenomLabel);
@@ -91,19 +95,16 @@ public class UserFormDialog extends JDialog {
     
     private JTextField createTextField() {
         JTextField field = new JTextField();
-        field.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        field.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(189, 195, 199)),
-            BorderFactory.createEmptyBorder(5, 10, 5, 10)
-        ));
+        field.setFont(Theme.TEXT_FONT);
+        field.setBorder(Theme.FIELD_BORDER);
         return field;
     }
     
     private JPanel createButtonPanel() {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
         
-        cancelButton = new ModernButton("Annuler", NEUTRAL_COLOR);
-        saveButton = new ModernButton("Sauvegarder", SUCCESS_COLOR);
+        cancelButton = new ModernButton("Annuler", Theme.NEUTRAL_COLOR);
+        saveButton = new ModernButton("Sauvegarder", Theme.SUCCESS_COLOR);
         saveButton.setEnabled(false);
         
         cancelButton.addActionListener(e -> dispose());
@@ -148,43 +149,39 @@ public class UserFormDialog extends JDialog {
         String email = emailField.getText().trim();
         String role = (String) roleComboBox.getSelectedItem();
         
-        boolean isValid = !prenom.isEmpty() && 
-                         !nom.isEmpty() && 
-                         !email.isEmpty() && 
-                         role != null &&
-                         isValidEmail(email);
+        // Mêmes règles que le service, avec le motif de chaque champ refusé
+        List<ErreurValidation> errors = ValidateurUtilisateur.valider(nom, prenom, email, role);
         
-        saveButton.setEnabled(isValid);
+        saveButton.setEnabled(errors.isEmpty());
         
         // Validation visuelle
-        setFieldValidation(prenomField, !prenom.isEmpty());
-        setFieldValidation(nomField, !nom.isEmpty());
-        setFieldValidation(emailField, isValidEmail(email));
+        setFieldValidation(prenomField, errorFor(errors, ErreurValidation.Champ.PRENOM));
+        setFieldValidation(nomField, errorFor(errors, ErreurValidation.Champ.NOM));
+        setFieldValidation(emailField, errorFor(errors, ErreurValidation.Champ.EMAIL));
+    }
+    
+    private static ErreurValidation errorFor(List<ErreurValidation> errors, ErreurValidation.Champ champ) {
+        for (ErreurValidation error : errors) {
+            if (error.getChamp() == champ) {
+                return error;
+            }
+        }
+        return null;
     }
     
-    private void setFieldValidation(JTextField field, boolean isValid) {
+    private void setFieldValidation(JTextField field, ErreurValidation error) {
+        boolean isValid = error == null;
+        field.setToolTipText(isValid ? null : error.getMessage());
+        // Bordures partagées : une validation par frappe ne crée plus de bordure
         if (field.getText().isEmpty()) {
-            field.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(189, 195, 199)),
-                BorderFactory.createEmptyBorder(5, 10, 5, 10)
-            ));
+            field.setBorder(Theme.FIELD_BORDER);
         } else if (isValid) {
-            field.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(76, 175, 80), 2),
-                BorderFactory.createEmptyBorder(5, 10, 5, 10)
-            ));
+            field.setBorder(Theme.VALID_FIELD_BORDER);
         } else {
-            field.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(new Color(244, 67, 54), 2),
-                BorderFactory.createEmptyBorder(5, 10, 5, 10)
-            ));
+            field.setBorder(Theme.INVALID_FIELD_BORDER);
         }
     }
     
-    private boolean isValidEmail(String email) {
-        return email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-    }
-    
     private void saveUser() {
         String nom = nomField.getText().trim();
         String prenom = prenomField.getText().trim();
@@ -195,10 +192,25 @@ public class UserFormDialog extends JDialog {
         
         if (user == null) {
             // Ajout d'un nouvel utilisateur
-            operationSuccess = serviceUtilisateur.ajouterUtilisateur(nom, prenom, email, role);
+            savedUser = serviceUtilisateur.creerUtilisateur(nom, prenom, email, role).orElse(null);
+            operationSuccess = savedUser != null;
         } else {
-            // Modification d'un utilisateur existant
-            operationSuccess = serviceUtilisateur.modifierUtilisateur(user.getId(), nom, prenom, email, role);
+            // Modification d'un utilisateur existant, seulement s'il n'a pas changé depuis l'ouverture
+            Utilisateur saisie = new Utilisateur(user.getId(), nom, prenom, email, role);
+            ResultatEcriture resultat = serviceUtilisateur.modifierUtilisateur(saisie, user.getVersion());
+            if (resultat == ResultatEcriture.CONFLIT || resultat == ResultatEcriture.INTROUVABLE) {
+                JOptionPane.showMessageDialog(this,
+                    "Cet utilisateur a été modifié ou supprimé entre-temps. La liste va être actualisée.",
+                    "Modification concurrente",
+                    JOptionPane.WARNING_MESSAGE);
+                success = true;
+                dispose();
+                return;
+            }
+            operationSuccess = resultat.estSucces();
+            if (operationSuccess) {
+                savedUser = saisie;
+            }
         }
         
         if (operationSuccess) {
@@ -215,4 +227,12 @@ public class UserFormDialog extends JDialog {
     public boolean isSuccess() {
         return success;
     }
+    
+    /**
+     * @return l'utilisateur ajouté ou modifié, ou null si la liste doit être rechargée
+     *         (modification concurrente)
+     */
+    public DonneesUtilisateur getSavedUser() {
+        return savedUser;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package main.ui;
+
+import main.dao.CritereTri;
+import main.model.DonneesUtilisateur;
+import main.model.UtilisateurImmuable;
+import main.service.ServiceUtilisateur;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Modèle de la table des utilisateurs : ne garde que les IDs des lignes, dans l'ordre
+ * d'affichage, et lit les utilisateurs à la demande pour les seules lignes peintes.
+ * 
+ * Trier revient à remplacer le tableau d'IDs par celui d'un index trié du service ;
+ * inverser le sens ne fait que changer la lecture du tableau, sans rien recopier.
+ */
+public class UserTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"ID", "Prénom", "Nom", "Email", "Rôle"};
+    
+    private final ServiceUtilisateur serviceUtilisateur;
+    private int[] ids = new int[0];
+    private int size;
+    private boolean descending;
+    
+    // Dernière ligne lue : les cinq cellules d'une ligne ne coûtent qu'une lecture
+    private int cachedId = -1;
+    private UtilisateurImmuable cachedUser;
+    
+    public UserTableModel(ServiceUtilisateur serviceUtilisateur) {
+        this.serviceUtilisateur = serviceUtilisateur;
+    }
+    
+    public void clear() {
+        ids = new int[0];
+        size = 0;
+        descending = false;
+        invalidateCache();
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Ajoute des utilisateurs en fin de table avec un seul événement de modification.
+     */
+    public void appendUsers(List<? extends DonneesUtilisateur> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        if (size + users.size() > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(size + users.size(), ids.length * 2));
+        }
+        int firstRow = size;
+        for (DonneesUtilisateur user : users) {
+            ids[size++] = user.getId();
+        }
+        if (descending) {
+            // Les nouvelles lignes arrivent en tête quand le sens est inversé
+            fireTableRowsInserted(0, users.size() - 1);
+        } else {
+            fireTableRowsInserted(firstRow, size - 1);
+        }
+    }
+    
+    /**
+     * Remplace les lignes par des utilisateurs déjà ordonnés.
+     */
+    public void setUsers(List<? extends DonneesUtilisateur> users) {
+        int[] newIds = new int[users.size()];
+        for (int i = 0; i < newIds.length; i++) {
+            newIds[i] = users.get(i).getId();
+        }
+        setIds(newIds);
+    }
+    
+    /**
+     * Remplace les lignes par des IDs dans l'ordre croissant ; le sens courant est conservé.
+     */
+    public void setIds(int[] newIds) {
+        ids = newIds;
+        size = newIds.length;
+        invalidateCache();
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Ordonne les lignes selon l'index trié du service ; le sens courant est conservé.
+     * Rappelé après une écriture, il remet à leur place les lignes ajoutées ou modifiées.
+     * 
+     * @param criterion le critère de tri
+     */
+    public void sortBy(CritereTri criterion) {
+        setIds(serviceUtilisateur.listerIdsTries(criterion));
+    }
+    
+    /**
+     * Relit et repeint une seule ligne, après modification de son utilisateur.
+     */
+    public void updateRow(int row) {
+        invalidateCache();
+        fireTableRowsUpdated(row, row);
+    }
+    
+    /**
+     * Insère un utilisateur à sa place dans l'ordre croissant des IDs, sans recharger la
+     * table : seules les lignes suivantes sont repeintes. Les lignes doivent être dans
+     * l'ordre des IDs ; un ID déjà présent est seulement relu.
+     */
+    public void insertUser(DonneesUtilisateur user) {
+        int index = Arrays.binarySearch(ids, 0, size, user.getId());
+        if (index >= 0) {
+            updateRow(descending ? size - 1 - index : index);
+            return;
+        }
+        index = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(16, ids.length * 2));
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = user.getId();
+        size++;
+        int row = descending ? size - 1 - index : index;
+        fireTableRowsInserted(row, row);
+    }
+    
+    /**
+     * Retire une ligne sans recharger la table : seules les lignes suivantes sont repeintes.
+     */
+    public void removeRow(int row) {
+        int index = descending ? size - 1 - row : row;
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        invalidateCache();
+        fireTableRowsDeleted(row, row);
+    }
+    
+    public boolean isDescending() {
+        return descending;
+    }
+    
+    public void setDescending(boolean descending) {
+        if (this.descending != descending) {
+            this.descending = descending;
+            fireTableDataChanged();
+        }
+    }
+    
+    public int getUserIdAt(int row) {
+        return ids[descending ? size - 1 - row : row];
+    }
+    
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        int id = getUserIdAt(row);
+        if (column == 0) {
+            return id;
+        }
+        UtilisateurImmuable user = userAt(id);
+        if (user == null) {
+            // Supprimé depuis l'affichage : la ligne disparaît à la prochaine actualisation
+            return "";
+        }
+        switch (column) {
+            case 1: return user.getPrenom();
+            case 2: return user.getNom();
+            case 3: return user.getEmail();
+            default: return user.getRole();
+        }
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Rendre la table non éditable
+    }
+    
+    private UtilisateurImmuable userAt(int id) {
+        if (id != cachedId) {
+            cachedUser = serviceUtilisateur.trouverUtilisateurParId(id).orElse(null);
+            cachedId = id;
+        }
+        return cachedUser;
+    }
+    
+    private void invalidateCache() {
+        cachedId = -1;
+        cachedUser = null;
+    }
+}
\ No newline at end of file
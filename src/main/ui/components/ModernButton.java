@@ -5,15 +5,34 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 /**
  * Bouton personnalisé avec style moderne.
+ * 
+ * En mode performance, le rendu de chaque état (normal, survol, appui) est dessiné une
+ * fois dans une image, puis simplement recopié : survoler ou repeindre le bouton ne
+ * redessine plus ni la forme arrondie lissée ni le texte. Les images sont refaites si
+ * la taille, l'échelle d'affichage, le texte ou la police changent.
  */
 public class ModernButton extends JButton {
+    private static final Cursor HAND_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
+    private static final int ARC = 10;
+    
     private Color backgroundColor;
     private Color hoverColor;
     private Color pressedColor;
     
+    // Rendus mis en cache, dans l'ordre normal, survol, appui
+    private final BufferedImage[] stateImages = new BufferedImage[3];
+    private int cachedWidth;
+    private int cachedHeight;
+    private double cachedScale;
+    private String cachedText;
+    private Font cachedFont;
+    private Color cachedForeground;
+    
     public ModernButton(String text, Color baseColor) {
         super(text);
         this.backgroundColor = baseColor;
@@ -29,9 +48,9 @@ public class ModernButton extends JButton {
         setContentAreaFilled(false);
         setOpaque(true);
         setForeground(Color.WHITE);
-        setFont(new Font("Segoe UI", Font.BOLD, 14));
+        setFont(Theme.BOLD_FONT);
         setBorder(new EmptyBorder(10, 20, 10, 20));
-        setCursor(new Cursor(Cursor.HAND_CURSOR));
+        setCursor(HAND_CURSOR);
         
         setBackground(backgroundColor);
         
@@ -61,21 +80,69 @@ public class ModernButton extends JButton {
     
     @Override
     protected void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
+        int state = stateOf(getBackground());
+        if (!PerformanceMode.isEnabled() || state < 0 || getWidth() <= 0 || getHeight() <= 0) {
+            // Couleur posée de l'extérieur : rendu direct, sans cache
+            Graphics2D g2 = (Graphics2D) g.create();
+            render(g2, getBackground(), getWidth(), getHeight());
+            g2.dispose();
+            return;
+        }
+        
+        double scale = ((Graphics2D) g).getTransform().getScaleX();
+        if (getWidth() != cachedWidth || getHeight() != cachedHeight || scale != cachedScale
+                || getText() != cachedText || getFont() != cachedFont || getForeground() != cachedForeground) {
+            Arrays.fill(stateImages, null);
+            cachedWidth = getWidth();
+            cachedHeight = getHeight();
+            cachedScale = scale;
+            cachedText = getText();
+            cachedFont = getFont();
+            cachedForeground = getForeground();
+        }
+        if (stateImages[state] == null) {
+            stateImages[state] = renderImage(getBackground(), scale);
+        }
+        g.drawImage(stateImages[state], 0, 0, cachedWidth, cachedHeight, null);
+    }
+    
+    /**
+     * Dessine le rendu d'un état dans une image à l'échelle d'affichage (écrans haute densité).
+     */
+    private BufferedImage renderImage(Color background, double scale) {
+        BufferedImage image = new BufferedImage((int) Math.ceil(cachedWidth * scale),
+                (int) Math.ceil(cachedHeight * scale), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = image.createGraphics();
+        g2.scale(scale, scale);
+        render(g2, background, cachedWidth, cachedHeight);
+        g2.dispose();
+        return image;
+    }
+    
+    private void render(Graphics2D g2, Color background, int width, int height) {
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
         // Fond arrondi
-        g2.setColor(getBackground());
-        g2.fillRoundRect(0, 0, getWidth(), getHeight(), 10, 10);
+        g2.setColor(background);
+        g2.fillRoundRect(0, 0, width, height, ARC, ARC);
         
         // Texte
         g2.setColor(getForeground());
+        g2.setFont(getFont());
         FontMetrics fm = g2.getFontMetrics();
-        int textX = (getWidth() - fm.stringWidth(getText())) / 2;
-        int textY = (getHeight() - fm.getHeight()) / 2 + fm.getAscent();
+        int textX = (width - fm.stringWidth(getText())) / 2;
+        int textY = (height - fm.getHeight()) / 2 + fm.getAscent();
         g2.drawString(getText(), textX, textY);
-        
-        g2.dispose();
+    }
+    
+    private int stateOf(Color background) {
+        if (background == backgroundColor) {
+            return 0;
+        }
+        if (background == hoverColor) {
+            return 1;
+        }
+        return background == pressedColor ? 2 : -1;
     }
     
     private Color darkenColor(Color color, float factor) {
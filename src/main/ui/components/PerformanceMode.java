@@ -0,0 +1,21 @@
+package main.ui.components;
+
+/**
+ * Mode de rendu économe, actif par défaut : fonds de boutons mis en cache, rendu des
+ * cellules sans allocation et repeinture limitée aux lignes modifiées.
+ * 
+ * {@code -Dusermanager.ui.performance=false} revient au rendu complet à chaque
+ * repeinture, pour comparer les deux avec {@link RepaintOverlay}.
+ */
+public final class PerformanceMode {
+    public static final String PROPERTY = "usermanager.ui.performance";
+    
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+    
+    private PerformanceMode() {
+    }
+    
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package main.ui.components;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.KeyEvent;
+
+/**
+ * Mesure de l'affichage superposée à une fenêtre : nombre de repeintures par seconde et
+ * durée moyenne et maximale d'une repeinture sur la dernière seconde.
+ * 
+ * Les repeintures sont chronométrées par un RepaintManager installé le temps de la
+ * mesure (Swing remplace alors son tampon d'affichage par une image, d'où une mesure
+ * activée seulement à la demande). F12 l'affiche ou la masque ; elle est affichée dès le
+ * démarrage avec {@code -Dusermanager.ui.overlay=true}.
+ */
+public final class RepaintOverlay extends JComponent {
+    public static final String PROPERTY = "usermanager.ui.overlay";
+    
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 24;
+    private static final int MARGIN = 8;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    
+    private final TimingRepaintManager timingManager = new TimingRepaintManager();
+    private final Timer timer = new Timer(1000, e -> publish());
+    private RepaintManager previousManager;
+    private String text = "Mesure en cours...";
+    
+    private RepaintOverlay() {
+        setOpaque(false);
+        setVisible(false);
+    }
+    
+    /**
+     * Ajoute la mesure à une fenêtre, masquée sauf si la propriété {@value #PROPERTY} est vraie.
+     * 
+     * @param rootPane la racine de la fenêtre
+     */
+    public static void install(JRootPane rootPane) {
+        RepaintOverlay overlay = new RepaintOverlay();
+        JLayeredPane layeredPane = rootPane.getLayeredPane();
+        layeredPane.add(overlay, JLayeredPane.POPUP_LAYER);
+        
+        // En bas à droite de la fenêtre, quelle que soit sa taille
+        layeredPane.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                overlay.setBounds(layeredPane.getWidth() - WIDTH - MARGIN,
+                        layeredPane.getHeight() - HEIGHT - MARGIN, WIDTH, HEIGHT);
+            }
+        });
+        
+        rootPane.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_F12, 0), "toggleRepaintOverlay");
+        rootPane.getActionMap().put("toggleRepaintOverlay", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                overlay.setActive(!overlay.isVisible());
+            }
+        });
+        
+        if (Boolean.getBoolean(PROPERTY)) {
+            overlay.setActive(true);
+        }
+    }
+    
+    private void setActive(boolean active) {
+        if (active) {
+            previousManager = RepaintManager.currentManager(this);
+            timingManager.reset();
+            RepaintManager.setCurrentManager(timingManager);
+            timer.start();
+        } else {
+            timer.stop();
+            RepaintManager.setCurrentManager(previousManager);
+        }
+        setVisible(active);
+    }
+    
+    /**
+     * Affiche les mesures de la seconde écoulée et repart de zéro ; la repeinture de la
+     * mesure elle-même compte dans la seconde suivante.
+     */
+    private void publish() {
+        int frames = timingManager.frames;
+        double average = frames == 0 ? 0 : timingManager.totalNanos / 1e6 / frames;
+        text = String.format("%d img/s  moy %.2f ms  max %.2f ms", frames, average, timingManager.maxNanos / 1e6);
+        timingManager.reset();
+        repaint();
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        g.setColor(Color.WHITE);
+        g.setFont(FONT);
+        FontMetrics fm = g.getFontMetrics();
+        g.drawString(text, 8, (getHeight() - fm.getHeight()) / 2 + fm.getAscent());
+    }
+    
+    /**
+     * RepaintManager qui chronomètre chaque passe de repeinture ; tout se passe dans
+     * l'EDT, comme la lecture des compteurs par le minuteur.
+     */
+    private static final class TimingRepaintManager extends RepaintManager {
+        int frames;
+        long totalNanos;
+        long maxNanos;
+        
+        @Override
+        public void paintDirtyRegions() {
+            long start = System.nanoTime();
+            super.paintDirtyRegions();
+            long duration = System.nanoTime() - start;
+            frames++;
+            totalNanos += duration;
+            maxNanos = Math.max(maxNanos, duration);
+        }
+        
+        void reset() {
+            frames = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package main.ui.components;
+
+import javax.swing.BorderFactory;
+import javax.swing.border.Border;
+import java.awt.Color;
+import java.awt.Font;
+
+/**
+ * Couleurs, polices et bordures partagées par toute l'interface.
+ * 
+ * Ces objets sont immuables : une seule instance de chaque sert à tous les composants,
+ * au lieu d'une nouvelle police ou couleur par composant créé ou par validation de saisie.
+ */
+public final class Theme {
+    public static final Color PRIMARY_COLOR = new Color(41, 128, 185);
+    public static final Color SUCCESS_COLOR = new Color(39, 174, 96);
+    public static final Color WARNING_COLOR = new Color(243, 156, 18);
+    public static final Color DANGER_COLOR = new Color(231, 76, 60);
+    public static final Color NEUTRAL_COLOR = new Color(149, 165, 166);
+    public static final Color BACKGROUND_COLOR = new Color(245, 246, 250);
+    public static final Color TITLE_COLOR = new Color(44, 62, 80);
+    public static final Color SECONDARY_TEXT_COLOR = new Color(127, 140, 141);
+    public static final Color BORDER_COLOR = new Color(189, 195, 199);
+    public static final Color HEADER_COLOR = new Color(52, 73, 94);
+    public static final Color GRID_COLOR = new Color(236, 240, 241);
+    public static final Color VALID_COLOR = new Color(76, 175, 80);
+    public static final Color INVALID_COLOR = new Color(244, 67, 54);
+    
+    public static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 24);
+    public static final Font TEXT_FONT = new Font("Segoe UI", Font.PLAIN, 14);
+    public static final Font BOLD_FONT = new Font("Segoe UI", Font.BOLD, 14);
+    
+    public static final Border FIELD_BORDER = fieldBorder(BORDER_COLOR, 1);
+    public static final Border VALID_FIELD_BORDER = fieldBorder(VALID_COLOR, 2);
+    public static final Border INVALID_FIELD_BORDER = fieldBorder(INVALID_COLOR, 2);
+    
+    private Theme() {
+    }
+    
+    private static Border fieldBorder(Color color, int thickness) {
+        return BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(color, thickness),
+            BorderFactory.createEmptyBorder(5, 10, 5, 10)
+        );
+    }
+}
\ No newline at end of file
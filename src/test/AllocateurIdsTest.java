@@ -0,0 +1,147 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import main.dao.AllocateurIds;
+import main.dao.ResultatEcriture;
+import main.dao.Transaction;
+import main.dao.UtilisateurDAO;
+import main.model.Utilisateur;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests unitaires pour la classe AllocateurIds.
+ */
+public class AllocateurIdsTest {
+    
+    @Test
+    public void testIdsConsecutifsSansConcurrence() {
+        AllocateurIds allocateur = new AllocateurIds();
+        for (int id = 1; id <= 200; id++) {
+            assertEquals(id, allocateur.allouer());
+        }
+    }
+    
+    @Test
+    public void testIdsUniquesEnConcurrence() throws Exception {
+        AllocateurIds allocateur = new AllocateurIds();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executeur = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                taches.add(executeur.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        assertTrue(ids.add(allocateur.allouer()));
+                    }
+                }));
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+        } finally {
+            executeur.shutdown();
+        }
+        assertEquals(80_000, ids.size());
+        assertTrue(allocateur.getMarqueHaute() > 80_000);
+    }
+    
+    @Test
+    public void testPlagesReserveesEtRendues() {
+        AllocateurIds allocateur = new AllocateurIds();
+        AllocateurIds.Plage plage = allocateur.reserver(100);
+        assertEquals(1, plage.getDebut());
+        assertEquals(101, plage.getFin());
+        
+        // Les 40 derniers IDs ne servent pas : ils sont redistribués avant tout nouveau bloc
+        allocateur.rendre(plage.reste(61));
+        for (int id = 61; id <= 100; id++) {
+            assertEquals(id, allocateur.allouer());
+        }
+        assertEquals(101, allocateur.allouer());
+    }
+    
+    @Test
+    public void testMarqueHautePersistee() throws Exception {
+        Path repertoire = Files.createTempDirectory("ids");
+        Path fichier = repertoire.resolve("marque");
+        try {
+            AllocateurIds allocateur = new AllocateurIds(fichier);
+            int dernier = 0;
+            for (int i = 0; i < 5000; i++) {
+                dernier = allocateur.allouer();
+            }
+            allocateur.signalerUtilise(9000);
+            
+            // Après redémarrage, aucun ID déjà distribué ou utilisé ne revient
+            AllocateurIds apresRedemarrage = new AllocateurIds(fichier);
+            assertTrue(apresRedemarrage.allouer() > Math.max(dernier, 9000));
+        } finally {
+            Files.deleteIfExists(fichier);
+            Files.deleteIfExists(repertoire);
+        }
+    }
+    
+    @Test
+    public void testIdRenduApresTransactionAnnulee() {
+        UtilisateurDAO utilisateurDAO = new UtilisateurDAO();
+        Utilisateur refuse;
+        try (Transaction transaction = utilisateurDAO.demarrerTransaction()) {
+            refuse = new Utilisateur(0, "Petit", "Léa", "lea.petit@email.com", "Admin");
+            assertTrue(transaction.ajouter(refuse));
+            assertEquals(4, refuse.getId());
+        }
+        // Transaction annulée : l'ID est retiré à l'utilisateur et redistribué
+        assertEquals(0, refuse.getId());
+        
+        // Une fois le bloc courant (5 à 64) épuisé, l'ID 4 revient avant tout nouveau bloc
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (int i = 0; i < 61; i++) {
+            Utilisateur utilisateur = new Utilisateur(0, "Nom" + i, "Prenom", "u" + i + "@email.com", "Utilisateur");
+            assertTrue(utilisateurDAO.ajouter(utilisateur));
+            ids.add(utilisateur.getId());
+        }
+        assertEquals(4, (int) ids.first());
+        assertEquals(64, (int) ids.last());
+    }
+    
+    @Test
+    public void testIdRenduApresCommitRefuseReutiliseSaChaine() {
+        UtilisateurDAO utilisateurDAO = new UtilisateurDAO();
+        Utilisateur refuse = new Utilisateur(0, "Petit", "Léa", "jean.dupont@email.com", "Admin");
+        try (Transaction transaction = utilisateurDAO.demarrerTransaction()) {
+            assertTrue(transaction.ajouter(refuse));
+            // L'email déjà pris n'est détecté qu'au commit, après l'installation de la version
+            assertEquals(ResultatEcriture.EMAIL_DEJA_UTILISE, transaction.valider());
+        }
+        assertEquals(0, refuse.getId());
+        assertTrue(utilisateurDAO.trouverParId(4).isEmpty());
+        
+        // L'ID 4 revient avec sa chaîne déjà placée, désormais vide
+        Utilisateur reutilise = null;
+        for (int i = 0; i < 61; i++) {
+            Utilisateur utilisateur = new Utilisateur(0, "Nom" + i, "Prenom", "u" + i + "@email.com", "Utilisateur");
+            assertTrue(utilisateurDAO.ajouter(utilisateur));
+            if (utilisateur.getId() == 4) {
+                reutilise = utilisateur;
+            }
+        }
+        assertNotNull(reutilise);
+        assertEquals(1, reutilise.getVersion());
+        assertEquals(reutilise.getNom(), utilisateurDAO.trouverParId(4).get().getNom());
+        assertEquals(64, utilisateurDAO.compter());
+        assertEquals(64, utilisateurDAO.listerTous().size());
+    }
+}
\ No newline at end of file
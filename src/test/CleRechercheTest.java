@@ -0,0 +1,42 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import main.dao.UtilisateurDAO;
+import main.model.CleRecherche;
+import main.model.Utilisateur;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la normalisation des recherches.
+ */
+public class CleRechercheTest {
+    
+    @Test
+    public void testAccentsEtCasse() {
+        assertEquals("beatrice", CleRecherche.normaliser("Béatrice"));
+        assertEquals("beatrice", CleRecherche.normaliser("BÉATRICE"));
+        assertEquals("helene lefevre", CleRecherche.normaliser("Hélène Lefèvre"));
+        assertEquals("francois", CleRecherche.normaliser("François"));
+        assertEquals("coeur", CleRecherche.normaliser("Cœur"));
+        assertNull(CleRecherche.normaliser(null));
+    }
+    
+    @Test
+    public void testCleDejaNormaliseeSansCopie() {
+        String cle = "dupont";
+        assertSame(cle, CleRecherche.normaliser(cle));
+    }
+    
+    @Test
+    public void testRechercheSansAccents() {
+        UtilisateurDAO dao = new UtilisateurDAO();
+        assertTrue(dao.ajouter(new Utilisateur(0, "Lefèvre", "Béatrice", "beatrice.lefevre@email.com", "Utilisateur")));
+        
+        assertEquals(1, dao.rechercherParNom("lefevre").size());
+        assertEquals(1, dao.rechercherParNom("LEFÈVRE").size());
+        assertEquals(1, dao.rechercherParNom("Lefe").size());
+        assertEquals(0, dao.rechercherParNom("Lefevr e").size());
+    }
+}
\ No newline at end of file
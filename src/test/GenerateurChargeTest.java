@@ -0,0 +1,92 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import main.charge.GenerateurCharge;
+import main.charge.GenerateurUtilisateurs;
+import main.charge.OperationCharge;
+import main.charge.ParametresCharge;
+import main.charge.RapportCharge;
+import main.model.Utilisateur;
+import main.service.ServiceUtilisateur;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests unitaires pour le générateur de charge et son jeu d'utilisateurs synthétiques.
+ */
+public class GenerateurChargeTest {
+    
+    @Test
+    public void testJeuReproductibleEtValide() {
+        List<Utilisateur> jeu = new GenerateurUtilisateurs(7).generer(0, 5_000);
+        List<Utilisateur> memeJeu = new GenerateurUtilisateurs(7).generer(0, 5_000);
+        assertEquals(5_000, jeu.size());
+        
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < jeu.size(); i++) {
+            Utilisateur utilisateur = jeu.get(i);
+            assertTrue(utilisateur.estValide(), utilisateur.toString());
+            assertTrue(emails.add(utilisateur.getEmail()));
+            assertEquals(utilisateur.getEmail(), memeJeu.get(i).getEmail());
+        }
+        assertNotEquals(jeu.get(0).getEmail(), new GenerateurUtilisateurs(8).generer(0).getEmail());
+    }
+    
+    @Test
+    public void testLecteurDesParametres() {
+        ParametresCharge parametres = ParametresCharge.lire(new String[] {
+            "--utilisateurs", "500", "--fils", "3", "--debit", "1000", "--melange", "lecture=70,recherche=30"
+        });
+        assertEquals(500, parametres.getUtilisateurs());
+        assertEquals(3, parametres.getFils());
+        assertEquals(1000, parametres.getDebit());
+        assertEquals(70, parametres.getPoids(OperationCharge.LECTURE));
+        assertEquals(0, parametres.getPoids(OperationCharge.SUPPRESSION));
+        
+        assertThrows(IllegalArgumentException.class, () -> ParametresCharge.lire(new String[] {"--inconnue", "1"}));
+        assertThrows(IllegalArgumentException.class, () -> ParametresCharge.lire(new String[] {"--fils", "0"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GenerateurCharge(new ServiceUtilisateur(), new ParametresCharge().melange("lecture=0"), System.out));
+    }
+    
+    @Test
+    public void testExecutionCourte() {
+        ServiceUtilisateur service = new ServiceUtilisateur();
+        ParametresCharge parametres = new ParametresCharge().utilisateurs(2_000).fils(2).duree(1).intervalle(1);
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        
+        RapportCharge bilan = new GenerateurCharge(service, parametres, new PrintStream(sortie)).executer();
+        
+        assertTrue(sortie.toString().contains(" : 2003 utilisateurs"));
+        assertTrue(bilan.getNombreTotal() > 0);
+        assertTrue(bilan.getNombre(OperationCharge.LECTURE) > bilan.getNombre(OperationCharge.SUPPRESSION));
+        // Seules des modifications concurrentes du même utilisateur peuvent entrer en conflit
+        for (OperationCharge operation : OperationCharge.values()) {
+            if (operation != OperationCharge.MODIFICATION) {
+                assertEquals(0, bilan.getEchecs(operation), operation.getNom());
+            }
+        }
+        assertTrue(bilan.getLatence(OperationCharge.LECTURE, 50) <= bilan.getLatence(OperationCharge.LECTURE, 99.9));
+        assertTrue(bilan.getDebit() > 0);
+    }
+    
+    @Test
+    public void testDebitVise() {
+        ParametresCharge parametres = new ParametresCharge().utilisateurs(100).fils(2).debit(200).duree(1)
+                .melange("lecture=1");
+        
+        RapportCharge bilan = new GenerateurCharge(new ServiceUtilisateur(), parametres,
+                new PrintStream(new ByteArrayOutputStream())).executer();
+        
+        // Environ 200 lectures en une seconde, ni plus ni beaucoup moins
+        long lectures = bilan.getNombre(OperationCharge.LECTURE);
+        assertTrue(lectures >= 150 && lectures <= 205, String.valueOf(lectures));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import main.audit.EntreeAudit;
+import main.audit.JournalAudit;
+import main.audit.OperationAudit;
+import main.model.Utilisateur;
+import main.service.ServiceUtilisateur;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Tests unitaires pour la classe JournalAudit.
+ */
+public class JournalAuditTest {
+    
+    @Test
+    public void testRechercheParIdEtPeriode() throws Exception {
+        Path repertoire = Files.createTempDirectory("audit");
+        try (JournalAudit journal = new JournalAudit(repertoire)) {
+            Utilisateur avant = new Utilisateur(1, "Dupont", "Jean", "jean@example.com", "Admin");
+            Utilisateur apres = new Utilisateur(1, "Dupont", "Jean", "jean.dupont@example.com", "Admin");
+            long debut = System.currentTimeMillis();
+            journal.enregistrer(OperationAudit.AJOUT, 1, null, avant, "alice");
+            journal.enregistrer(OperationAudit.AJOUT, 2, null, new Utilisateur(2, "Martin", "Marie",
+                    "marie@example.com", "Utilisateur"), "alice");
+            journal.enregistrer(OperationAudit.MODIFICATION, 1, avant, apres, "bob");
+            journal.enregistrer(OperationAudit.SUPPRESSION, 1, apres, null, "bob");
+            long fin = System.currentTimeMillis();
+            
+            List<EntreeAudit> historique = journal.rechercher(1, debut, fin);
+            assertEquals(3, historique.size());
+            assertEquals(OperationAudit.AJOUT, historique.get(0).getOperation());
+            assertNull(historique.get(0).getAvant());
+            assertEquals(OperationAudit.MODIFICATION, historique.get(1).getOperation());
+            assertEquals("bob", historique.get(1).getAuteur());
+            assertEquals("jean@example.com", historique.get(1).getAvant().getEmail());
+            assertEquals("jean.dupont@example.com", historique.get(1).getApres().getEmail());
+            assertNull(historique.get(2).getApres());
+            
+            assertEquals(4, journal.rechercherPeriode(debut, fin).size());
+            assertTrue(journal.rechercher(1, fin + 1, fin + 60_000).isEmpty());
+            assertTrue(journal.rechercher(3, debut, fin).isEmpty());
+        } finally {
+            supprimer(repertoire);
+        }
+    }
+    
+    @Test
+    public void testRotationDesSegments() throws Exception {
+        Path repertoire = Files.createTempDirectory("audit");
+        try (JournalAudit journal = new JournalAudit(repertoire, 50)) {
+            long[] bornes = new long[4];
+            for (int periode = 0; periode < 3; periode++) {
+                bornes[periode] = System.currentTimeMillis();
+                journal.enregistrer(OperationAudit.AJOUT, periode + 1, null,
+                        new Utilisateur(periode + 1, "Nom", "Prenom", "u" + periode + "@example.com", "Role"), "alice");
+                Thread.sleep(120);
+            }
+            bornes[3] = System.currentTimeMillis();
+            journal.synchroniser();
+            
+            try (Stream<Path> fichiers = Files.list(repertoire)) {
+                assertEquals(3, fichiers.count());
+            }
+            List<EntreeAudit> milieu = journal.rechercherPeriode(bornes[1], bornes[2] - 1);
+            assertEquals(1, milieu.size());
+            assertEquals(2, milieu.get(0).getIdUtilisateur());
+            assertEquals(3, journal.rechercherPeriode(bornes[0], bornes[3]).size());
+        } finally {
+            supprimer(repertoire);
+        }
+    }
+    
+    @Test
+    public void testRelectureApresReouvertureEtBlocCorrompu() throws Exception {
+        Path repertoire = Files.createTempDirectory("audit");
+        try {
+            long debut = System.currentTimeMillis();
+            try (JournalAudit journal = new JournalAudit(repertoire)) {
+                for (int id = 1; id <= 10; id++) {
+                    journal.enregistrer(OperationAudit.AJOUT, id, null,
+                            new Utilisateur(id, "Nom", "Prenom", "u" + id + "@example.com", "Role"), "alice");
+                }
+            }
+            // Arrêt brutal simulé : un bloc à moitié écrit en fin de segment
+            try (Stream<Path> fichiers = Files.list(repertoire)) {
+                for (Path fichier : (Iterable<Path>) fichiers::iterator) {
+                    Files.write(fichier, new byte[] {0x41, 0x55, 0x44, 0x49, 0, 0, 0x10}, StandardOpenOption.APPEND);
+                }
+            }
+            
+            try (JournalAudit journal = new JournalAudit(repertoire)) {
+                assertEquals(10, journal.rechercherPeriode(debut, Long.MAX_VALUE).size());
+                journal.enregistrer(OperationAudit.SUPPRESSION, 5, new Utilisateur(5, "Nom", "Prenom",
+                        "u5@example.com", "Role"), null, "bob");
+                List<EntreeAudit> historique = journal.rechercher(5, debut, Long.MAX_VALUE);
+                assertEquals(2, historique.size());
+                assertEquals(OperationAudit.SUPPRESSION, historique.get(1).getOperation());
+                assertEquals(11, journal.rechercherPeriode(debut, Long.MAX_VALUE).size());
+            }
+        } finally {
+            supprimer(repertoire);
+        }
+    }
+    
+    @Test
+    public void testEnregistrementsConcurrents() throws Exception {
+        Path repertoire = Files.createTempDirectory("audit");
+        ExecutorService executeur = Executors.newFixedThreadPool(8);
+        try (JournalAudit journal = new JournalAudit(repertoire)) {
+            long debut = System.currentTimeMillis();
+            List<Future<?>> taches = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int premier = t * 10_000;
+                taches.add(executeur.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        journal.enregistrer(OperationAudit.SUPPRESSION, premier + i, new Utilisateur(premier + i,
+                                "Nom", "Prenom", "u@example.com", "Role"), null, "charge");
+                    }
+                }));
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+            
+            List<EntreeAudit> entrees = journal.rechercherPeriode(debut, Long.MAX_VALUE);
+            assertEquals(80_000, entrees.size());
+            assertEquals(80_000, entrees.stream().mapToInt(EntreeAudit::getIdUtilisateur).distinct().count());
+            assertEquals(1, journal.rechercher(42_424, debut, Long.MAX_VALUE).size());
+        } finally {
+            executeur.shutdown();
+            supprimer(repertoire);
+        }
+    }
+    
+    @Test
+    public void testServiceJournaliseLesModifications() throws Exception {
+        Path repertoire = Files.createTempDirectory("audit");
+        try (JournalAudit journal = new JournalAudit(repertoire)) {
+            ServiceUtilisateur service = new ServiceUtilisateur(journal, () -> "alice");
+            long debut = System.currentTimeMillis();
+            
+            Utilisateur cree = service.creerUtilisateur("Durand", "Paul", "paul@example.com", "Utilisateur").get();
+            assertTrue(service.modifierUtilisateur(cree.getId(), "Durand", "Paul", "paul.durand@example.com",
+                    "Utilisateur"));
+            assertTrue(service.changerRoleUtilisateurs(List.of(cree.getId()), "Admin").estSucces());
+            assertTrue(service.supprimerUtilisateur(cree.getId()));
+            assertFalse(service.supprimerUtilisateur(cree.getId()));
+            
+            List<EntreeAudit> historique = journal.rechercher(cree.getId(), debut, Long.MAX_VALUE);
+            assertEquals(4, historique.size());
+            assertEquals(OperationAudit.AJOUT, historique.get(0).getOperation());
+            assertEquals(1, historique.get(0).getApres().getVersion());
+            
+            EntreeAudit modification = historique.get(1);
+            assertEquals("paul@example.com", modification.getAvant().getEmail());
+            assertEquals("paul.durand@example.com", modification.getApres().getEmail());
+            assertEquals(modification.getAvant().getVersion() + 1, modification.getApres().getVersion());
+            
+            EntreeAudit role = historique.get(2);
+            assertEquals("Utilisateur", role.getAvant().getRole());
+            assertEquals("Admin", role.getApres().getRole());
+            
+            EntreeAudit suppression = historique.get(3);
+            assertEquals(OperationAudit.SUPPRESSION, suppression.getOperation());
+            assertEquals("Admin", suppression.getAvant().getRole());
+            assertEquals(role.getApres().getVersion(), suppression.getAvant().getVersion());
+            assertNull(suppression.getApres());
+            assertTrue(historique.stream().allMatch(entree -> "alice".equals(entree.getAuteur())));
+        } finally {
+            supprimer(repertoire);
+        }
+    }
+    
+    private static void supprimer(Path repertoire) throws IOException {
+        try (Stream<Path> fichiers = Files.walk(repertoire)) {
+            for (Path fichier : (Iterable<Path>) fichiers.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(fichier);
+            }
+        }
+    }
+}
\ No newline at end of file
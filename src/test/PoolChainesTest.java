@@ -0,0 +1,74 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import main.service.PoolChaines;
+import main.service.ServiceUtilisateur;
+import main.model.Utilisateur;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests unitaires pour la classe PoolChaines.
+ */
+public class PoolChainesTest {
+    
+    @Test
+    public void testChainesEgalesPartagees() {
+        PoolChaines pool = new PoolChaines(64);
+        String premiere = pool.canoniser(new String("Admin"));
+        String seconde = pool.canoniser(new String("Admin"));
+        assertSame(premiere, seconde);
+        assertSame(premiere, pool.canoniserSansEspaces("  Admin "));
+        assertNull(pool.canoniser(null));
+    }
+    
+    @Test
+    public void testPoolBorne() {
+        PoolChaines pool = new PoolChaines(10);
+        assertEquals(16, pool.getCapacite());
+        
+        // Bien plus de chaînes que la capacité : le pool reste correct, il retient seulement moins
+        for (int i = 0; i < 10_000; i++) {
+            String chaine = "Nom" + i;
+            assertEquals(chaine, pool.canoniser(chaine));
+        }
+        String recente = pool.canoniser("Nom9999");
+        assertSame(recente, pool.canoniser(new String("Nom9999")));
+    }
+    
+    @Test
+    public void testCanonisationConcurrente() throws Exception {
+        PoolChaines pool = new PoolChaines(256);
+        ExecutorService executeur = Executors.newFixedThreadPool(8);
+        List<Future<?>> taches = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            taches.add(executeur.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    String role = "Role" + (i % 16);
+                    assertEquals(role, pool.canoniser(role));
+                }
+            }));
+        }
+        executeur.shutdown();
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        assertSame(pool.canoniser(new String("Role3")), pool.canoniser(new String("Role3")));
+    }
+    
+    @Test
+    public void testServicePartageLesRoles() {
+        ServiceUtilisateur service = new ServiceUtilisateur();
+        Utilisateur premier = service.creerUtilisateur(new String("Petit"), "Léa", "lea.petit@email.com", new String("Manager ")).get();
+        Utilisateur second = service.creerUtilisateur(new String("Petit"), "Paul", "paul.petit@email.com", new String(" Manager")).get();
+        assertSame(premier.getRole(), second.getRole());
+        assertSame(premier.getNom(), second.getNom());
+    }
+}
\ No newline at end of file
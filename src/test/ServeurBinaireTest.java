@@ -0,0 +1,83 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.api.ClientBinaire;
+import main.api.ServeurBinaire;
+import main.model.UtilisateurImmuable;
+import main.service.ServiceUtilisateur;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tests du protocole binaire, sur un serveur local démarré sur un port libre.
+ */
+public class ServeurBinaireTest {
+    private ServiceUtilisateur serviceUtilisateur;
+    private ServeurBinaire serveur;
+    private ClientBinaire client;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        serviceUtilisateur = new ServiceUtilisateur();
+        serveur = new ServeurBinaire(serviceUtilisateur, 0);
+        serveur.demarrer();
+        client = new ClientBinaire("localhost", serveur.getPort());
+    }
+    
+    @AfterEach
+    public void tearDown() throws Exception {
+        client.close();
+        serveur.arreter();
+    }
+    
+    @Test
+    public void testLire() throws Exception {
+        assertTrue(client.ping());
+        
+        Optional<UtilisateurImmuable> utilisateur = client.lire(2);
+        assertTrue(utilisateur.isPresent());
+        assertEquals("Martin", utilisateur.get().getNom());
+        assertEquals("marie.martin@email.com", utilisateur.get().getEmail());
+        
+        assertTrue(client.lire(999).isEmpty());
+    }
+    
+    @Test
+    public void testLireAccents() throws Exception {
+        serviceUtilisateur.ajouterUtilisateur("Lefèvre", "Béatrice", "beatrice.lefevre@email.com", "Admin");
+        int id = serviceUtilisateur.rechercherUtilisateursParNom("Lefèvre").get(0).getId();
+        
+        Optional<UtilisateurImmuable> utilisateur = client.lire(id);
+        assertEquals("Lefèvre", utilisateur.get().getNom());
+        assertEquals("Béatrice", utilisateur.get().getPrenom());
+    }
+    
+    @Test
+    public void testLireLot() throws Exception {
+        List<Optional<UtilisateurImmuable>> resultats = client.lireLot(3, 999, 1);
+        assertEquals(3, resultats.size());
+        assertEquals("Bernard", resultats.get(0).get().getNom());
+        assertTrue(resultats.get(1).isEmpty());
+        assertEquals("Dupont", resultats.get(2).get().getNom());
+    }
+    
+    @Test
+    public void testRequetesEnchainees() throws Exception {
+        int[] ids = new int[5000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i % 4 + 1;
+        }
+        
+        List<Optional<UtilisateurImmuable>> resultats = client.lireEnChaine(ids);
+        assertEquals(ids.length, resultats.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i] != 4, resultats.get(i).isPresent());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.api.Json;
+import main.api.ServeurHttp;
+import main.service.ServiceUtilisateur;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests de l'API HTTP, sur un serveur local démarré sur un port libre.
+ */
+public class ServeurHttpTest {
+    private ServeurHttp serveur;
+    private HttpClient client;
+    private String base;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        serveur = new ServeurHttp(new ServiceUtilisateur(), 0);
+        serveur.demarrer();
+        client = HttpClient.newHttpClient();
+        base = "http://localhost:" + serveur.getPort() + ServeurHttp.CHEMIN_API;
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        serveur.arreter();
+    }
+    
+    private HttpResponse<String> envoyer(HttpRequest.Builder requete) throws Exception {
+        return client.send(requete.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    @Test
+    public void testListerPage() throws Exception {
+        HttpResponse<String> reponse = envoyer(HttpRequest.newBuilder(URI.create(base + "?page=0&taille=2")));
+        assertEquals(200, reponse.statusCode());
+        
+        Map<String, Object> corps = Json.lireObjet(reponse.body());
+        assertEquals(3L, corps.get("total"));
+        assertEquals(2, ((List<?>) corps.get("utilisateurs")).size());
+    }
+    
+    @Test
+    public void testEtagConditionnel() throws Exception {
+        HttpResponse<String> premiere = envoyer(HttpRequest.newBuilder(URI.create(base + "/1")));
+        assertEquals(200, premiere.statusCode());
+        String etag = premiere.headers().firstValue("ETag").orElseThrow();
+        
+        HttpResponse<String> seconde = envoyer(HttpRequest.newBuilder(URI.create(base + "/1"))
+                .header("If-None-Match", etag));
+        assertEquals(304, seconde.statusCode());
+        
+        envoyer(HttpRequest.newBuilder(URI.create(base + "/1"))
+                .PUT(HttpRequest.BodyPublishers.ofString(
+                        "{\"nom\":\"Durand\",\"prenom\":\"Jean\",\"email\":\"jean.durand@email.com\",\"role\":\"Admin\"}")));
+        HttpResponse<String> apresModification = envoyer(HttpRequest.newBuilder(URI.create(base + "/1"))
+                .header("If-None-Match", etag));
+        assertEquals(200, apresModification.statusCode());
+        assertEquals("Durand", Json.lireObjet(apresModification.body()).get("nom"));
+    }
+    
+    @Test
+    public void testModificationRenvoieUtilisateurEcrit() throws Exception {
+        String etag = envoyer(HttpRequest.newBuilder(URI.create(base + "/1"))).headers().firstValue("ETag").orElseThrow();
+        
+        // If-None-Match ne concerne que les lectures : la modification répond toujours 200
+        HttpResponse<String> reponse = envoyer(HttpRequest.newBuilder(URI.create(base + "/1"))
+                .header("If-Match", etag)
+                .header("If-None-Match", "*")
+                .PUT(HttpRequest.BodyPublishers.ofString(
+                        "{\"nom\":\" Durand \",\"prenom\":\"Jean\",\"email\":\"jean.durand@email.com\",\"role\":\"Admin\"}")));
+        assertEquals(200, reponse.statusCode());
+        Map<String, Object> corps = Json.lireObjet(reponse.body());
+        assertEquals("Durand", corps.get("nom"));
+        String nouvelEtag = reponse.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(etag, nouvelEtag);
+        assertEquals(nouvelEtag, envoyer(HttpRequest.newBuilder(URI.create(base + "/1")))
+                .headers().firstValue("ETag").orElseThrow());
+    }
+    
+    @Test
+    public void testCreerEtSupprimer() throws Exception {
+        HttpResponse<String> creation = envoyer(HttpRequest.newBuilder(URI.create(base))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"nom\":\"Petit\",\"prenom\":\"Léa\",\"email\":\"lea.petit@email.com\",\"role\":\"Manager\"}")));
+        assertEquals(201, creation.statusCode());
+        long id = (Long) Json.lireObjet(creation.body()).get("id");
+        
+        assertEquals(204, envoyer(HttpRequest.newBuilder(URI.create(base + "/" + id)).DELETE()).statusCode());
+        assertEquals(404, envoyer(HttpRequest.newBuilder(URI.create(base + "/" + id))).statusCode());
+    }
+    
+    @Test
+    public void testCreationInvalide() throws Exception {
+        HttpResponse<String> reponse = envoyer(HttpRequest.newBuilder(URI.create(base))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"nom\":\"Dupont\",\"prenom\":\"Jean\",\"email\":\"jean.dupont@email.com\",\"role\":\"Admin\"}")));
+        assertEquals(400, reponse.statusCode());
+        
+        reponse = envoyer(HttpRequest.newBuilder(URI.create(base))
+                .POST(HttpRequest.BodyPublishers.ofString("{pas du json")));
+        assertEquals(400, reponse.statusCode());
+    }
+    
+    @Test
+    public void testLectureGroupee() throws Exception {
+        HttpResponse<String> reponse = envoyer(HttpRequest.newBuilder(URI.create(base + "/lot"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"ids\":[1,3,999]}")));
+        assertEquals(200, reponse.statusCode());
+        
+        Map<String, Object> corps = Json.lireObjet(reponse.body());
+        assertEquals(2, ((List<?>) corps.get("utilisateurs")).size());
+        assertEquals(List.of(999L), corps.get("introuvables"));
+    }
+    
+    @Test
+    public void testLectureGroupeeIdHorsLimites() throws Exception {
+        // 2^32 + 1 désignerait l'utilisateur 1 s'il était tronqué
+        HttpResponse<String> reponse = envoyer(HttpRequest.newBuilder(URI.create(base + "/lot"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"ids\":[4294967297]}")));
+        assertEquals(400, reponse.statusCode());
+    }
+    
+    @Test
+    public void testCreationGroupeeAvecErreurs() throws Exception {
+        HttpResponse<String> reponse = envoyer(HttpRequest.newBuilder(URI.create(base + "/lot/ajout"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"utilisateurs\":["
+                        + "{\"nom\":\"Petit\",\"prenom\":\"Léa\",\"email\":\"lea@email.com\",\"role\":\"Admin\"},"
+                        + "{\"nom\":\"\",\"prenom\":\"Léo\",\"email\":\"lea@email.com\",\"role\":\"Admin\"}]}")));
+        assertEquals(200, reponse.statusCode());
+        
+        List<?> resultats = (List<?>) Json.lireObjet(reponse.body()).get("resultats");
+        assertEquals(true, ((Map<?, ?>) resultats.get(0)).get("succes"));
+        Map<?, ?> refus = (Map<?, ?>) resultats.get(1);
+        assertEquals(false, refus.get("succes"));
+        List<?> erreurs = (List<?>) refus.get("erreurs");
+        assertEquals(2, erreurs.size());
+        assertEquals("nom", ((Map<?, ?>) erreurs.get(0)).get("champ"));
+        assertEquals("DOUBLON_DANS_LOT", ((Map<?, ?>) erreurs.get(1)).get("motif"));
+    }
+    
+    @Test
+    public void testRecherche() throws Exception {
+        HttpResponse<String> reponse = envoyer(HttpRequest.newBuilder(URI.create(base + "/recherche?nom=mart")));
+        assertEquals(200, reponse.statusCode());
+        
+        List<?> utilisateurs = (List<?>) Json.lireObjet(reponse.body()).get("utilisateurs");
+        assertEquals(1, utilisateurs.size());
+        assertEquals("Martin", ((Map<?, ?>) utilisateurs.get(0)).get("nom"));
+    }
+}
\ No newline at end of file
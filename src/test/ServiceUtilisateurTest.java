@@ -2,12 +2,18 @@ package test;
 
 import org.junit.jupiter.api.Test;
 
+import main.dao.ResultatEcriture;
+import main.dao.UtilisateurDAO;
+import main.model.ErreurValidation;
+import main.model.RapportValidation;
 import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
 import main.service.ServiceUtilisateur;
 
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,7 +33,7 @@ public class ServiceUtilisateurTest {
         boolean result = serviceUtilisateur.ajouterUtilisateur("Test", "User", "test.user@email.com", "Utilisateur");
         assertTrue(result);
         
-        List<Utilisateur> utilisateurs = serviceUtilisateur.listerTousLesUtilisateurs();
+        List<UtilisateurImmuable> utilisateurs = serviceUtilisateur.listerTousLesUtilisateurs();
         assertEquals(4, utilisateurs.size()); // 3 initiaux + 1 ajouté
     }
     
@@ -39,7 +45,7 @@ public class ServiceUtilisateurTest {
         result = serviceUtilisateur.ajouterUtilisateur("Test", "User", "email-invalide", "Utilisateur");
         assertFalse(result);
         
-        List<Utilisateur> utilisateurs = serviceUtilisateur.listerTousLesUtilisateurs();
+        List<UtilisateurImmuable> utilisateurs = serviceUtilisateur.listerTousLesUtilisateurs();
         assertEquals(3, utilisateurs.size()); // Seulement les 3 initiaux
     }
     
@@ -48,7 +54,7 @@ public class ServiceUtilisateurTest {
         boolean result = serviceUtilisateur.supprimerUtilisateur(1);
         assertTrue(result);
         
-        Optional<Utilisateur> utilisateur = serviceUtilisateur.trouverUtilisateurParId(1);
+        Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(1);
         assertTrue(utilisateur.isEmpty());
     }
     
@@ -63,7 +69,7 @@ public class ServiceUtilisateurTest {
         boolean result = serviceUtilisateur.modifierUtilisateur(1, "NouveauNom", "NouveauPrenom", "nouveau@email.com", "NouveauRole");
         assertTrue(result);
         
-        Optional<Utilisateur> utilisateur = serviceUtilisateur.trouverUtilisateurParId(1);
+        Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(1);
         assertTrue(utilisateur.isPresent());
         assertEquals("NouveauNom", utilisateur.get().getNom());
         assertEquals("NouveauPrenom", utilisateur.get().getPrenom());
@@ -80,35 +86,159 @@ public class ServiceUtilisateurTest {
         assertFalse(result);
     }
     
+    @Test
+    public void testModifierUtilisateurAvecVersion() {
+        long version = serviceUtilisateur.trouverUtilisateurParId(1).get().getVersion();
+        
+        ResultatEcriture resultat = serviceUtilisateur.modifierUtilisateur(1, version, "Durand", "Jean", "jean.durand@email.com", "Admin");
+        assertEquals(ResultatEcriture.SUCCES, resultat);
+        assertEquals(version + 1, serviceUtilisateur.trouverUtilisateurParId(1).get().getVersion());
+        
+        // Une seconde écriture basée sur l'ancienne version est refusée
+        resultat = serviceUtilisateur.modifierUtilisateur(1, version, "Durand", "Paul", "jean.durand@email.com", "Admin");
+        assertEquals(ResultatEcriture.CONFLIT, resultat);
+        assertEquals("Jean", serviceUtilisateur.trouverUtilisateurParId(1).get().getPrenom());
+    }
+    
+    @Test
+    public void testModifierUtilisateurEmailDejaUtilise() {
+        ResultatEcriture resultat = serviceUtilisateur.modifierUtilisateur(1, UtilisateurDAO.VERSION_QUELCONQUE,
+            "Dupont", "Jean", "marie.martin@email.com", "Admin");
+        assertEquals(ResultatEcriture.EMAIL_DEJA_UTILISE, resultat);
+    }
+    
+    @Test
+    public void testSupprimerUtilisateurAvecVersion() {
+        long version = serviceUtilisateur.trouverUtilisateurParId(2).get().getVersion();
+        serviceUtilisateur.modifierUtilisateur(2, "Martin", "Marie", "marie.martin@email.com", "Manager");
+        
+        assertEquals(ResultatEcriture.CONFLIT, serviceUtilisateur.supprimerUtilisateur(2, version));
+        assertEquals(ResultatEcriture.SUCCES, serviceUtilisateur.supprimerUtilisateur(2, version + 1));
+        assertEquals(ResultatEcriture.INTROUVABLE, serviceUtilisateur.supprimerUtilisateur(2, version + 1));
+    }
+    
     @Test
     public void testRechercherUtilisateursParNom() {
-        List<Utilisateur> resultats = serviceUtilisateur.rechercherUtilisateursParNom("Dupont");
+        List<UtilisateurImmuable> resultats = serviceUtilisateur.rechercherUtilisateursParNom("Dupont");
         assertFalse(resultats.isEmpty());
         assertEquals("Dupont", resultats.get(0).getNom());
     }
     
     @Test
     public void testRechercherUtilisateursParNomInexistant() {
-        List<Utilisateur> resultats = serviceUtilisateur.rechercherUtilisateursParNom("Inexistant");
+        List<UtilisateurImmuable> resultats = serviceUtilisateur.rechercherUtilisateursParNom("Inexistant");
         assertTrue(resultats.isEmpty());
     }
     
     @Test
     public void testTrouverUtilisateurParIdExistant() {
-        Optional<Utilisateur> utilisateur = serviceUtilisateur.trouverUtilisateurParId(1);
+        Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(1);
         assertTrue(utilisateur.isPresent());
         assertEquals(1, utilisateur.get().getId());
     }
     
     @Test
     public void testTrouverUtilisateurParIdInexistant() {
-        Optional<Utilisateur> utilisateur = serviceUtilisateur.trouverUtilisateurParId(999);
+        Optional<UtilisateurImmuable> utilisateur = serviceUtilisateur.trouverUtilisateurParId(999);
         assertTrue(utilisateur.isEmpty());
     }
     
     @Test
     public void testListerTousLesUtilisateurs() {
-        List<Utilisateur> utilisateurs = serviceUtilisateur.listerTousLesUtilisateurs();
+        List<UtilisateurImmuable> utilisateurs = serviceUtilisateur.listerTousLesUtilisateurs();
         assertEquals(3, utilisateurs.size()); // Les 3 utilisateurs initiaux
     }
+    
+    @Test
+    public void testChangerRoleUtilisateurs() {
+        assertEquals(ResultatEcriture.SUCCES, serviceUtilisateur.changerRoleUtilisateurs(List.of(1, 3), "Manager"));
+        assertEquals("Manager", serviceUtilisateur.trouverUtilisateurParId(1).get().getRole());
+        assertEquals("Manager", serviceUtilisateur.trouverUtilisateurParId(3).get().getRole());
+        
+        // Un ID inexistant annule tout le lot
+        assertEquals(ResultatEcriture.INTROUVABLE, serviceUtilisateur.changerRoleUtilisateurs(List.of(2, 999), "Manager"));
+        assertEquals("Admin", serviceUtilisateur.trouverUtilisateurParId(2).get().getRole());
+    }
+    
+    @Test
+    public void testRechercheApprocheeTolereLesFautes() {
+        serviceUtilisateur.ajouterUtilisateur("Lefèvre", "Béatrice", "beatrice.lefevre@email.com", "Utilisateur");
+        serviceUtilisateur.ajouterUtilisateur("Lefebvre", "Paul", "paul.lefebvre@email.com", "Utilisateur");
+        
+        // Une lettre oubliée, sans accent : Lefèvre à distance 1 avant Lefebvre à distance 2
+        List<UtilisateurImmuable> resultats = serviceUtilisateur.rechercherUtilisateursParNomApproche("lefvre");
+        assertEquals(2, resultats.size());
+        assertEquals("Lefèvre", resultats.get(0).getNom());
+        assertEquals("Lefebvre", resultats.get(1).getNom());
+        
+        assertEquals(1, serviceUtilisateur.rechercherUtilisateursParNomApproche("Dupond", 1).size());
+        assertTrue(serviceUtilisateur.rechercherUtilisateursParNomApproche("Dpd", 2).isEmpty());
+    }
+    
+    @Test
+    public void testRechercheApprocheeSuitLesModifications() {
+        assertEquals(1, serviceUtilisateur.rechercherUtilisateursParNomApproche("Bernar").size());
+        assertTrue(serviceUtilisateur.modifierUtilisateur(3, "Moreau", "Pierre", "pierre.bernard@email.com", "Utilisateur"));
+        
+        assertTrue(serviceUtilisateur.rechercherUtilisateursParNomApproche("Bernar").isEmpty());
+        assertEquals(3, serviceUtilisateur.rechercherUtilisateursParNomApproche("Moreu").get(0).getId());
+        
+        assertTrue(serviceUtilisateur.supprimerUtilisateur(3));
+        assertTrue(serviceUtilisateur.rechercherUtilisateursParNomApproche("Moreau").isEmpty());
+        assertTrue(serviceUtilisateur.rechercherUtilisateursParNom("Moreau", 10).isEmpty());
+        
+        // Un nom retiré de l'index peut y revenir
+        serviceUtilisateur.ajouterUtilisateur("Moreau", "Anne", "anne.moreau@email.com", "Utilisateur");
+        assertEquals("Anne", serviceUtilisateur.rechercherUtilisateursParNomApproche("Moreu").get(0).getPrenom());
+        assertEquals(1, serviceUtilisateur.rechercherUtilisateursParNom("oreau", 10).size());
+    }
+    
+    @Test
+    public void testRechercheClasseeEtLimitee() {
+        serviceUtilisateur.ajouterUtilisateur("Martinez", "Ana", "ana.martinez@email.com", "Utilisateur");
+        serviceUtilisateur.ajouterUtilisateur("Saint-Martin", "Luc", "luc.saintmartin@email.com", "Utilisateur");
+        serviceUtilisateur.ajouterUtilisateur("Martin", "Paul", "paul.martin@email.com", "Utilisateur");
+        
+        // Noms identiques (par ID), puis commençant par la recherche, puis la contenant
+        List<UtilisateurImmuable> resultats = serviceUtilisateur.rechercherUtilisateursParNom("martin", 10);
+        assertEquals(List.of("Martin", "Martin", "Martinez", "Saint-Martin"),
+                resultats.stream().map(UtilisateurImmuable::getNom).toList());
+        assertEquals(2, resultats.get(0).getId());
+        
+        assertEquals(List.of("Martin", "Martin", "Martinez"),
+                serviceUtilisateur.rechercherUtilisateursParNom("MARTÍN", 3).stream().map(UtilisateurImmuable::getNom).toList());
+        assertEquals(1, serviceUtilisateur.rechercherUtilisateursParNom("Martin", 1).size());
+        assertTrue(serviceUtilisateur.rechercherUtilisateursParNom("Martin", 0).isEmpty());
+    }
+    
+    @Test
+    public void testValiderUtilisateursEnLot() {
+        List<Utilisateur> lot = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            lot.add(new Utilisateur(0, "Nom" + i, "Prenom", "u" + i + "@email.com", "Utilisateur"));
+        }
+        lot.set(10, new Utilisateur(0, " ", "Prenom", "pas-un-email", "Utilisateur"));
+        lot.set(20, new Utilisateur(0, "Nom", "Prenom", "U5@Email.com", "Utilisateur"));
+        lot.set(30, new Utilisateur(0, "Nom", "Prenom", "jean.dupont@email.com", "Utilisateur"));
+        
+        RapportValidation rapport = serviceUtilisateur.validerUtilisateurs(lot);
+        assertFalse(rapport.estValide());
+        assertEquals(10000, rapport.getNombreLignes());
+        assertEquals(3, rapport.getNombreLignesInvalides());
+        assertTrue(rapport.estLigneValide(5));
+        assertFalse(rapport.estLigneValide(20));
+        
+        List<ErreurValidation> erreurs = rapport.getErreurs();
+        assertEquals(4, erreurs.size());
+        assertEquals(ErreurValidation.Champ.NOM, erreurs.get(0).getChamp());
+        assertEquals(ErreurValidation.Motif.FORMAT_INVALIDE, erreurs.get(1).getMotif());
+        assertEquals(10, erreurs.get(1).getLigne());
+        // La première occurrence est gardée, la suivante est le doublon
+        assertEquals(ErreurValidation.Motif.DOUBLON_DANS_LOT, erreurs.get(2).getMotif());
+        assertEquals(20, erreurs.get(2).getLigne());
+        assertEquals(ErreurValidation.Motif.DEJA_UTILISE, erreurs.get(3).getMotif());
+        
+        // Valider n'enregistre rien
+        assertEquals(3, serviceUtilisateur.compterUtilisateurs());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import main.dao.CritereTri;
+import main.dao.LotModifications;
+import main.dao.Modification;
+import main.dao.ResultatEcriture;
+import main.dao.Synchronisation;
+import main.dao.Transaction;
+import main.dao.UtilisateurDAO;
+import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests unitaires pour la synchronisation entre deux UtilisateurDAO.
+ */
+public class SynchronisationTest {
+    
+    @Test
+    public void testRepertoiresIdentiques() {
+        UtilisateurDAO source = new UtilisateurDAO();
+        UtilisateurDAO replica = new UtilisateurDAO();
+        assertEquals(0, Synchronisation.comparer(source, replica).length);
+        
+        Synchronisation synchronisation = new Synchronisation(source, replica);
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        assertEquals(0, synchronisation.getDerniersTransferts());
+        assertEquals(source.getSequence(), synchronisation.getSequence());
+    }
+    
+    @Test
+    public void testSynchronisationProportionnelleAuxModifications() {
+        UtilisateurDAO source = new UtilisateurDAO();
+        for (int i = 0; i < 10_000; i++) {
+            source.ajouter(new Utilisateur(0, "Nom" + i, "Prenom", "u" + i + "@example.com", "Utilisateur"));
+        }
+        UtilisateurDAO replica = new UtilisateurDAO();
+        Synchronisation synchronisation = new Synchronisation(source, replica);
+        
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        assertEquals(10_000, synchronisation.getDerniersTransferts());
+        assertEquals(10_003, replica.compter());
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        assertEquals(0, synchronisation.getDerniersTransferts());
+        
+        for (int id = 100; id < 105; id++) {
+            Utilisateur utilisateur = new Utilisateur(id, "Modifie" + id, "Prenom", "m" + id + "@example.com", "Admin");
+            assertTrue(source.modifier(utilisateur));
+        }
+        assertTrue(source.supprimer(2000));
+        assertTrue(source.supprimer(2001));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(source.ajouter(new Utilisateur(0, "Nouveau", "Prenom", "n" + i + "@example.com", "Utilisateur")));
+        }
+        
+        assertEquals(10, Synchronisation.comparer(source, replica).length);
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        assertEquals(10, synchronisation.getDerniersTransferts());
+        assertEquals(0, Synchronisation.comparer(source, replica).length);
+        assertEquals(source.compter(), replica.compter());
+        assertEquals("Modifie102", replica.trouverParId(102).get().getNom());
+        assertTrue(replica.trouverParId(2000).isEmpty());
+        assertEquals(source.listerIdsTries(CritereTri.EMAIL).length,
+                replica.listerIdsTries(CritereTri.EMAIL).length);
+    }
+    
+    @Test
+    public void testReparationDUneDivergenceLocale() {
+        UtilisateurDAO source = new UtilisateurDAO();
+        UtilisateurDAO replica = new UtilisateurDAO();
+        Synchronisation synchronisation = new Synchronisation(source, replica);
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        
+        // Écriture faite directement sur le réplica : absente des séquences de la source
+        assertTrue(replica.modifier(new Utilisateur(2, "Martin", "Marie", "marie@example.com", "Utilisateur")));
+        assertArrayEquals(new int[] {2}, Synchronisation.comparer(source, replica));
+        
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        assertEquals(1, synchronisation.getDerniersTransferts());
+        assertEquals("marie.martin@email.com", replica.trouverParId(2).get().getEmail());
+        assertEquals(0, Synchronisation.comparer(source, replica).length);
+    }
+    
+    @Test
+    public void testExportInstantaneEtDifferentiel() {
+        UtilisateurDAO dao = new UtilisateurDAO();
+        assertTrue(dao.supprimer(3));
+        
+        LotModifications complet = dao.exporterDepuis(0);
+        assertEquals(2, complet.getTaille());
+        assertTrue(complet.getModifications().stream().noneMatch(Modification::estSuppression));
+        assertEquals(dao.getSequence(), complet.getSequence());
+        
+        assertTrue(dao.modifier(new Utilisateur(1, "Dupont", "Jean", "jean@example.com", "Admin")));
+        assertTrue(dao.supprimer(2));
+        LotModifications delta = dao.exporterDepuis(complet.getSequence());
+        assertEquals(2, delta.getTaille());
+        for (Modification modification : delta.getModifications()) {
+            assertTrue(modification.getSequence() > complet.getSequence());
+            if (modification.getId() == 1) {
+                assertEquals("jean@example.com", modification.getUtilisateur().getEmail());
+            } else {
+                assertEquals(2, modification.getId());
+                assertTrue(modification.estSuppression());
+            }
+        }
+        assertEquals(0, dao.exporterDepuis(delta.getSequence()).getTaille());
+    }
+    
+    @Test
+    public void testImportDUnEchangeDEmails() {
+        UtilisateurDAO source = new UtilisateurDAO();
+        UtilisateurDAO replica = new UtilisateurDAO();
+        Synchronisation synchronisation = new Synchronisation(source, replica);
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        
+        try (Transaction transaction = source.demarrerTransaction()) {
+            UtilisateurImmuable jean = transaction.trouverParId(1).get();
+            UtilisateurImmuable marie = transaction.trouverParId(2).get();
+            transaction.modifier(jean.modifier().email(marie.getEmail()).construire());
+            transaction.modifier(marie.modifier().email(jean.getEmail()).construire());
+            assertEquals(ResultatEcriture.SUCCES, transaction.valider());
+        }
+        
+        assertEquals(ResultatEcriture.SUCCES, synchronisation.synchroniser());
+        assertEquals(2, synchronisation.getDerniersTransferts());
+        assertEquals("marie.martin@email.com", replica.trouverParId(1).get().getEmail());
+        assertEquals(1, replica.rechercherParEmail("marie.martin@email.com").get(0).getId());
+        List<UtilisateurImmuable> tous = replica.listerTous();
+        assertEquals(3, tous.size());
+    }
+    
+    @Test
+    public void testImportsConcurrentsSansInterblocage() throws Exception {
+        UtilisateurDAO replica = new UtilisateurDAO();
+        for (int i = 0; i < 200; i++) {
+            replica.ajouter(new Utilisateur(0, "Nom" + i, "Prenom", "u" + i + "@example.com", "Utilisateur"));
+        }
+        List<UtilisateurImmuable> initiaux = replica.listerTous();
+        ExecutorService executeur = Executors.newFixedThreadPool(3);
+        try {
+            // Deux lots sur les mêmes utilisateurs, listés dans des ordres opposés
+            List<Future<?>> taches = new ArrayList<>();
+            for (int sens = 0; sens < 2; sens++) {
+                boolean inverse = sens == 1;
+                taches.add(executeur.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        List<Modification> lot = new ArrayList<>();
+                        for (UtilisateurImmuable utilisateur : initiaux) {
+                            lot.add(new Modification(utilisateur.getId(), i + 1,
+                                    utilisateur.modifier().role((inverse ? "B" : "A") + i).construire()));
+                        }
+                        if (inverse) {
+                            Collections.reverse(lot);
+                        }
+                        assertEquals(ResultatEcriture.SUCCES, replica.importer(lot));
+                    }
+                }));
+            }
+            // Les exports attendent l'indexation des commits de leur instantané
+            taches.add(executeur.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    assertEquals(initiaux.size(), replica.exporterDepuis(0).getModifications().size());
+                }
+            }));
+            for (Future<?> tache : taches) {
+                tache.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executeur.shutdownNow();
+        }
+        assertEquals(initiaux.size(), replica.compter());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+
+import main.dao.CritereTri;
+import main.model.UtilisateurImmuable;
+import main.service.ServiceUtilisateur;
+import main.ui.UserTableModel;
+
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tests unitaires pour le modèle de la table des utilisateurs.
+ */
+public class UserTableModelTest {
+    private ServiceUtilisateur serviceUtilisateur;
+    private UserTableModel tableModel;
+    
+    @BeforeEach
+    public void setUp() {
+        serviceUtilisateur = new ServiceUtilisateur();
+        tableModel = new UserTableModel(serviceUtilisateur);
+    }
+    
+    @Test
+    public void testTriConserveApresModification() {
+        serviceUtilisateur.ajouterUtilisateur("Martin", "Luc", "luc.martin@email.com", "Utilisateur");
+        serviceUtilisateur.ajouterUtilisateur("Zola", "Emile", "emile.zola@email.com", "Utilisateur");
+        tableModel.sortBy(CritereTri.NOM);
+        tableModel.setDescending(true);
+        assertTriee(CritereTri.NOM.comparateur().reversed());
+        
+        // Le premier nom de la vue passe en fin d'ordre alphabétique, donc en fin de table
+        int id = tableModel.getUserIdAt(0);
+        UtilisateurImmuable user = serviceUtilisateur.trouverUtilisateurParId(id).get();
+        assertTrue(serviceUtilisateur.modifierUtilisateur(id, "Abadie", user.getPrenom(), user.getEmail(), user.getRole()));
+        tableModel.sortBy(CritereTri.NOM);
+        
+        assertTrue(tableModel.isDescending());
+        assertEquals(id, tableModel.getUserIdAt(tableModel.getRowCount() - 1));
+        assertEquals("Abadie", tableModel.getValueAt(tableModel.getRowCount() - 1, 2));
+        assertTriee(CritereTri.NOM.comparateur().reversed());
+    }
+    
+    private void assertTriee(Comparator<UtilisateurImmuable> ordre) {
+        List<UtilisateurImmuable> lignes = new ArrayList<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            lignes.add(serviceUtilisateur.trouverUtilisateurParId(tableModel.getUserIdAt(row)).get());
+        }
+        assertTrue(lignes.size() > 2);
+        List<UtilisateurImmuable> attendues = new ArrayList<>(lignes);
+        attendues.sort(ordre);
+        assertEquals(attendues, lignes);
+    }
+}
\ No newline at end of file
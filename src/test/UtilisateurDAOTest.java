@@ -0,0 +1,385 @@
+package test;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.dao.AllocateurIds;
+import main.dao.CritereTri;
+import main.dao.ResultatEcriture;
+import main.dao.Transaction;
+import main.dao.UtilisateurDAO;
+import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests unitaires pour la classe UtilisateurDAO, en particulier en accès concurrent.
+ */
+public class UtilisateurDAOTest {
+    private UtilisateurDAO utilisateurDAO;
+    
+    @BeforeEach
+    public void setUp() {
+        utilisateurDAO = new UtilisateurDAO();
+    }
+    
+    @Test
+    public void testVersionInitialeEtIncrement() {
+        Utilisateur utilisateur = new Utilisateur(0, "Petit", "Léa", "lea.petit@email.com", "Manager");
+        assertTrue(utilisateurDAO.ajouter(utilisateur));
+        assertEquals(1, utilisateur.getVersion());
+        
+        Utilisateur modifie = new Utilisateur(utilisateur.getId(), "Petit", "Léa", "lea.petit@email.com", "Admin");
+        assertEquals(ResultatEcriture.SUCCES, utilisateurDAO.modifier(modifie, 1));
+        assertEquals(2, utilisateurDAO.trouverParId(utilisateur.getId()).get().getVersion());
+    }
+    
+    @Test
+    public void testEcrituresConcurrentesSansPerte() throws Exception {
+        int threads = 8;
+        int incrementsParThread = 500;
+        ExecutorService executeur = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> conflits = new ArrayList<>();
+        
+        // Le rôle sert de compteur
+        assertTrue(utilisateurDAO.modifier(new Utilisateur(1, "Dupont", "Jean", "jean.dupont@email.com", "0")));
+        long versionInitiale = utilisateurDAO.trouverParId(1).get().getVersion();
+        
+        // Chaque thread relit puis réécrit l'utilisateur 1 avec sa version : aucune écriture ne doit être perdue
+        for (int t = 0; t < threads; t++) {
+            conflits.add(executeur.submit(() -> {
+                int nombreConflits = 0;
+                for (int i = 0; i < incrementsParThread; i++) {
+                    while (true) {
+                        UtilisateurImmuable lu = utilisateurDAO.trouverParId(1).get();
+                        int compteur = Integer.parseInt(lu.getRole());
+                        Utilisateur nouveau = new Utilisateur(1, lu.getNom(), lu.getPrenom(), lu.getEmail(),
+                                String.valueOf(compteur + 1));
+                        if (utilisateurDAO.modifier(nouveau, lu.getVersion()).estSucces()) {
+                            break;
+                        }
+                        nombreConflits++;
+                    }
+                }
+                return nombreConflits;
+            }));
+        }
+        executeur.shutdown();
+        assertTrue(executeur.awaitTermination(30, TimeUnit.SECONDS));
+        for (Future<Integer> resultat : conflits) {
+            resultat.get();
+        }
+        
+        UtilisateurImmuable fin = utilisateurDAO.trouverParId(1).get();
+        assertEquals(String.valueOf(threads * incrementsParThread), fin.getRole());
+        assertEquals(versionInitiale + threads * incrementsParThread, fin.getVersion());
+    }
+    
+    @Test
+    public void testEmailUniqueEnConcurrence() throws Exception {
+        ExecutorService executeur = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> ajouts = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String prenom = "Prenom" + i;
+            ajouts.add(executeur.submit(() -> utilisateurDAO.ajouter(
+                    new Utilisateur(0, "Doublon", prenom, "meme.email@email.com", "Utilisateur"))));
+        }
+        executeur.shutdown();
+        
+        int reussis = 0;
+        for (Future<Boolean> ajout : ajouts) {
+            if (ajout.get()) {
+                reussis++;
+            }
+        }
+        assertEquals(1, reussis);
+        assertEquals(1, utilisateurDAO.rechercherParEmail("MEME.EMAIL@email.com").size());
+    }
+    
+    @Test
+    public void testTransactionAtomiqueEtIsolee() {
+        long versionAvant = utilisateurDAO.getVersionDonnees();
+        try (Transaction transaction = utilisateurDAO.demarrerTransaction()) {
+            assertTrue(transaction.modifier(new Utilisateur(1, "Dupont", "Jean", "jean.dupont@email.com", "Admin")));
+            assertTrue(transaction.supprimer(3));
+            assertTrue(transaction.ajouter(new Utilisateur(0, "Petit", "Léa", "lea.petit@email.com", "Manager")));
+            
+            // La transaction voit ses écritures, les autres lecteurs non
+            assertEquals("Admin", transaction.trouverParId(1).get().getRole());
+            assertEquals(3, transaction.listerTous().size());
+            assertEquals("Utilisateur", utilisateurDAO.trouverParId(1).get().getRole());
+            assertTrue(utilisateurDAO.trouverParId(3).isPresent());
+            
+            assertEquals(ResultatEcriture.SUCCES, transaction.valider());
+        }
+        
+        assertEquals(versionAvant + 1, utilisateurDAO.getVersionDonnees());
+        assertEquals("Admin", utilisateurDAO.trouverParId(1).get().getRole());
+        assertTrue(utilisateurDAO.trouverParId(3).isEmpty());
+        assertEquals(3, utilisateurDAO.compter());
+        assertEquals(1, utilisateurDAO.rechercherParEmail("lea.petit@email.com").size());
+    }
+    
+    @Test
+    public void testTransactionInstantaneEtConflit() {
+        Transaction transaction = utilisateurDAO.demarrerTransaction();
+        UtilisateurImmuable lu = transaction.trouverParId(2).get();
+        
+        // Commit concurrent sur le même utilisateur après le début de la transaction
+        assertTrue(utilisateurDAO.modifier(new Utilisateur(2, "Martin", "Marie", "marie.martin@email.com", "Manager")));
+        assertEquals("Admin", transaction.trouverParId(2).get().getRole());
+        
+        transaction.modifier(new Utilisateur(2, lu.getNom(), lu.getPrenom(), lu.getEmail(), "Utilisateur"));
+        transaction.modifier(new Utilisateur(1, "Dupont", "Jean", "jean.dupont@email.com", "Admin"));
+        assertEquals(ResultatEcriture.CONFLIT, transaction.valider());
+        
+        // Rien n'a été appliqué, et les utilisateurs restent modifiables
+        assertEquals("Manager", utilisateurDAO.trouverParId(2).get().getRole());
+        assertEquals("Utilisateur", utilisateurDAO.trouverParId(1).get().getRole());
+        assertTrue(utilisateurDAO.modifier(new Utilisateur(1, "Dupont", "Jean", "jean.dupont@email.com", "Admin")));
+    }
+    
+    @Test
+    public void testTransactionEchangeEmailsEtAnnulation() {
+        try (Transaction transaction = utilisateurDAO.demarrerTransaction()) {
+            transaction.modifier(new Utilisateur(1, "Dupont", "Jean", "marie.martin@email.com", "Utilisateur"));
+            transaction.modifier(new Utilisateur(2, "Martin", "Marie", "jean.dupont@email.com", "Admin"));
+            assertEquals(ResultatEcriture.SUCCES, transaction.valider());
+        }
+        assertEquals(1, utilisateurDAO.rechercherParEmail("marie.martin@email.com").get(0).getId());
+        assertEquals(2, utilisateurDAO.rechercherParEmail("jean.dupont@email.com").get(0).getId());
+        
+        // Un email déjà pris fait échouer toute la transaction
+        try (Transaction transaction = utilisateurDAO.demarrerTransaction()) {
+            transaction.modifier(new Utilisateur(3, "Bernard", "Pierre", "pierre.b@email.com", "Admin"));
+            transaction.modifier(new Utilisateur(1, "Dupont", "Jean", "jean.dupont@email.com", "Utilisateur"));
+            assertEquals(ResultatEcriture.EMAIL_DEJA_UTILISE, transaction.valider());
+        }
+        assertEquals("pierre.bernard@email.com", utilisateurDAO.trouverParId(3).get().getEmail());
+        assertTrue(utilisateurDAO.rechercherParEmail("pierre.b@email.com").isEmpty());
+    }
+    
+    @Test
+    public void testLecteursVoientDesCommitsComplets() throws Exception {
+        // Un écrivain déplace sans cesse le rôle "Admin" entre les utilisateurs 1 et 2 en une transaction :
+        // tout instantané doit contenir exactement un Admin parmi eux
+        ExecutorService executeur = Executors.newFixedThreadPool(2);
+        Future<?> ecrivain = executeur.submit(() -> {
+            for (int i = 0; i < 2000; i++) {
+                try (Transaction transaction = utilisateurDAO.demarrerTransaction()) {
+                    for (int id = 1; id <= 2; id++) {
+                        UtilisateurImmuable u = transaction.trouverParId(id).get();
+                        String role = "Admin".equals(u.getRole()) ? "Utilisateur" : "Admin";
+                        transaction.modifier(new Utilisateur(id, u.getNom(), u.getPrenom(), u.getEmail(), role));
+                    }
+                    assertEquals(ResultatEcriture.SUCCES, transaction.valider());
+                }
+            }
+        });
+        Future<?> lecteur = executeur.submit(() -> {
+            while (!ecrivain.isDone()) {
+                long admins = utilisateurDAO.listerTous().stream()
+                        .filter(u -> u.getId() <= 2 && "Admin".equals(u.getRole()))
+                        .count();
+                assertEquals(1, admins);
+            }
+        });
+        executeur.shutdown();
+        ecrivain.get(30, TimeUnit.SECONDS);
+        lecteur.get(30, TimeUnit.SECONDS);
+    }
+    
+    @Test
+    public void testSaisieRecoitIdEtVersion() {
+        Utilisateur saisie = new Utilisateur(0, "Petit", "Léa", "lea.petit@email.com", "Admin");
+        assertTrue(utilisateurDAO.ajouter(saisie));
+        assertEquals(4, saisie.getId());
+        assertEquals(1, saisie.getVersion());
+        
+        // Une écriture refusée ne touche pas à la saisie
+        saisie.setRole("Manager");
+        assertEquals(ResultatEcriture.CONFLIT, utilisateurDAO.modifier(saisie, 7));
+        assertEquals(1, saisie.getVersion());
+        assertEquals(ResultatEcriture.SUCCES, utilisateurDAO.modifier(saisie, 1));
+        assertEquals(2, saisie.getVersion());
+        assertEquals(saisie.getVersion(), utilisateurDAO.trouverParId(4).get().getVersion());
+    }
+    
+    @Test
+    public void testLecturesPartageesSansCopie() {
+        UtilisateurImmuable lu = utilisateurDAO.trouverParId(1).get();
+        assertSame(lu, utilisateurDAO.listerTous().get(0));
+        
+        // Une écriture à partir d'une valeur immuable crée une nouvelle version
+        assertEquals(ResultatEcriture.SUCCES,
+                utilisateurDAO.modifier(lu.modifier().role("Admin").construire(), lu.getVersion()));
+        assertEquals("Utilisateur", lu.getRole());
+        assertEquals("Admin", utilisateurDAO.trouverParId(1).get().getRole());
+        assertEquals(lu.getVersion() + 1, utilisateurDAO.trouverParId(1).get().getVersion());
+    }
+    
+    @Test
+    public void testListerApresParcourtToutParBlocs() {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(utilisateurDAO.ajouter(new Utilisateur(0, "Nom" + i, "Prenom", "u" + i + "@email.com", "Utilisateur")));
+        }
+        assertTrue(utilisateurDAO.supprimer(5));
+        
+        List<Integer> ids = new ArrayList<>();
+        int dernierId = 0;
+        List<UtilisateurImmuable> page;
+        while (!(page = utilisateurDAO.listerApres(dernierId, 7)).isEmpty()) {
+            assertTrue(page.size() <= 7);
+            page.forEach(u -> ids.add(u.getId()));
+            dernierId = page.get(page.size() - 1).getId();
+        }
+        assertEquals(utilisateurDAO.compter(), ids.size());
+        assertFalse(ids.contains(5));
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+    
+    @Test
+    public void testListerIdsTriesSuitLesEcritures() {
+        for (int id = 1; id <= 3; id++) {
+            assertTrue(utilisateurDAO.supprimer(id));
+        }
+        utilisateurDAO.ajouter(new Utilisateur(0, "Martin", "Zoé", "zoe@email.com", "Utilisateur"));
+        utilisateurDAO.ajouter(new Utilisateur(0, "Édouard", "Alice", "alice@email.com", "Admin"));
+        utilisateurDAO.ajouter(new Utilisateur(0, "dupont", "Bob", "bob@email.com", "Utilisateur"));
+        utilisateurDAO.ajouter(new Utilisateur(0, "Martin", "Éric", "eric@email.com", "Manager"));
+        
+        // Sans casse ni accents, à clé égale départagé par ID
+        assertArrayEquals(new int[] {6, 5, 4, 7}, utilisateurDAO.listerIdsTries(CritereTri.NOM));
+        assertArrayEquals(new int[] {5, 6, 7, 4}, utilisateurDAO.listerIdsTries(CritereTri.PRENOM));
+        assertArrayEquals(new int[] {5, 7, 4, 6}, utilisateurDAO.listerIdsTries(CritereTri.ROLE));
+        assertArrayEquals(new int[] {4, 5, 6, 7}, utilisateurDAO.listerIdsTries(CritereTri.ID));
+        
+        assertTrue(utilisateurDAO.modifier(new Utilisateur(4, "Abel", "Zoé", "zoe@email.com", "Utilisateur")));
+        assertTrue(utilisateurDAO.supprimer(6));
+        assertArrayEquals(new int[] {4, 5, 7}, utilisateurDAO.listerIdsTries(CritereTri.NOM));
+        assertArrayEquals(new int[] {5, 7, 4}, utilisateurDAO.listerIdsTries(CritereTri.EMAIL));
+        assertArrayEquals(new int[] {4, 5, 7}, utilisateurDAO.listerIdsTries(CritereTri.ID));
+    }
+    
+    @Test
+    public void testTrouverParIdRepertoireDense() {
+        // IDs choisis dans des pages éloignées : la table des pages grandit
+        assertTrue(utilisateurDAO.ajouter(new Utilisateur(5000, "Loin", "Léa", "lea.loin@email.com", "Admin")));
+        assertTrue(utilisateurDAO.ajouter(new Utilisateur(1_000_000, "Tres", "Loin", "tres.loin@email.com", "Admin")));
+        assertFalse(utilisateurDAO.ajouter(new Utilisateur(-4, "Negatif", "Id", "negatif@email.com", "Admin")));
+        
+        assertEquals("Loin", utilisateurDAO.trouverParId(5000).get().getNom());
+        assertEquals("Tres", utilisateurDAO.trouverParId(1_000_000).get().getNom());
+        assertTrue(utilisateurDAO.trouverParId(4999).isEmpty());
+        assertTrue(utilisateurDAO.trouverParId(-4).isEmpty());
+        assertTrue(utilisateurDAO.trouverParId(Integer.MAX_VALUE).isEmpty());
+        
+        // Supprimé : la case garde une tombe, l'utilisateur n'est plus trouvé
+        assertTrue(utilisateurDAO.supprimer(5000));
+        assertTrue(utilisateurDAO.trouverParId(5000).isEmpty());
+        assertFalse(utilisateurDAO.supprimer(5000));
+        assertEquals(4, utilisateurDAO.compter());
+    }
+    
+    @Test
+    public void testPartitionsEnConcurrence() throws Exception {
+        UtilisateurDAO partitionne = new UtilisateurDAO(new AllocateurIds(), 8);
+        ExecutorService executeur = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> taches = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int fil = t;
+                taches.add(executeur.submit(() -> {
+                    int ajouts = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        // Chaque email est tenté par deux fils : un seul doit l'obtenir
+                        String email = "u" + (fil / 2) + "-" + i + "@email.com";
+                        if (partitionne.ajouter(new Utilisateur(0, i % 2 == 0 ? "Pair" : "Impair", "P", email, "R"))) {
+                            ajouts++;
+                        }
+                    }
+                    return ajouts;
+                }));
+            }
+            int ajouts = 0;
+            for (Future<Integer> tache : taches) {
+                ajouts += tache.get();
+            }
+            assertEquals(4000, ajouts);
+        } finally {
+            executeur.shutdown();
+        }
+        assertEquals(4003, partitionne.compter());
+        
+        // Parcours complets et pages : fusion des partitions dans l'ordre des IDs
+        List<UtilisateurImmuable> tous = partitionne.listerTous();
+        assertEquals(4003, tous.size());
+        for (int i = 1; i < tous.size(); i++) {
+            assertTrue(tous.get(i - 1).getId() < tous.get(i).getId());
+        }
+        List<UtilisateurImmuable> parPages = new ArrayList<>();
+        for (List<UtilisateurImmuable> page = partitionne.listerApres(0, 500); !page.isEmpty();
+             page = partitionne.listerApres(page.get(page.size() - 1).getId(), 500)) {
+            parPages.addAll(page);
+        }
+        assertEquals(tous, parPages);
+        assertEquals(tous.subList(1000, 1100), partitionne.listerPage(1000, 100));
+        assertEquals(tous.size(), partitionne.listerIdsTries(CritereTri.ID).length);
+        
+        List<UtilisateurImmuable> impairs = partitionne.rechercherParNom("impair");
+        assertEquals(2000, impairs.size());
+        for (int i = 1; i < impairs.size(); i++) {
+            assertTrue(impairs.get(i - 1).getId() < impairs.get(i).getId());
+        }
+    }
+    
+    @Test
+    public void testEcrituresSansInstantaneAvecPlusDeFilsQueDeCoeurs() throws Exception {
+        // Plus d'écrivains que de cœurs : un commit en attente de publication peut ne pas
+        // avoir de cœur, ses concurrents doivent lui céder la place plutôt que tourner
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        int ecrituresParThread = 200;
+        int[] ids = {1, 2, 3};
+        long versionsInitiales = 0;
+        for (int id : ids) {
+            versionsInitiales += utilisateurDAO.trouverParId(id).get().getVersion();
+        }
+        
+        ExecutorService executeur = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> taches = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int fil = t;
+            taches.add(executeur.submit(() -> {
+                int reussies = 0;
+                for (int i = 0; i < ecrituresParThread; i++) {
+                    UtilisateurImmuable lu = utilisateurDAO.trouverParId(ids[(fil + i) % ids.length]).get();
+                    if (utilisateurDAO.modifier(new Utilisateur(lu.getId(), lu.getNom(), lu.getPrenom(),
+                            lu.getEmail(), "Role" + fil))) {
+                        reussies++;
+                    }
+                }
+                return reussies;
+            }));
+        }
+        executeur.shutdown();
+        int reussies = 0;
+        for (Future<Integer> tache : taches) {
+            reussies += tache.get(30, TimeUnit.SECONDS);
+        }
+        
+        assertEquals(threads * ecrituresParThread, reussies);
+        long versionsFinales = 0;
+        for (int id : ids) {
+            versionsFinales += utilisateurDAO.trouverParId(id).get().getVersion();
+        }
+        assertEquals(versionsInitiales + reussies, versionsFinales);
+    }
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package test;
 import org.junit.jupiter.api.Test;
 
 import main.model.Utilisateur;
+import main.model.UtilisateurImmuable;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,4 +86,27 @@ public class UtilisateurTest {
         assertTrue(toString.contains("jean.dupont@email.com"));
         assertTrue(toString.contains("Admin"));
     }
+    
+    @Test
+    public void testUtilisateurImmuable() {
+        UtilisateurImmuable utilisateur = UtilisateurImmuable.builder()
+                .id(1).nom("Dupont").prenom("Jean").email("Jean.Dupont@Email.com").role("Admin").version(3)
+                .construire();
+        
+        assertEquals("dupont", utilisateur.getNomCle());
+        assertEquals("jean.dupont@email.com", utilisateur.getEmailMinuscule());
+        
+        // Une modification produit une nouvelle valeur, l'original ne change pas
+        UtilisateurImmuable modifie = utilisateur.modifier().nom("Martin").construire();
+        assertEquals("Martin", modifie.getNom());
+        assertEquals("martin", modifie.getNomCle());
+        assertEquals(3, modifie.getVersion());
+        assertEquals("Dupont", utilisateur.getNom());
+        
+        // Égal à la version modifiable du même utilisateur
+        Utilisateur modifiable = new Utilisateur(1, "Dupont", "Jean", "jean.dupont@email.com", "Admin");
+        assertEquals(modifiable, utilisateur);
+        assertEquals(utilisateur, modifiable);
+        assertSame(utilisateur, UtilisateurImmuable.de(utilisateur));
+    }
 }
\ No newline at end of file